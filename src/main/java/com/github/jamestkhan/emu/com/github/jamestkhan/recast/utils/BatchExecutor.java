@@ -0,0 +1,43 @@
+package com.github.jamestkhan.recast.utils;
+
+/**
+ * This is the GWT version, there are no threads so batches run serially on the calling thread.
+ *
+ * @author JamesTKhan
+ * @version October 18, 2026
+ */
+public class BatchExecutor {
+
+    /**
+     * Work on a contiguous part of a batch.
+     */
+    public interface RangeTask {
+        /**
+         * @param from first index, inclusive
+         * @param to   last index, exclusive
+         */
+        void run(int from, int to);
+    }
+
+    private static final BatchExecutor COMMON = new BatchExecutor();
+
+    public static BatchExecutor common() {
+        return COMMON;
+    }
+
+    public int getParallelism() {
+        return 1;
+    }
+
+    public void run(int start, int end, int grainSize, RangeTask task) {
+        if (end <= start) {
+            return;
+        }
+        task.run(start, end);
+    }
+
+    public void invokeAll(Runnable first, Runnable second) {
+        first.run();
+        second.run();
+    }
+}
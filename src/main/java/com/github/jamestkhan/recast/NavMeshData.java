@@ -18,32 +18,220 @@ freely, subject to the following restrictions:
 */
 package com.github.jamestkhan.recast;
 
+import com.badlogic.gdx.utils.Array;
+import com.github.jamestkhan.recast.detour.IslandIndex;
+import com.github.jamestkhan.recast.utils.NearestPolyCache;
+import org.recast4j.detour.MeshData;
+import org.recast4j.detour.MeshTile;
 import org.recast4j.detour.NavMesh;
 import org.recast4j.detour.NavMeshQuery;
 
+import java.util.List;
+
 public class NavMeshData {
+    /** Default maximum number of idle queries kept by the query pool. */
+    public static final int DEFAULT_MAX_POOLED_QUERIES = 32;
+    /** Number of slots of the nearest polygon cache. */
+    public static final int NEAREST_POLY_CACHE_SIZE = 1024;
+    /** Size of the cells the nearest polygon cache snaps positions to. */
+    public static final float NEAREST_POLY_CACHE_CELL_SIZE = 0.25f;
+
+    /**
+     * Notified when the navmesh, or one of its tiles, changes. Used to invalidate data derived from the navmesh.
+     */
+    public interface Listener {
+        /**
+         * The navmesh was replaced with {@link #update(NavMesh)}.
+         */
+        void navMeshChanged(NavMeshData navMeshData);
+
+        /**
+         * A tile was added to or removed from the current navmesh.
+         *
+         * @param tileIndex the index of the tile in the navmesh, see {@link NavMesh#getTile(int)}
+         */
+        void tileChanged(NavMeshData navMeshData, int tileIndex);
+    }
+
     private NavMesh navMesh;
     private NavMeshQuery navMeshQuery;
+    private final NavMeshQueryPool queryPool;
+    private final Array<Listener> listeners = new Array<>(false, 4);
+    private final NearestPolyCache nearestPolyCache;
+    private final IslandIndex islandIndex;
 
     public NavMeshData(NavMesh navMesh) {
+        this(navMesh, DEFAULT_MAX_POOLED_QUERIES);
+    }
+
+    /**
+     * @param navMesh           the navmesh
+     * @param maxPooledQueries  the maximum number of idle queries kept for concurrent use, see {@link #obtainQuery()}
+     */
+    public NavMeshData(NavMesh navMesh, int maxPooledQueries) {
         this.navMesh = navMesh;
+        queryPool = new NavMeshQueryPool(this, Math.min(4, maxPooledQueries), maxPooledQueries);
+        nearestPolyCache = new NearestPolyCache(this, NEAREST_POLY_CACHE_SIZE, NEAREST_POLY_CACHE_CELL_SIZE);
         setQuery(navMesh);
+        islandIndex = new IslandIndex(this);
     }
 
     private void setQuery(NavMesh navMesh) {
         navMeshQuery = navMesh != null ? new NavMeshQuery(navMesh) : null;
+        queryPool.clear();
     }
 
     public NavMesh getNavMesh() {
         return navMesh;
     }
 
+    /**
+     * Returns the shared query of this navmesh. A NavMeshQuery is not thread safe, only use the shared query from a
+     * single thread, otherwise lease one with {@link #obtainQuery()}.
+     *
+     * @return the shared query
+     */
     public NavMeshQuery getNavMeshQuery() {
         return navMeshQuery;
     }
 
+    /**
+     * Lease a query for exclusive use by the caller, it must be returned with {@link #freeQuery(NavMeshQuery)}.
+     * Thread safe.
+     *
+     * @return a query attached to the current navmesh
+     */
+    public NavMeshQuery obtainQuery() {
+        return queryPool.obtain();
+    }
+
+    /**
+     * Return a query obtained from {@link #obtainQuery()}. Thread safe.
+     *
+     * @param query the query to return
+     */
+    public void freeQuery(NavMeshQuery query) {
+        queryPool.free(query);
+    }
+
+    public NavMeshQueryPool getQueryPool() {
+        return queryPool;
+    }
+
+    /**
+     * Returns the cache used to resolve positions to polygons by the pathfinder and crowd manager.
+     *
+     * @return the nearest polygon cache of this navmesh
+     */
+    public NearestPolyCache getNearestPolyCache() {
+        return nearestPolyCache;
+    }
+
+    /**
+     * Returns the connected components of this navmesh, kept up to date with navmesh and tile changes.
+     *
+     * @return the island index of this navmesh
+     */
+    public IslandIndex getIslandIndex() {
+        return islandIndex;
+    }
+
     public void update(NavMesh navMesh) {
         this.navMesh = navMesh;
         setQuery(navMesh);
+        for (int i = 0; i < listeners.size; i++) {
+            listeners.get(i).navMeshChanged(this);
+        }
+    }
+
+    /**
+     * Add a tile to the current navmesh, for tiled navmeshes built with
+     * {@link com.github.jamestkhan.recast.builders.TileNavMeshBuilder}. Tiles must not be changed while other threads
+     * are querying the navmesh.
+     *
+     * @param data the tile data
+     * @return the ref of the new tile, 0 if it could not be added
+     */
+    public long addTile(MeshData data) {
+        long ref = navMesh.addTile(data, 0, 0);
+        if (ref != 0) {
+            notifyTileChanged(data.header.x, data.header.y, data.header.layer);
+        }
+        return ref;
+    }
+
+    /**
+     * Remove the tile at the given location from the current navmesh.
+     *
+     * @return the data of the removed tile, null if there was no tile at the location
+     */
+    public MeshData removeTile(int tileX, int tileY, int layer) {
+        // Resolve the index while the tile is still in place
+        MeshTile tile = findTile(tileX, tileY, layer);
+        if (tile == null) {
+            return null;
+        }
+        int tileIndex = tile.index;
+        MeshData removed = navMesh.removeTile(navMesh.getTileRefAt(tileX, tileY, layer));
+        notifyTileChanged(tileIndex);
+        return removed;
+    }
+
+    /**
+     * Replace the tile at the location of the given data, or add it if there is none. Listeners are notified once
+     * when the new tile takes the index of the old one, as Detour normally reuses it.
+     *
+     * @param data the new tile data
+     * @return the ref of the new tile, 0 if it could not be added
+     */
+    public long replaceTile(MeshData data) {
+        MeshTile old = findTile(data.header.x, data.header.y, data.header.layer);
+        int oldIndex = -1;
+        if (old != null) {
+            oldIndex = old.index;
+            navMesh.removeTile(navMesh.getTileRefAt(data.header.x, data.header.y, data.header.layer));
+        }
+        long ref = navMesh.addTile(data, 0, 0);
+        MeshTile tile = ref != 0 ? findTile(data.header.x, data.header.y, data.header.layer) : null;
+        if (oldIndex >= 0 && (tile == null || tile.index != oldIndex)) {
+            notifyTileChanged(oldIndex);
+        }
+        if (tile != null) {
+            notifyTileChanged(tile.index);
+        }
+        return ref;
+    }
+
+    public void addListener(Listener listener) {
+        if (!listeners.contains(listener, true)) {
+            listeners.add(listener);
+        }
+    }
+
+    public void removeListener(Listener listener) {
+        listeners.removeValue(listener, true);
+    }
+
+    private MeshTile findTile(int tileX, int tileY, int layer) {
+        List<MeshTile> tiles = navMesh.getTilesAt(tileX, tileY);
+        for (MeshTile tile : tiles) {
+            if (tile.data != null && tile.data.header.layer == layer) {
+                return tile;
+            }
+        }
+        return null;
+    }
+
+    private void notifyTileChanged(int tileX, int tileY, int layer) {
+        MeshTile tile = findTile(tileX, tileY, layer);
+        if (tile != null) {
+            notifyTileChanged(tile.index);
+        }
+    }
+
+    private void notifyTileChanged(int tileIndex) {
+        for (int i = 0; i < listeners.size; i++) {
+            listeners.get(i).tileChanged(this, tileIndex);
+        }
     }
 }
@@ -64,6 +64,12 @@ public class NavMeshGenSettings {
     /** The maximum distance the detail mesh surface should deviate from heightfield data. (For height detail only.) [Limit: >=0] [Units: wu] */
     public float detailSampleMaxError;
 
+    /**
+     * Drop input triangles too steep to walk on that are too far from any walkable triangle to affect the navmesh,
+     * before they are rasterized. See {@link com.github.jamestkhan.recast.geom.WalkableCuller}.
+     */
+    public boolean cullUnwalkableTriangles;
+
     private NavMeshGenSettings() {
 
     }
@@ -86,6 +92,7 @@ public class NavMeshGenSettings {
         private int maxVertsPerPoly;
         private float detailSampleDistance;
         private float detailSampleMaxError;
+        private boolean cullUnwalkableTriangles;
 
         private Builder() {
             // Set default values
@@ -106,6 +113,7 @@ public class NavMeshGenSettings {
             maxVertsPerPoly = 6;
             detailSampleDistance = 6f;
             detailSampleMaxError = 1f;
+            cullUnwalkableTriangles = false;
         }
 
         public static Builder SettingsBuilder() {
@@ -197,6 +205,11 @@ public class NavMeshGenSettings {
             return this;
         }
 
+        public Builder cullUnwalkableTriangles(boolean cullUnwalkableTriangles) {
+            this.cullUnwalkableTriangles = cullUnwalkableTriangles;
+            return this;
+        }
+
         public NavMeshGenSettings build() {
             NavMeshGenSettings navMeshGenSettings = new NavMeshGenSettings();
             navMeshGenSettings.agentMaxClimb = this.agentMaxClimb;
@@ -216,6 +229,7 @@ public class NavMeshGenSettings {
             navMeshGenSettings.agentMaxSlope = this.agentMaxSlope;
             navMeshGenSettings.detailSampleMaxError = this.detailSampleMaxError;
             navMeshGenSettings.tileSizeX = this.tileSizeX;
+            navMeshGenSettings.cullUnwalkableTriangles = this.cullUnwalkableTriangles;
             return navMeshGenSettings;
         }
     }
@@ -0,0 +1,73 @@
+package com.github.jamestkhan.recast;
+
+import com.badlogic.gdx.utils.Pool;
+import org.recast4j.detour.NavMesh;
+import org.recast4j.detour.NavMeshQuery;
+
+/**
+ * A thread safe pool of {@link NavMeshQuery} instances for a {@link NavMeshData}.
+ * <p>
+ * A NavMeshQuery keeps its search state (node pool, open list, sliced query state) in mutable fields, so a single
+ * instance can only serve one query at a time. Leasing a query per call lets any number of threads search the same
+ * navmesh concurrently. Queries leased before the navmesh was replaced are discarded when freed.
+ * </p>
+ * Ex.
+ * <pre>
+ * NavMeshQuery query = navMeshData.obtainQuery();
+ * try {
+ *     query.findNearestPoly(pos, extents, filter);
+ * } finally {
+ *     navMeshData.freeQuery(query);
+ * }
+ * </pre>
+ *
+ * @author JamesTKhan
+ * @version October 18, 2026
+ */
+public class NavMeshQueryPool extends Pool<NavMeshQuery> {
+    private final NavMeshData navMeshData;
+
+    /**
+     * @param navMeshData     the data whose navmesh the queries are created for
+     * @param initialCapacity initial number of idle queries the pool can hold before growing
+     * @param max             the maximum number of idle queries kept, queries freed above this are discarded
+     */
+    public NavMeshQueryPool(NavMeshData navMeshData, int initialCapacity, int max) {
+        super(initialCapacity, max);
+        this.navMeshData = navMeshData;
+    }
+
+    @Override
+    protected NavMeshQuery newObject() {
+        NavMesh navMesh = navMeshData.getNavMesh();
+        if (navMesh == null) {
+            throw new IllegalStateException("NavMeshData has no NavMesh to query.");
+        }
+        return new NavMeshQuery(navMesh);
+    }
+
+    @Override
+    public synchronized NavMeshQuery obtain() {
+        return super.obtain();
+    }
+
+    @Override
+    public synchronized void free(NavMeshQuery query) {
+        if (query.getAttachedNavMesh() != navMeshData.getNavMesh()) {
+            // Leased before the navmesh was replaced, do not hand it out again
+            discard(query);
+            return;
+        }
+        super.free(query);
+    }
+
+    @Override
+    public synchronized void clear() {
+        super.clear();
+    }
+
+    @Override
+    public synchronized int getFree() {
+        return super.getFree();
+    }
+}
@@ -0,0 +1,234 @@
+package com.github.jamestkhan.recast;
+
+import com.badlogic.gdx.utils.IntArray;
+import org.recast4j.detour.MeshTile;
+import org.recast4j.detour.NavMesh;
+import org.recast4j.detour.Poly;
+import org.recast4j.detour.QueryFilter;
+import org.recast4j.detour.Result;
+import org.recast4j.detour.Tupple2;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A bounded, least recently used cache of smoothed paths, for units that repeatedly path between the same places.
+ * <p>
+ * Paths are keyed on the start and end polygon, the identity of the query filter and the start and end positions
+ * snapped to a grid of {@link #getQuantization()} units. A hit returns the path found for the first request of its
+ * cell, so the cached path may start and end up to one cell away from the requested positions. The cache listens to
+ * its {@link NavMeshData}: it is cleared when the navmesh is replaced and paths crossing a tile are evicted when that
+ * tile is added or removed. Thread safe.
+ * </p>
+ * Ex.
+ * <pre>
+ * pathfinder.setPathCache(new PathCache(navMeshData, 256, 0.5f));
+ * </pre>
+ *
+ * @author JamesTKhan
+ * @version October 18, 2026
+ */
+public class PathCache implements NavMeshData.Listener {
+    private final NavMeshData navMeshData;
+    private final int maxEntries;
+    private final float quantization;
+    private final Map<Key, Entry> entries;
+    private final Key probe = new Key();
+    private final IntArray tmpTiles = new IntArray();
+
+    private long hits;
+    private long misses;
+
+    /**
+     * @param navMeshData  the navmesh data the paths are found on
+     * @param maxEntries   the maximum number of paths kept, the least recently used path is evicted above this
+     * @param quantization the size of the grid cells the start and end positions are snapped to
+     */
+    public PathCache(NavMeshData navMeshData, final int maxEntries, float quantization) {
+        this.navMeshData = navMeshData;
+        this.maxEntries = maxEntries;
+        this.quantization = quantization;
+        this.entries = new LinkedHashMap<Key, Entry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+                return size() > maxEntries;
+            }
+        };
+        navMeshData.addListener(this);
+    }
+
+    /**
+     * Copy the cached path for the request into the result.
+     *
+     * @return true on a hit, false if the path is not cached and the result was left untouched
+     */
+    public synchronized boolean get(long startRef, long endRef, QueryFilter filter, float[] startPos, float[] endPos,
+            PathResult out) {
+        probe.set(this, startRef, endRef, filter, startPos, endPos);
+        Entry entry = entries.get(probe);
+        if (entry == null) {
+            misses++;
+            return false;
+        }
+        hits++;
+        out.set(entry.path);
+        return true;
+    }
+
+    /**
+     * Cache a path. Paths flagged {@link PathResult#FLAG_PARTIAL} are not cached: a tile added anywhere may connect
+     * them to their end, and they would not be evicted since they do not cross it.
+     *
+     * @param polys     the polygon corridor the path was smoothed along, used to find the tiles the path depends on
+     * @param polyCount the number of polygons in the corridor
+     * @param path      the smoothed path, copied
+     */
+    public synchronized void put(long startRef, long endRef, QueryFilter filter, float[] startPos, float[] endPos,
+            long[] polys, int polyCount, PathResult path) {
+        if (maxEntries <= 0 || path.hasFlag(PathResult.FLAG_PARTIAL)) {
+            return;
+        }
+        Key key = new Key();
+        key.set(this, startRef, endRef, filter, startPos, endPos);
+
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            entry = new Entry();
+        }
+        entry.path.set(path);
+        entry.tiles = collectTiles(polys, polyCount);
+        entries.put(key, entry);
+    }
+
+    private int[] collectTiles(long[] polys, int polyCount) {
+        tmpTiles.clear();
+        NavMesh navMesh = navMeshData.getNavMesh();
+        for (int i = 0; i < polyCount; i++) {
+            Result<Tupple2<MeshTile, Poly>> tileAndPoly = navMesh.getTileAndPolyByRef(polys[i]);
+            if (tileAndPoly.succeeded() && !tmpTiles.contains(tileAndPoly.result.first.index)) {
+                tmpTiles.add(tileAndPoly.result.first.index);
+            }
+        }
+        return tmpTiles.toArray();
+    }
+
+    /**
+     * Evict every path crossing the given tile.
+     */
+    public synchronized void invalidateTile(int tileIndex) {
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (iterator.hasNext()) {
+            int[] tiles = iterator.next().tiles;
+            for (int tile : tiles) {
+                if (tile == tileIndex) {
+                    iterator.remove();
+                    break;
+                }
+            }
+        }
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    /**
+     * Stop listening to the navmesh data, the cache must no longer be used afterwards.
+     */
+    public void dispose() {
+        navMeshData.removeListener(this);
+        clear();
+    }
+
+    @Override
+    public void navMeshChanged(NavMeshData navMeshData) {
+        clear();
+    }
+
+    @Override
+    public void tileChanged(NavMeshData navMeshData, int tileIndex) {
+        invalidateTile(tileIndex);
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    public synchronized void resetStats() {
+        hits = 0;
+        misses = 0;
+    }
+
+    public float getQuantization() {
+        return quantization;
+    }
+
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+    private int quantize(float value) {
+        return (int) Math.floor(value / quantization);
+    }
+
+    private static final class Entry {
+        final PathResult path = new PathResult(16);
+        int[] tiles;
+    }
+
+    /**
+     * Mutable so lookups can reuse a single probe instance, keys stored in the map are never modified.
+     */
+    private static final class Key {
+        long startRef;
+        long endRef;
+        QueryFilter filter;
+        int sx, sy, sz;
+        int ex, ey, ez;
+
+        void set(PathCache cache, long startRef, long endRef, QueryFilter filter, float[] startPos, float[] endPos) {
+            this.startRef = startRef;
+            this.endRef = endRef;
+            this.filter = filter;
+            sx = cache.quantize(startPos[0]);
+            sy = cache.quantize(startPos[1]);
+            sz = cache.quantize(startPos[2]);
+            ex = cache.quantize(endPos[0]);
+            ey = cache.quantize(endPos[1]);
+            ez = cache.quantize(endPos[2]);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key key = (Key) o;
+            return startRef == key.startRef && endRef == key.endRef && filter == key.filter
+                    && sx == key.sx && sy == key.sy && sz == key.sz
+                    && ex == key.ex && ey == key.ey && ez == key.ez;
+        }
+
+        @Override
+        public int hashCode() {
+            int result = (int) (startRef ^ (startRef >>> 32));
+            result = 31 * result + (int) (endRef ^ (endRef >>> 32));
+            result = 31 * result + System.identityHashCode(filter);
+            result = 31 * result + sx;
+            result = 31 * result + sy;
+            result = 31 * result + sz;
+            result = 31 * result + ex;
+            result = 31 * result + ey;
+            result = 31 * result + ez;
+            return result;
+        }
+    }
+}
@@ -1,5 +1,9 @@
 package com.github.jamestkhan.recast;
 
+import com.github.jamestkhan.recast.builders.SampleAreaModifications;
+import org.recast4j.detour.DefaultQueryFilter;
+import org.recast4j.detour.QueryFilter;
+
 /**
  * Settings for the PathFinder
  *
@@ -12,6 +16,28 @@ public class PathFinderSettings {
     int maxIterations = 1024;
     /** How many "steps" to take when path finding, the higher this is the less calculations needed */
     float stepSize = 1f;
+    /** How the polygon corridor is turned into points on the navmesh surface */
+    SmoothingMode smoothingMode = SmoothingMode.ITERATIVE;
+    /** The filter used to pick and search polygons, it is shared by every query so it must not be modified during queries */
+    QueryFilter queryFilter = new DefaultQueryFilter(SampleAreaModifications.SAMPLE_POLYFLAGS_ALL,
+            SampleAreaModifications.SAMPLE_POLYFLAGS_DISABLED, new float[] { 1f, 1f, 1f, 1f, 2f, 1.5f });
+    /** Half extents of the box searched for the nearest polygon to the start and end positions */
+    final float[] polyPickExtents = new float[] { 2, 4, 2 };
+    /**
+     * Reject requests between disconnected islands of the navmesh before searching, returning an empty path flagged
+     * unreachable instead of Detour's partial path. Off by default.
+     */
+    boolean rejectUnreachable = false;
+
+    public enum SmoothingMode {
+        /** Finds the next steer target with a new straight path query every step. Cost grows with steps times corridor length. */
+        ITERATIVE,
+        /**
+         * String-pulls the corridor once and advances along its corners, only merging each step's moves into the head
+         * of the corridor. Cost grows linearly with path length.
+         */
+        LINEAR
+    }
 
     public int getMaxIterations() {
         return maxIterations;
@@ -21,6 +47,22 @@ public class PathFinderSettings {
         return stepSize;
     }
 
+    public SmoothingMode getSmoothingMode() {
+        return smoothingMode;
+    }
+
+    public QueryFilter getQueryFilter() {
+        return queryFilter;
+    }
+
+    public float[] getPolyPickExtents() {
+        return polyPickExtents;
+    }
+
+    public boolean isRejectUnreachable() {
+        return rejectUnreachable;
+    }
+
     public void setMaxIterations(int maxIterations) {
         this.maxIterations = maxIterations;
     }
@@ -28,4 +70,22 @@ public class PathFinderSettings {
     public void setStepSize(float stepSize) {
         this.stepSize = stepSize;
     }
+
+    public void setSmoothingMode(SmoothingMode smoothingMode) {
+        this.smoothingMode = smoothingMode;
+    }
+
+    public void setQueryFilter(QueryFilter queryFilter) {
+        this.queryFilter = queryFilter;
+    }
+
+    public void setRejectUnreachable(boolean rejectUnreachable) {
+        this.rejectUnreachable = rejectUnreachable;
+    }
+
+    public void setPolyPickExtents(float x, float y, float z) {
+        polyPickExtents[0] = x;
+        polyPickExtents[1] = y;
+        polyPickExtents[2] = z;
+    }
 }
@@ -0,0 +1,353 @@
+package com.github.jamestkhan.recast;
+
+import com.badlogic.gdx.math.Vector3;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.ObjectMap;
+import com.badlogic.gdx.utils.Pool;
+import com.badlogic.gdx.utils.TimeUtils;
+
+import java.util.Comparator;
+
+/**
+ * Schedules path requests from many agents over a global per-update iteration budget.
+ * <p>
+ * Agents submit requests with a priority and an optional deadline. Every {@link #update(int)} the outstanding requests
+ * are ordered by their priority plus the time they have been waiting multiplied by the aging rate, so low priority
+ * requests are eventually served, and advanced in that order until the budget is spent. Each running request is a
+ * {@link SlicedPathRequest} leasing a query from the {@link NavMeshData}, at most {@link #getMaxActive()} of them run
+ * at once. Submitting a new request for an agent supersedes its outstanding one. Requests that are not done by their
+ * deadline are dropped.
+ * </p>
+ * Not thread safe, submit and update from the same thread.
+ * <p>
+ * Ex.
+ * <pre>
+ * scheduler.submit(agent, agentPos, target, 1f, 0.5f, agent.path, listener);
+ * ...
+ * // Every frame
+ * scheduler.update(500);
+ * </pre>
+ *
+ * @author JamesTKhan
+ * @version October 18, 2026
+ */
+public class PathRequestScheduler {
+
+    /**
+     * Notified on the updating thread when a scheduled request ends.
+     */
+    public interface Listener {
+        /**
+         * @param agent  the agent the request was submitted for
+         * @param result the result passed on submit
+         * @param state  {@link SlicedPathRequest.State#COMPLETE}, {@link SlicedPathRequest.State#PARTIAL} or
+         *               {@link SlicedPathRequest.State#FAILED}
+         */
+        void pathFinished(Object agent, PathResult result, SlicedPathRequest.State state);
+
+        /**
+         * Called when a request passed its deadline before finishing, the result is incomplete.
+         */
+        default void pathDropped(Object agent, PathResult result) {
+        }
+    }
+
+    private static final class Request implements Pool.Poolable {
+        final Vector3 start = new Vector3();
+        final Vector3 end = new Vector3();
+        Object agent;
+        PathResult out;
+        Listener listener;
+        float priority;
+        float effectivePriority;
+        long submitTime;
+        long deadline;
+        SlicedPathRequest slicer;
+
+        @Override
+        public void reset() {
+            agent = null;
+            out = null;
+            listener = null;
+            slicer = null;
+        }
+    }
+
+    private static final Comparator<Request> BY_EFFECTIVE_PRIORITY =
+            (a, b) -> Float.compare(b.effectivePriority, a.effectivePriority);
+
+    private final Pathfinder pathfinder;
+    private final Array<Request> queue = new Array<>(64);
+    private final ObjectMap<Object, Request> byAgent = new ObjectMap<>();
+    private final Pool<Request> requestPool = new Pool<Request>() {
+        @Override
+        protected Request newObject() {
+            return new Request();
+        }
+    };
+    private final Pool<SlicedPathRequest> slicerPool = new Pool<SlicedPathRequest>() {
+        @Override
+        protected SlicedPathRequest newObject() {
+            return pathfinder.createSlicedRequest();
+        }
+    };
+
+    private float agingRate = 1f;
+    private int maxActive = 8;
+    private int active;
+
+    // Metrics
+    private int completedCount;
+    private int droppedCount;
+    private int supersededCount;
+    private int peakQueueDepth;
+    private double totalWaitTime;
+    private float maxWaitTime;
+
+    public PathRequestScheduler(Pathfinder pathfinder) {
+        this.pathfinder = pathfinder;
+    }
+
+    /**
+     * Submit a path request without a deadline.
+     *
+     * @see #submit(Object, Vector3, Vector3, float, float, PathResult, Listener)
+     */
+    public void submit(Object agent, Vector3 start, Vector3 end, float priority, PathResult out, Listener listener) {
+        submit(agent, start, end, priority, 0, out, listener);
+    }
+
+    /**
+     * Submit a path request. The outstanding request of the same agent, if any, is cancelled.
+     *
+     * @param agent    identifies the requester, may be null for requests that are never superseded
+     * @param start    World start point, copied
+     * @param end      World end point, copied
+     * @param priority higher priorities are served first
+     * @param deadline seconds from now after which the request is dropped if unfinished, 0 or less for none
+     * @param out      the result the path is written to
+     * @param listener notified when the request ends, may be null
+     */
+    public void submit(Object agent, Vector3 start, Vector3 end, float priority, float deadline, PathResult out,
+            Listener listener) {
+        if (agent != null) {
+            Request superseded = byAgent.remove(agent);
+            if (superseded != null) {
+                queue.removeValue(superseded, true);
+                free(superseded);
+                supersededCount++;
+            }
+        }
+
+        Request request = requestPool.obtain();
+        request.agent = agent;
+        request.start.set(start);
+        request.end.set(end);
+        request.out = out;
+        request.listener = listener;
+        request.priority = priority;
+        request.submitTime = TimeUtils.nanoTime();
+        request.deadline = deadline > 0 ? request.submitTime + (long) (deadline * 1e9) : 0;
+        out.clear();
+
+        queue.add(request);
+        if (agent != null) {
+            byAgent.put(agent, request);
+        }
+        peakQueueDepth = Math.max(peakQueueDepth, queue.size);
+    }
+
+    /**
+     * Cancel the outstanding request of an agent, the listener is not notified.
+     *
+     * @return true if the agent had an outstanding request
+     */
+    public boolean cancel(Object agent) {
+        Request request = byAgent.remove(agent);
+        if (request == null) {
+            return false;
+        }
+        queue.removeValue(request, true);
+        free(request);
+        return true;
+    }
+
+    /**
+     * Cancel all outstanding requests, the listeners are not notified.
+     */
+    public void clear() {
+        for (Request request : queue) {
+            free(request);
+        }
+        queue.clear();
+        byAgent.clear();
+    }
+
+    /**
+     * Advance the outstanding requests in priority order.
+     *
+     * @param iterationBudget the number of iterations to spend over all requests, see
+     *                        {@link SlicedPathRequest#update(int)}
+     */
+    public void update(int iterationBudget) {
+        long now = TimeUtils.nanoTime();
+        for (int i = queue.size - 1; i >= 0; i--) {
+            Request request = queue.get(i);
+            if (request.deadline != 0 && now > request.deadline) {
+                queue.removeIndex(i);
+                droppedCount++;
+                end(request);
+                if (request.listener != null) {
+                    request.listener.pathDropped(request.agent, request.out);
+                }
+                free(request);
+                continue;
+            }
+            request.effectivePriority = request.priority + secondsSince(request.submitTime, now) * agingRate;
+        }
+        queue.sort(BY_EFFECTIVE_PRIORITY);
+
+        int budget = iterationBudget;
+        for (int i = 0; i < queue.size && budget > 0; ) {
+            Request request = queue.get(i);
+            SlicedPathRequest.State state;
+            if (request.slicer == null) {
+                if (active >= maxActive) {
+                    // Only already running requests can progress until one of them is done
+                    i++;
+                    continue;
+                }
+                request.slicer = slicerPool.obtain();
+                active++;
+                state = request.slicer.start(request.start, request.end, request.out);
+                // Count the nearest polygon lookups as an iteration so the loop always makes progress
+                budget--;
+            } else {
+                state = request.slicer.getState();
+            }
+
+            if (state == SlicedPathRequest.State.IN_PROGRESS && budget > 0) {
+                state = request.slicer.update(budget);
+                budget -= request.slicer.getIterationsUsed();
+            }
+
+            if (state == SlicedPathRequest.State.IN_PROGRESS) {
+                i++;
+                continue;
+            }
+
+            queue.removeIndex(i);
+            end(request);
+            float wait = secondsSince(request.submitTime, TimeUtils.nanoTime());
+            totalWaitTime += wait;
+            maxWaitTime = Math.max(maxWaitTime, wait);
+            completedCount++;
+            if (request.listener != null) {
+                request.listener.pathFinished(request.agent, request.out, state);
+            }
+            free(request);
+        }
+    }
+
+    private void end(Request request) {
+        if (request.agent != null && byAgent.get(request.agent) == request) {
+            byAgent.remove(request.agent);
+        }
+    }
+
+    private void free(Request request) {
+        if (request.slicer != null) {
+            request.slicer.cancel();
+            slicerPool.free(request.slicer);
+            active--;
+        }
+        requestPool.free(request);
+    }
+
+    private static float secondsSince(long start, long now) {
+        return (now - start) / 1e9f;
+    }
+
+    /**
+     * @return the priority a request gains per second it waits
+     */
+    public float getAgingRate() {
+        return agingRate;
+    }
+
+    /**
+     * @param agingRate the priority a request gains per second it waits, 0 to serve strictly by priority
+     */
+    public void setAgingRate(float agingRate) {
+        this.agingRate = agingRate;
+    }
+
+    /**
+     * @return the maximum number of requests searching at once, each one holds a leased query
+     */
+    public int getMaxActive() {
+        return maxActive;
+    }
+
+    public void setMaxActive(int maxActive) {
+        this.maxActive = Math.max(1, maxActive);
+    }
+
+    /**
+     * @return the number of outstanding requests, running or waiting
+     */
+    public int getQueueDepth() {
+        return queue.size;
+    }
+
+    /**
+     * @return the highest queue depth since the metrics were last reset
+     */
+    public int getPeakQueueDepth() {
+        return peakQueueDepth;
+    }
+
+    /**
+     * @return the number of requests that finished, including failed ones
+     */
+    public int getCompletedCount() {
+        return completedCount;
+    }
+
+    /**
+     * @return the number of requests dropped because they passed their deadline
+     */
+    public int getDroppedCount() {
+        return droppedCount;
+    }
+
+    /**
+     * @return the number of requests cancelled by a newer request of the same agent
+     */
+    public int getSupersededCount() {
+        return supersededCount;
+    }
+
+    /**
+     * @return the average time in seconds from submission to completion of the finished requests
+     */
+    public float getAverageWaitTime() {
+        return completedCount == 0 ? 0 : (float) (totalWaitTime / completedCount);
+    }
+
+    /**
+     * @return the longest time in seconds from submission to completion of the finished requests
+     */
+    public float getMaxWaitTime() {
+        return maxWaitTime;
+    }
+
+    public void resetMetrics() {
+        completedCount = 0;
+        droppedCount = 0;
+        supersededCount = 0;
+        peakQueueDepth = queue.size;
+        totalWaitTime = 0;
+        maxWaitTime = 0;
+    }
+}
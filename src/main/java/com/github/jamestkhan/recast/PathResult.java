@@ -0,0 +1,139 @@
+package com.github.jamestkhan.recast;
+
+import com.badlogic.gdx.math.Vector3;
+
+/**
+ * Caller owned, reusable output of a path query.
+ * <p>
+ * Points are stored packed as [x,y,z] triplets in a single primitive buffer which only grows when a longer path
+ * than any previous one is written. Reusing the same instance between queries avoids allocating a new
+ * {@code float[3]} for every point of the path.
+ * </p>
+ * Ex.
+ * <pre>
+ * PathResult path = new PathResult();
+ * pathfinder.getPath(start, end, path);
+ * for (int i = 0; i < path.size; i++) {
+ *     path.get(i, tmpVector);
+ * }
+ * </pre>
+ *
+ * @author JamesTKhan
+ * @version October 18, 2026
+ */
+public class PathResult {
+    /** The path ends on the polygon nearest to the requested end position. */
+    public static final int FLAG_COMPLETE = 1;
+    /** The end polygon could not be reached, the path leads to the closest reachable polygon instead. */
+    public static final int FLAG_PARTIAL = 1 << 1;
+    /** The path was cut short because the maximum number of iterations was reached. */
+    public static final int FLAG_TRUNCATED = 1 << 2;
+    /** The path traverses at least one off-mesh connection. */
+    public static final int FLAG_OFFMESH = 1 << 3;
+    /** The end polygon is on a different island than the start polygon, no search was made and the path is empty. */
+    public static final int FLAG_UNREACHABLE = 1 << 4;
+
+    /** Packed [x,y,z] points, only the first {@code size * 3} values are valid. */
+    public float[] points;
+    /** Number of points in the path. */
+    public int size;
+    /** Combination of the FLAG_ constants describing the path. */
+    public int flags;
+
+    public PathResult() {
+        this(64);
+    }
+
+    /**
+     * @param initialCapacity the number of points the buffer can hold before growing
+     */
+    public PathResult(int initialCapacity) {
+        points = new float[Math.max(1, initialCapacity) * 3];
+    }
+
+    /**
+     * Clears the path without releasing the underlying buffer.
+     */
+    public void clear() {
+        size = 0;
+        flags = 0;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean hasFlag(int flag) {
+        return (flags & flag) != 0;
+    }
+
+    public void add(float x, float y, float z) {
+        ensureCapacity(size + 1);
+        int i = size * 3;
+        points[i] = x;
+        points[i + 1] = y;
+        points[i + 2] = z;
+        size++;
+    }
+
+    /**
+     * Add a point from an [x,y,z] array, the array is copied.
+     */
+    public void add(float[] pos) {
+        add(pos[0], pos[1], pos[2]);
+    }
+
+    /**
+     * Replace the contents of this result with the contents of another one.
+     */
+    public void set(PathResult other) {
+        ensureCapacity(other.size);
+        System.arraycopy(other.points, 0, points, 0, other.size * 3);
+        size = other.size;
+        flags = other.flags;
+    }
+
+    /**
+     * Makes sure the buffer can hold at least the given number of points.
+     */
+    public void ensureCapacity(int pointCount) {
+        if (pointCount * 3 > points.length) {
+            float[] newPoints = new float[Math.max(pointCount, size * 2) * 3];
+            System.arraycopy(points, 0, newPoints, 0, size * 3);
+            points = newPoints;
+        }
+    }
+
+    public float getX(int index) {
+        return points[index * 3];
+    }
+
+    public float getY(int index) {
+        return points[index * 3 + 1];
+    }
+
+    public float getZ(int index) {
+        return points[index * 3 + 2];
+    }
+
+    /**
+     * Copy the point at the given index into the vector.
+     * @return the vector passed in, for chaining
+     */
+    public Vector3 get(int index, Vector3 out) {
+        int i = index * 3;
+        return out.set(points[i], points[i + 1], points[i + 2]);
+    }
+
+    /**
+     * Copy the point at the given index into an [x,y,z] array.
+     * @return the array passed in, for chaining
+     */
+    public float[] get(int index, float[] out) {
+        int i = index * 3;
+        out[0] = points[i];
+        out[1] = points[i + 1];
+        out[2] = points[i + 2];
+        return out;
+    }
+}
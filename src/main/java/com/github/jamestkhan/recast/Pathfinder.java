@@ -2,14 +2,22 @@ package com.github.jamestkhan.recast;
 
 import com.badlogic.gdx.math.Vector3;
 import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.badlogic.gdx.utils.Pool;
+import com.github.jamestkhan.recast.detour.LandmarkTable;
+import com.github.jamestkhan.recast.detour.PathCostSearch;
+import com.github.jamestkhan.recast.detour.PolyGraph;
+import com.github.jamestkhan.recast.detour.TileHierarchy;
+import com.github.jamestkhan.recast.utils.BatchExecutor;
 import com.github.jamestkhan.recast.utils.NavMeshTool;
+import com.github.jamestkhan.recast.utils.NearestPolyCache;
+import org.recast4j.detour.DefaultQueryFilter;
 import org.recast4j.detour.FindNearestPolyResult;
 import org.recast4j.detour.NavMesh;
+import org.recast4j.detour.NavMeshQuery;
 import org.recast4j.detour.QueryFilter;
 import org.recast4j.detour.Result;
 
-import static com.github.jamestkhan.recast.utils.PathUtils.vectorToFloatArray;
-
 /**
  * Entry point for gdx-recast.
  *
@@ -18,9 +26,38 @@ import static com.github.jamestkhan.recast.utils.PathUtils.vectorToFloatArray;
  */
 public class Pathfinder {
     protected NavMeshData navMeshData;
-    private final NavMeshTool tool;
-    protected final float[] tmpPos = new float[3];
-    protected final float[] tmpExt = new float[3];
+    private final PathFinderSettings settings;
+    private BatchExecutor batchExecutor = BatchExecutor.common();
+    private volatile PathCache pathCache;
+    private volatile TileHierarchy tileHierarchy;
+    private volatile LandmarkTable landmarks;
+
+    /**
+     * Each call leases its own tool, which in turn leases a query from the navmesh data, so a single Pathfinder can
+     * serve path requests from several threads at once.
+     */
+    private final Pool<NavMeshTool> tools = new Pool<NavMeshTool>() {
+        @Override
+        protected NavMeshTool newObject() {
+            return new NavMeshTool(settings, navMeshData);
+        }
+    };
+
+    /**
+     * Drops the landmark tables when the graph they were built for changes. Stays registered until the tables are
+     * cleared, since listeners must not be removed while they are being notified.
+     */
+    private final NavMeshData.Listener landmarkInvalidator = new NavMeshData.Listener() {
+        @Override
+        public void navMeshChanged(NavMeshData navMeshData) {
+            landmarks = null;
+        }
+
+        @Override
+        public void tileChanged(NavMeshData navMeshData, int tileIndex) {
+            landmarks = null;
+        }
+    };
 
     public Pathfinder(NavMeshData navMeshData) {
         this(new PathFinderSettings(), navMeshData);
@@ -28,7 +65,7 @@ public class Pathfinder {
 
     public Pathfinder(PathFinderSettings settings, NavMeshData navMeshData) {
         this.navMeshData = navMeshData;
-        tool = new NavMeshTool(settings, navMeshData);
+        this.settings = settings;
     }
 
     /**
@@ -55,6 +92,7 @@ public class Pathfinder {
      * <p>
      * This convenience method takes in {@code Vector3} arguments for center and half extents, converts them
      * to float arrays, and then delegates the search to the underlying Recast's {@code findNearestPoly} method.
+     * Thread safe.
      * </p>
      *
      * @param center      The center point in the world space from where the nearest polygon should be searched.
@@ -66,13 +104,16 @@ public class Pathfinder {
      * method will return false.
      */
     public Result<FindNearestPolyResult> findNearestPoly(Vector3 center, Vector3 halfExtents, QueryFilter filter) {
-        vectorToFloatArray(center, tmpPos);
-        vectorToFloatArray(halfExtents, tmpExt);
-        return navMeshData.getNavMeshQuery().findNearestPoly(tmpPos, tmpExt, filter);
+        NavMeshTool tool = obtainTool();
+        try {
+            return tool.findNearestPoly(center, halfExtents, filter);
+        } finally {
+            freeTool(tool);
+        }
     }
 
     /**
-     * Get a path from the start position to the end position
+     * Get a path from the start position to the end position. Thread safe.
      *
      * @param start   World start point
      * @param end     World end point
@@ -80,11 +121,268 @@ public class Pathfinder {
      */
     public void getPath(Vector3 start, Vector3 end, Array<float[]> pathOut) {
         pathOut.clear();
-        tool.setPositions(start, end);
-        tool.recalculate(pathOut);
+        NavMeshTool tool = obtainTool();
+        try {
+            tool.setPositions(start, end);
+            tool.recalculate(pathOut);
+        } finally {
+            freeTool(tool);
+        }
+    }
+
+    /**
+     * Get a path from the start position to the end position, writing into a reusable result. Thread safe.
+     * <p>
+     * Unlike {@link #getPath(Vector3, Vector3, Array)} this does not allocate an array per path point, reusing the
+     * same {@link PathResult} for every query keeps repathing agents from generating garbage in gdx-recast.
+     * </p>
+     *
+     * @param start   World start point
+     * @param end     World end point
+     * @param pathOut the result to populate, it is cleared first
+     */
+    public void getPath(Vector3 start, Vector3 end, PathResult pathOut) {
+        NavMeshTool tool = obtainTool();
+        try {
+            tool.setPositions(start, end);
+            tool.recalculate(pathOut);
+        } finally {
+            freeTool(tool);
+        }
+    }
+
+    /**
+     * Find a batch of paths, spread over the threads of the batch executor. Every worker leases its own tool and
+     * query so the results are the same as calling {@link #getPath(Vector3, Vector3, PathResult)} for each pair in
+     * turn.
+     *
+     * @param startPositions packed [x,y,z] start positions, at least {@code count * 3} floats
+     * @param endPositions   packed [x,y,z] end positions, at least {@code count * 3} floats
+     * @param results        preallocated results, one per start/end pair, each is cleared before being populated
+     * @param count          number of paths to find
+     */
+    public void getPaths(final float[] startPositions, final float[] endPositions, final PathResult[] results, int count) {
+        if (startPositions.length < count * 3 || endPositions.length < count * 3 || results.length < count) {
+            throw new GdxRuntimeException("Batch of " + count + " paths needs " + count * 3
+                    + " start and end coordinates and " + count + " results.");
+        }
+        int grainSize = Math.max(1, count / (batchExecutor.getParallelism() * 4));
+        batchExecutor.run(0, count, grainSize, (from, to) -> {
+            NavMeshTool tool = obtainTool();
+            try {
+                for (int i = from; i < to; i++) {
+                    tool.setPositions(startPositions, i * 3, endPositions, i * 3);
+                    tool.recalculate(results[i]);
+                }
+            } finally {
+                freeTool(tool);
+            }
+        });
+    }
+
+    /**
+     * Find a batch of paths, one for every result.
+     *
+     * @see #getPaths(float[], float[], PathResult[], int)
+     */
+    public void getPaths(float[] startPositions, float[] endPositions, PathResult[] results) {
+        getPaths(startPositions, endPositions, results, results.length);
+    }
+
+    /**
+     * Find the path cost from every source to every target, without building corridors or waypoints.
+     * <p>
+     * Each source costs a single multi-target Dijkstra over the polygon graph, spread over the threads of the batch
+     * executor. The cost of a path is the distance from the source to its polygon's center, between the centers of
+     * the polygons along the path, and from the last center to the target, each times the filter's area cost; it
+     * approximates the length of the smoothed path {@link #getPath} would return. Positions are snapped to the
+     * nearest polygon like {@link #getPath}. Requires the settings' filter to be a
+     * {@link org.recast4j.detour.DefaultQueryFilter}.
+     * </p>
+     *
+     * @param sourcePositions packed [x,y,z] source positions, at least {@code sourceCount * 3} floats
+     * @param sourceCount     number of sources
+     * @param targetPositions packed [x,y,z] target positions, at least {@code targetCount * 3} floats
+     * @param targetCount     number of targets
+     * @param costs           receives the cost from source i to target j at {@code i * targetCount + j}, infinite
+     *                        if either position is off the navmesh or the target can not be reached
+     */
+    public void getPathCosts(final float[] sourcePositions, final int sourceCount, final float[] targetPositions,
+            final int targetCount, final float[] costs) {
+        if (sourcePositions.length < sourceCount * 3 || targetPositions.length < targetCount * 3
+                || costs.length < sourceCount * targetCount) {
+            throw new GdxRuntimeException("Cost matrix of " + sourceCount + "x" + targetCount + " needs "
+                    + sourceCount * 3 + " source and " + targetCount * 3 + " target coordinates and "
+                    + sourceCount * targetCount + " costs.");
+        }
+        final PolyGraph graph = navMeshData.getIslandIndex().getGraph();
+        final QueryFilter filter = settings.getQueryFilter();
+        if (graph == null || !(filter instanceof DefaultQueryFilter)) {
+            throw new GdxRuntimeException("Cost matrices need a navmesh and a DefaultQueryFilter.");
+        }
+
+        // Snap every position once, the nearest points are kept for the legs to and from the polygon centers
+        final int[] sourceNodes = new int[sourceCount];
+        final float[] sourcePoints = new float[sourceCount * 3];
+        final int[] targetNodes = new int[targetCount];
+        final float[] targetPoints = new float[targetCount * 3];
+        NavMeshQuery query = navMeshData.obtainQuery();
+        try {
+            snap(graph, query, filter, sourcePositions, sourceCount, sourceNodes, sourcePoints);
+            snap(graph, query, filter, targetPositions, targetCount, targetNodes, targetPoints);
+        } finally {
+            navMeshData.freeQuery(query);
+        }
+
+        int grainSize = Math.max(1, sourceCount / (batchExecutor.getParallelism() * 2));
+        batchExecutor.run(0, sourceCount, grainSize, (from, to) -> {
+            PathCostSearch search = new PathCostSearch(graph);
+            search.setFilter(filter);
+            float[] centers = graph.getCenters();
+            for (int i = from; i < to; i++) {
+                int offset = i * targetCount;
+                int source = sourceNodes[i];
+                search.search(source, targetNodes, targetCount, costs, offset);
+                for (int j = 0; j < targetCount; j++) {
+                    if (costs[offset + j] == Float.POSITIVE_INFINITY) {
+                        continue;
+                    }
+                    int target = targetNodes[j];
+                    if (source == target) {
+                        costs[offset + j] = distance(sourcePoints, i, targetPoints, j) * search.getAreaCost(source);
+                    } else {
+                        costs[offset + j] += distance(sourcePoints, i, centers, source) * search.getAreaCost(source)
+                                + distance(centers, target, targetPoints, j) * search.getAreaCost(target);
+                    }
+                }
+            }
+        });
+    }
+
+    private void snap(PolyGraph graph, NavMeshQuery query, QueryFilter filter, float[] positions, int count,
+            int[] nodes, float[] points) {
+        NearestPolyCache nearestPolyCache = navMeshData.getNearestPolyCache();
+        float[] pos = new float[3];
+        float[] nearest = new float[3];
+        for (int i = 0; i < count; i++) {
+            System.arraycopy(positions, i * 3, pos, 0, 3);
+            long ref = nearestPolyCache.findNearestPoly(query, pos, settings.getPolyPickExtents(), filter, nearest);
+            nodes[i] = graph.node(ref);
+            System.arraycopy(nearest, 0, points, i * 3, 3);
+        }
+    }
+
+    private static float distance(float[] a, int i, float[] b, int j) {
+        float dx = a[i * 3] - b[j * 3];
+        float dy = a[i * 3 + 1] - b[j * 3 + 1];
+        float dz = a[i * 3 + 2] - b[j * 3 + 2];
+        return (float) Math.sqrt(dx * dx + dy * dy + dz * dz);
+    }
+
+    /**
+     * Create a request that finds a path over several updates, for keeping long queries within a frame budget.
+     *
+     * @return a new request using the settings and navmesh of this pathfinder
+     */
+    public SlicedPathRequest createSlicedRequest() {
+        return new SlicedPathRequest(settings, navMeshData);
+    }
+
+    /**
+     * Set the executor used by {@link #getPaths(float[], float[], PathResult[], int)}, the common ForkJoinPool is used
+     * by default.
+     *
+     * @param batchExecutor the executor to spread batches over
+     */
+    public void setBatchExecutor(BatchExecutor batchExecutor) {
+        this.batchExecutor = batchExecutor;
+    }
+
+    public BatchExecutor getBatchExecutor() {
+        return batchExecutor;
+    }
+
+    /**
+     * Set a cache of recent paths, consulted by {@link #getPath} and {@link #getPaths} before searching.
+     * Sliced requests are not cached.
+     *
+     * @param pathCache the cache to use, null to disable caching
+     */
+    public void setPathCache(PathCache pathCache) {
+        this.pathCache = pathCache;
+    }
+
+    public PathCache getPathCache() {
+        return pathCache;
+    }
+
+    /**
+     * Set an abstract tile graph for tiled navmeshes. Searches between polygons at least
+     * {@link TileHierarchy#getMinTileDistance()} tiles apart first find a route over the tile graph and then only
+     * expand the polygons of the tiles along it. Only used when the hierarchy was built for the settings' filter.
+     *
+     * @param tileHierarchy the hierarchy to use, null to always search the whole navmesh
+     */
+    public void setTileHierarchy(TileHierarchy tileHierarchy) {
+        this.tileHierarchy = tileHierarchy;
+    }
+
+    public TileHierarchy getTileHierarchy() {
+        return tileHierarchy;
+    }
+
+    /**
+     * Set landmark tables to search with. Paths are then searched with an A* over the polygon graph guided by the
+     * landmark heuristic instead of Detour's findPath. Build the tables with
+     * {@code LandmarkTable.build(navMeshData.getIslandIndex().getGraph(), k)} or load them with
+     * {@link com.github.jamestkhan.recast.utils.NavMeshIO#loadLandmarks}.
+     * <p>
+     * The landmark search measures moves between polygon centers while Detour measures them between portal edges, so
+     * the two may pick different corridors of similar length and the smoothed paths differ accordingly. Any change of
+     * the navmesh or one of its tiles invalidates the tables: they are dropped, {@link #getLandmarks()} returns null
+     * and paths are searched with Detour's findPath until tables for the new graph are set.
+     * </p>
+     *
+     * @param landmarks the landmark tables, null to search with Detour's findPath
+     * @throws IllegalArgumentException if the tables were not built for the current graph of the navmesh
+     */
+    public void setLandmarks(LandmarkTable landmarks) {
+        if (landmarks == null) {
+            navMeshData.removeListener(landmarkInvalidator);
+        } else {
+            if (landmarks.getGraph() != navMeshData.getIslandIndex().getGraph()) {
+                throw new IllegalArgumentException("Landmark table was built for another graph.");
+            }
+            navMeshData.addListener(landmarkInvalidator);
+        }
+        this.landmarks = landmarks;
+    }
+
+    /**
+     * @return the landmark tables, null if none were set or a navmesh or tile change invalidated them
+     */
+    public LandmarkTable getLandmarks() {
+        return landmarks;
     }
 
     public PathFinderSettings getSettings() {
-        return tool.getSettings();
+        return settings;
+    }
+
+    protected NavMeshTool obtainTool() {
+        NavMeshTool tool;
+        synchronized (tools) {
+            tool = tools.obtain();
+        }
+        tool.setPathCache(pathCache);
+        tool.setTileHierarchy(tileHierarchy);
+        tool.setLandmarks(landmarks);
+        return tool;
+    }
+
+    protected void freeTool(NavMeshTool tool) {
+        synchronized (tools) {
+            tools.free(tool);
+        }
     }
 }
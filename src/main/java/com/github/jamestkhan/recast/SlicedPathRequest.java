@@ -0,0 +1,211 @@
+package com.github.jamestkhan.recast;
+
+import com.badlogic.gdx.math.Vector3;
+import com.github.jamestkhan.recast.utils.NearestPolyCache;
+import com.github.jamestkhan.recast.utils.PathSmoother;
+import com.github.jamestkhan.recast.utils.PolyCorridor;
+import org.recast4j.detour.NavMeshQuery;
+import org.recast4j.detour.QueryFilter;
+import org.recast4j.detour.Result;
+import org.recast4j.detour.Status;
+
+import java.util.List;
+
+import static com.github.jamestkhan.recast.utils.PathUtils.vectorToFloatArray;
+
+/**
+ * A path query that can be spread over several frames.
+ * <p>
+ * The A* search runs on Detour's sliced find path and the smoothing stage on a resumable {@link PathSmoother}, both
+ * are advanced by {@link #update(int)} which stops once the iteration budget is spent. One iteration is one A* node
+ * expansion or one smoothing step. The request leases a query from the {@link NavMeshData} until it completes,
+ * fails or is cancelled.
+ * </p>
+ * Ex.
+ * <pre>
+ * request.start(start, end, path);
+ * ...
+ * // Every frame
+ * if (request.update(100) == SlicedPathRequest.State.COMPLETE) {
+ *     // path is ready
+ * }
+ * </pre>
+ *
+ * @author JamesTKhan
+ * @version October 18, 2026
+ */
+public class SlicedPathRequest {
+
+    public enum State {
+        /** Not started, or cancelled */
+        IDLE,
+        /** Searching or smoothing, call {@link #update(int)} again */
+        IN_PROGRESS,
+        /** The path reaches the end polygon */
+        COMPLETE,
+        /** The end polygon was not reachable, the path leads to the closest reachable polygon */
+        PARTIAL,
+        /** No path could be found */
+        FAILED
+    }
+
+    private final NavMeshData navMeshData;
+    private final PathFinderSettings settings;
+    private final PolyCorridor corridor = new PolyCorridor();
+    private final PathSmoother smoother;
+    private final float[] startPos = new float[3];
+    private final float[] endPos = new float[3];
+
+    private NavMeshQuery query;
+    private QueryFilter filter;
+    private PathResult out;
+    private long startRef;
+    private long endRef;
+    private boolean searching;
+    private State state = State.IDLE;
+    private int iterationsUsed;
+
+    public SlicedPathRequest(NavMeshData navMeshData) {
+        this(new PathFinderSettings(), navMeshData);
+    }
+
+    public SlicedPathRequest(PathFinderSettings settings, NavMeshData navMeshData) {
+        this.navMeshData = navMeshData;
+        this.settings = settings;
+        this.smoother = new PathSmoother(settings);
+    }
+
+    /**
+     * Start a new request, cancelling the current one if it is still in progress.
+     *
+     * @param start World start point
+     * @param end   World end point
+     * @param out   the result the path is written to, it is cleared first and only complete once the request is done
+     * @return {@link State#IN_PROGRESS}, or {@link State#FAILED} if the search could not be started
+     */
+    public State start(Vector3 start, Vector3 end, PathResult out) {
+        cancel();
+        vectorToFloatArray(start, startPos);
+        vectorToFloatArray(end, endPos);
+        this.out = out;
+        out.clear();
+
+        filter = settings.getQueryFilter();
+        query = navMeshData.obtainQuery();
+        float[] polyPickExt = settings.getPolyPickExtents();
+        NearestPolyCache nearestPolyCache = navMeshData.getNearestPolyCache();
+        startRef = nearestPolyCache.findNearestPoly(query, startPos, polyPickExt, filter, null);
+        endRef = nearestPolyCache.findNearestPoly(query, endPos, polyPickExt, filter, null);
+        if (settings.isRejectUnreachable() && !navMeshData.getIslandIndex().isReachable(startRef, endRef, filter)) {
+            out.flags = PathResult.FLAG_UNREACHABLE;
+            return fail();
+        }
+
+        Status status = query.initSlicedFindPath(startRef, endRef, startPos, endPos, filter,
+                NavMeshQuery.DT_FINDPATH_ANY_ANGLE);
+        if (status.isFailed()) {
+            return fail();
+        }
+        searching = true;
+        state = State.IN_PROGRESS;
+        return state;
+    }
+
+    /**
+     * Advance the request.
+     *
+     * @param maxIterations the iteration budget for this call, shared by the search and smoothing stages
+     * @return the state of the request after this update
+     */
+    public State update(int maxIterations) {
+        iterationsUsed = 0;
+        if (state != State.IN_PROGRESS) {
+            return state;
+        }
+        int budget = maxIterations;
+        if (searching) {
+            Result<Integer> result = query.updateSlicedFindPath(budget);
+            if (result.status.isFailed()) {
+                return fail();
+            }
+            budget -= Math.max(1, result.result);
+            iterationsUsed = maxIterations - budget;
+            if (result.status.isInProgress()) {
+                return state;
+            }
+
+            Result<List<Long>> path = query.finalizeSlicedFindPath();
+            if (path.failed() || path.result == null || path.result.isEmpty()) {
+                return fail();
+            }
+            corridor.set(path.result);
+            out.flags = corridor.last() == endRef ? PathResult.FLAG_COMPLETE : PathResult.FLAG_PARTIAL;
+
+            // Iterate over the path to find smooth path on the detail mesh surface.
+            smoother.begin(query, filter, corridor, startRef, startPos, endPos, out);
+            searching = false;
+        }
+
+        if (budget > 0) {
+            boolean done = smoother.update(budget);
+            iterationsUsed += smoother.getLastSteps();
+            if (done) {
+                state = out.hasFlag(PathResult.FLAG_PARTIAL) ? State.PARTIAL : State.COMPLETE;
+                release();
+            }
+        }
+        return state;
+    }
+
+    /**
+     * Stop the request and return its query, the result is left as is.
+     */
+    public void cancel() {
+        release();
+        state = State.IDLE;
+    }
+
+    /**
+     * @return the number of iterations spent by the last call to {@link #update(int)}
+     */
+    public int getIterationsUsed() {
+        return iterationsUsed;
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    /**
+     * @return true if the request is no longer in progress
+     */
+    public boolean isDone() {
+        return state != State.IN_PROGRESS;
+    }
+
+    /**
+     * @return true while the A* search is running, false once the request moved on to smoothing or is done
+     */
+    public boolean isSearching() {
+        return state == State.IN_PROGRESS && searching;
+    }
+
+    public PathResult getResult() {
+        return out;
+    }
+
+    private State fail() {
+        release();
+        state = State.FAILED;
+        return state;
+    }
+
+    private void release() {
+        smoother.cancel();
+        searching = false;
+        if (query != null) {
+            navMeshData.freeQuery(query);
+            query = null;
+        }
+    }
+}
@@ -44,8 +44,10 @@ public class TileNavMeshBuilder extends AbstractNavMeshBuilder {
     private final ExecutorService executor;
 
     public TileNavMeshBuilder() {
-        Gdx.app.setLogLevel(Application.LOG_DEBUG);
-        Gdx.app.log("DESKTOP", "Using Desktop version of TileNavMeshBuilder");
+        if (Gdx.app != null) {
+            Gdx.app.setLogLevel(Application.LOG_DEBUG);
+            Gdx.app.log("DESKTOP", "Using Desktop version of TileNavMeshBuilder");
+        }
 
         executor = Executors.newFixedThreadPool(Math.max(1, Runtime.getRuntime().availableProcessors() / 2),
                 new RecastBuilderThreadFactory());
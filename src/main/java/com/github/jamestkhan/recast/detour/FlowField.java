@@ -0,0 +1,223 @@
+package com.github.jamestkhan.recast.detour;
+
+import org.recast4j.detour.DefaultQueryFilter;
+import org.recast4j.detour.NavMesh;
+import org.recast4j.detour.QueryFilter;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The next polygon to move to and the remaining cost to a shared goal, for every polygon of a {@link PolyGraph}.
+ * <p>
+ * A single reverse Dijkstra from the goal polygon replaces one search per agent when many agents head to the same
+ * place: afterwards any agent looks up the next hop of the polygon it stands on in constant time. Costs are measured
+ * like {@link PolyAStar}, the distance between polygon centers times the filter's cost for the area being left, so
+ * following the next hops from a polygon gives the same corridor cost as searching from it. Only
+ * {@link DefaultQueryFilter} is supported.
+ * </p>
+ * Ex.
+ * <pre>
+ * FlowField field = new FlowField(navMeshData.getIslandIndex().getGraph());
+ * field.build(goalRef, goalPos, filter);
+ * long waypointRef = field.getWaypoint(agentRef, 4, waypointPos);
+ * </pre>
+ * Building is not thread safe, lookups on a built field are.
+ *
+ * @author JamesTKhan
+ * @version October 18, 2026
+ */
+public class FlowField {
+    private final PolyGraph graph;
+    /** Incoming edges in compressed sparse row form, the sources of the edges into node n. */
+    private final int[] inStart;
+    private final int[] inSource;
+    private final int[] nextHop;
+    private final float[] distance;
+    private final NodeQueue queue;
+    private final float[] areaCosts = new float[NavMesh.DT_MAX_AREAS];
+
+    private long goalRef;
+    private int goal = -1;
+    private final float[] goalPos = new float[3];
+    private int reachableCount;
+
+    public FlowField(PolyGraph graph) {
+        this.graph = graph;
+        int nodeCount = graph.getNodeCount();
+        nextHop = new int[nodeCount];
+        distance = new float[nodeCount];
+        queue = new NodeQueue(nodeCount);
+
+        inStart = new int[nodeCount + 1];
+        inSource = new int[graph.getEdgeCount()];
+        for (int n = 0; n < nodeCount; n++) {
+            for (int e = graph.getEdgeStart(n); e < graph.getEdgeEnd(n); e++) {
+                int m = graph.getEdgeTarget(e);
+                if (m >= 0) {
+                    inStart[m + 1]++;
+                }
+            }
+        }
+        for (int n = 0; n < nodeCount; n++) {
+            inStart[n + 1] += inStart[n];
+        }
+        int[] fill = Arrays.copyOf(inStart, nodeCount);
+        for (int n = 0; n < nodeCount; n++) {
+            for (int e = graph.getEdgeStart(n); e < graph.getEdgeEnd(n); e++) {
+                int m = graph.getEdgeTarget(e);
+                if (m >= 0) {
+                    inSource[fill[m]++] = n;
+                }
+            }
+        }
+        clear();
+    }
+
+    /**
+     * Compute the next hops towards a goal.
+     *
+     * @param goalRef the polygon of the goal
+     * @param goalPos the goal position on that polygon, copied
+     * @param filter  the filter agents following the field use
+     * @return false if the goal is not in the graph, is filtered out, or the filter is not a {@link DefaultQueryFilter};
+     * the field is then empty
+     */
+    public boolean build(long goalRef, float[] goalPos, QueryFilter filter) {
+        clear();
+        int goal = graph.node(goalRef);
+        if (goal < 0 || !(filter instanceof DefaultQueryFilter)) {
+            return false;
+        }
+        DefaultQueryFilter defaultFilter = (DefaultQueryFilter) filter;
+        int includeFlags = defaultFilter.getIncludeFlags();
+        int excludeFlags = defaultFilter.getExcludeFlags();
+        if (!graph.passFlags(goal, includeFlags, excludeFlags)) {
+            return false;
+        }
+        PolyAStar.readAreaCosts(defaultFilter, areaCosts);
+
+        this.goalRef = goalRef;
+        this.goal = goal;
+        System.arraycopy(goalPos, 0, this.goalPos, 0, 3);
+
+        float[] centers = graph.getCenters();
+        queue.reset(graph.getNodeCount());
+        distance[goal] = 0;
+        queue.push(goal, 0);
+        while (!queue.isEmpty()) {
+            int n = queue.pop();
+            reachableCount++;
+            float d = distance[n];
+            for (int i = inStart[n]; i < inStart[n + 1]; i++) {
+                int m = inSource[i];
+                if (!graph.passFlags(m, includeFlags, excludeFlags)) {
+                    continue;
+                }
+                float nd = d + LandmarkTable.distance(centers, m, n) * areaCosts[graph.getArea(m)];
+                if (nd < distance[m]) {
+                    distance[m] = nd;
+                    nextHop[m] = n;
+                    queue.push(m, nd);
+                }
+            }
+        }
+        return true;
+    }
+
+    public void clear() {
+        Arrays.fill(nextHop, -1);
+        Arrays.fill(distance, Float.POSITIVE_INFINITY);
+        goalRef = 0;
+        goal = -1;
+        reachableCount = 0;
+    }
+
+    /**
+     * @return the next polygon on the way to the goal, 0 if the polygon is the goal or can not reach it
+     */
+    public long getNextHop(long ref) {
+        int node = graph.node(ref);
+        return node >= 0 && nextHop[node] >= 0 ? graph.ref(nextHop[node]) : 0;
+    }
+
+    /**
+     * @return the cost from the polygon to the goal, infinite if it can not reach the goal
+     */
+    public float getDistance(long ref) {
+        int node = graph.node(ref);
+        return node >= 0 ? distance[node] : Float.POSITIVE_INFINITY;
+    }
+
+    public boolean isReachable(long ref) {
+        int node = graph.node(ref);
+        return node >= 0 && distance[node] != Float.POSITIVE_INFINITY;
+    }
+
+    /**
+     * Follow the next hops all the way to the goal, for handing an agent a corridor without searching.
+     *
+     * @param ref the polygon the agent is on
+     * @param out receives the polygons from {@code ref} to the goal, both included, it is cleared first
+     * @return false if the polygon can not reach the goal, {@code out} is then empty
+     */
+    public boolean getCorridor(long ref, List<Long> out) {
+        out.clear();
+        int node = graph.node(ref);
+        if (node < 0 || distance[node] == Float.POSITIVE_INFINITY) {
+            return false;
+        }
+        out.add(ref);
+        while (nextHop[node] >= 0) {
+            node = nextHop[node];
+            out.add(graph.ref(node));
+        }
+        return true;
+    }
+
+    /**
+     * Follow the next hops a few polygons ahead, for steering agents in short legs towards the goal.
+     *
+     * @param ref       the polygon the agent is on
+     * @param lookahead the maximum number of hops to follow
+     * @param out       receives the center of the polygon reached, or the goal position once the goal is reached
+     * @return the polygon reached, 0 if the polygon can not reach the goal
+     */
+    public long getWaypoint(long ref, int lookahead, float[] out) {
+        int node = graph.node(ref);
+        if (node < 0 || distance[node] == Float.POSITIVE_INFINITY) {
+            return 0;
+        }
+        for (int i = 0; i < lookahead && nextHop[node] >= 0; i++) {
+            node = nextHop[node];
+        }
+        if (node == goal) {
+            System.arraycopy(goalPos, 0, out, 0, 3);
+        } else {
+            System.arraycopy(graph.getCenters(), node * 3, out, 0, 3);
+        }
+        return graph.ref(node);
+    }
+
+    public PolyGraph getGraph() {
+        return graph;
+    }
+
+    /**
+     * @return the goal polygon of the last build, 0 if the field is empty
+     */
+    public long getGoalRef() {
+        return goalRef;
+    }
+
+    public float[] getGoalPos() {
+        return goalPos;
+    }
+
+    /**
+     * @return the number of polygons that can reach the goal, including the goal
+     */
+    public int getReachableCount() {
+        return reachableCount;
+    }
+}
@@ -0,0 +1,238 @@
+package com.github.jamestkhan.recast.detour;
+
+import com.badlogic.gdx.utils.IntSet;
+import com.badlogic.gdx.utils.LongMap;
+import com.github.jamestkhan.recast.NavMeshData;
+import org.recast4j.detour.DefaultQueryFilter;
+import org.recast4j.detour.NavMesh;
+import org.recast4j.detour.QueryFilter;
+
+/**
+ * Labels every polygon of a navmesh with the connected component, or island, it belongs to, so that requests
+ * between islands can be rejected without searching.
+ * <p>
+ * Components are computed separately for each class of polygon flags, a class being the include and exclude flags
+ * of a {@link DefaultQueryFilter}: polygons the class filters out belong to no island and do not connect their
+ * neighbours. Links are treated as undirected, so a one way off-mesh connection joins both sides; the index may
+ * report an unreachable pair as reachable but never the opposite. The flags of other filter implementations are
+ * unknown, so their pairs are always reported reachable.
+ * </p>
+ * Nothing is computed until the graph or an island is first asked for. Navmesh and tile changes only mark the index
+ * stale, the next lookup then updates the graph, rebuilding only the nodes of the tiles that changed and their
+ * neighbours, see {@link PolyGraph#update}, and labels each flag class again when it is next used.
+ * <p>
+ * Thread safe. Lookups do not lock unless the index is stale: the graph and labels are published together as an
+ * immutable snapshot, which updates and new flag classes replace as a whole.
+ * </p>
+ *
+ * @author JamesTKhan
+ * @version October 18, 2026
+ */
+public class IslandIndex implements NavMeshData.Listener {
+    /** Label of polygons that belong to no island. */
+    public static final int NO_ISLAND = -1;
+
+    private final NavMeshData navMeshData;
+    private volatile Snapshot snapshot = new Snapshot(null, new LongMap<Islands>());
+    private volatile boolean stale = true;
+    /** Tiles changed since the snapshot was taken, guarded by this. */
+    private final IntSet changedTiles = new IntSet();
+    private boolean navMeshReplaced = true;
+
+    private static final class Islands {
+        final int includeFlags;
+        final int excludeFlags;
+        final int[] labels;
+        final int count;
+
+        Islands(int includeFlags, int excludeFlags, int[] labels, int count) {
+            this.includeFlags = includeFlags;
+            this.excludeFlags = excludeFlags;
+            this.labels = labels;
+            this.count = count;
+        }
+    }
+
+    /**
+     * A graph and the islands of every flag class labelled on it, never modified once published.
+     */
+    private static final class Snapshot {
+        final PolyGraph graph;
+        final LongMap<Islands> byFlagClass;
+
+        Snapshot(PolyGraph graph, LongMap<Islands> byFlagClass) {
+            this.graph = graph;
+            this.byFlagClass = byFlagClass;
+        }
+    }
+
+    public IslandIndex(NavMeshData navMeshData) {
+        this.navMeshData = navMeshData;
+        navMeshData.addListener(this);
+    }
+
+    /**
+     * @return false if the polygons are on different islands for the filter, or either is not on any island. Always
+     * true for filters other than {@link DefaultQueryFilter}, whose flags are unknown
+     */
+    public boolean isReachable(long startRef, long endRef, QueryFilter filter) {
+        if (filter instanceof DefaultQueryFilter) {
+            DefaultQueryFilter defaultFilter = (DefaultQueryFilter) filter;
+            return isReachable(startRef, endRef, defaultFilter.getIncludeFlags(), defaultFilter.getExcludeFlags());
+        }
+        return true;
+    }
+
+    /**
+     * @return false if the polygons are on different islands for the flag class, or either is not on any island
+     */
+    public boolean isReachable(long startRef, long endRef, int includeFlags, int excludeFlags) {
+        Snapshot snapshot = snapshot(includeFlags, excludeFlags);
+        if (snapshot.graph == null) {
+            return false;
+        }
+        int start = snapshot.graph.node(startRef);
+        int end = snapshot.graph.node(endRef);
+        if (start < 0 || end < 0) {
+            return false;
+        }
+        int[] labels = snapshot.byFlagClass.get(key(includeFlags, excludeFlags)).labels;
+        return labels[start] != NO_ISLAND && labels[start] == labels[end];
+    }
+
+    /**
+     * @return the island of the polygon for the flag class, {@link #NO_ISLAND} if it is filtered out or not valid
+     */
+    public int getIsland(long ref, int includeFlags, int excludeFlags) {
+        Snapshot snapshot = snapshot(includeFlags, excludeFlags);
+        int node = snapshot.graph != null ? snapshot.graph.node(ref) : -1;
+        return node < 0 ? NO_ISLAND : snapshot.byFlagClass.get(key(includeFlags, excludeFlags)).labels[node];
+    }
+
+    public int getIslandCount(int includeFlags, int excludeFlags) {
+        Snapshot snapshot = snapshot(includeFlags, excludeFlags);
+        return snapshot.graph == null ? 0 : snapshot.byFlagClass.get(key(includeFlags, excludeFlags)).count;
+    }
+
+    /**
+     * @return the polygon graph the islands were computed on, null if there is no navmesh
+     */
+    public PolyGraph getGraph() {
+        return current().graph;
+    }
+
+    @Override
+    public synchronized void navMeshChanged(NavMeshData navMeshData) {
+        navMeshReplaced = true;
+        changedTiles.clear();
+        stale = true;
+    }
+
+    @Override
+    public synchronized void tileChanged(NavMeshData navMeshData, int tileIndex) {
+        changedTiles.add(tileIndex);
+        stale = true;
+    }
+
+    /**
+     * @return the snapshot of the current navmesh, updated first if it is stale
+     */
+    private Snapshot current() {
+        return stale ? update() : snapshot;
+    }
+
+    private synchronized Snapshot update() {
+        if (!stale) {
+            return snapshot;
+        }
+        NavMesh navMesh = navMeshData.getNavMesh();
+        PolyGraph graph;
+        if (navMesh == null) {
+            graph = null;
+        } else if (navMeshReplaced || snapshot.graph == null || snapshot.graph.getNavMesh() != navMesh) {
+            graph = new PolyGraph(navMesh);
+        } else {
+            graph = snapshot.graph.update(changedTiles);
+        }
+        // Flag classes are labelled again on first use
+        snapshot = new Snapshot(graph, new LongMap<Islands>());
+        changedTiles.clear();
+        navMeshReplaced = false;
+        stale = false;
+        return snapshot;
+    }
+
+    /**
+     * @return the current snapshot, with the flag class labelled
+     */
+    private Snapshot snapshot(int includeFlags, int excludeFlags) {
+        Snapshot snapshot = current();
+        if (snapshot.graph == null || snapshot.byFlagClass.containsKey(key(includeFlags, excludeFlags))) {
+            return snapshot;
+        }
+        return addFlagClass(includeFlags, excludeFlags);
+    }
+
+    private synchronized Snapshot addFlagClass(int includeFlags, int excludeFlags) {
+        Snapshot snapshot = current();
+        long key = key(includeFlags, excludeFlags);
+        if (snapshot.graph == null || snapshot.byFlagClass.containsKey(key)) {
+            return snapshot;
+        }
+        LongMap<Islands> byFlagClass = new LongMap<>(snapshot.byFlagClass);
+        byFlagClass.put(key, label(snapshot.graph, includeFlags, excludeFlags));
+        this.snapshot = new Snapshot(snapshot.graph, byFlagClass);
+        return this.snapshot;
+    }
+
+    private static long key(int includeFlags, int excludeFlags) {
+        return ((long) includeFlags << 32) | (excludeFlags & 0xffffffffL);
+    }
+
+    /**
+     * Union-find over the links between polygons passing the flag class, then numbers the roots consecutively.
+     */
+    private static Islands label(PolyGraph graph, int includeFlags, int excludeFlags) {
+        int nodeCount = graph.getNodeCount();
+        int[] parent = new int[nodeCount];
+        for (int n = 0; n < nodeCount; n++) {
+            parent[n] = graph.passFlags(n, includeFlags, excludeFlags) ? n : NO_ISLAND;
+        }
+        for (int n = 0; n < nodeCount; n++) {
+            if (parent[n] == NO_ISLAND) {
+                continue;
+            }
+            for (int e = graph.getEdgeStart(n); e < graph.getEdgeEnd(n); e++) {
+                int m = graph.getEdgeTarget(e);
+                if (m >= 0 && parent[m] != NO_ISLAND) {
+                    int a = find(parent, n);
+                    int b = find(parent, m);
+                    if (a != b) {
+                        parent[Math.max(a, b)] = Math.min(a, b);
+                    }
+                }
+            }
+        }
+
+        int[] labels = new int[nodeCount];
+        int count = 0;
+        for (int n = 0; n < nodeCount; n++) {
+            if (parent[n] == NO_ISLAND) {
+                labels[n] = NO_ISLAND;
+            } else {
+                int root = find(parent, n);
+                // Roots are the lowest node of their island, so they are labelled before any other member
+                labels[n] = root == n ? count++ : labels[root];
+            }
+        }
+        return new Islands(includeFlags, excludeFlags, labels, count);
+    }
+
+    private static int find(int[] parent, int n) {
+        while (parent[n] != n) {
+            parent[n] = parent[parent[n]];
+            n = parent[n];
+        }
+        return n;
+    }
+}
@@ -0,0 +1,239 @@
+package com.github.jamestkhan.recast.detour;
+
+import com.badlogic.gdx.utils.GdxRuntimeException;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+/**
+ * Precomputed landmark distances for the ALT (A*, landmarks, triangle inequality) heuristic.
+ * <p>
+ * K landmark polygons are picked by farthest point selection and the shortest distance from each landmark to every
+ * polygon is found with Dijkstra over the links of a {@link PolyGraph}, measuring the distance between polygon
+ * centers. By the triangle inequality {@code d(n, t) >= d(L, t) - d(L, n)} for any landmark L, which gives a lower
+ * bound on the remaining cost that is much tighter than the straight line distance in maze-like levels. The bound
+ * holds for any filter whose area costs are at least 1, polygons excluded by a filter only make real paths longer.
+ * </p>
+ * Distances are stored node major in a single float array, the K distances of a polygon are contiguous. Tables are
+ * only valid for the graph they were built for, rebuild or reload them when tiles change.
+ *
+ * @author JamesTKhan
+ * @version October 18, 2026
+ */
+public class LandmarkTable {
+    private static final int MAGIC = 'A' << 24 | 'L' << 16 | 'T' << 8 | 'S';
+    private static final int VERSION = 1;
+
+    private final PolyGraph graph;
+    private final int[] landmarks;
+    /** distances[node * K + k], infinite when the node can not be reached from the landmark. */
+    private final float[] distances;
+
+    private LandmarkTable(PolyGraph graph, int[] landmarks, float[] distances) {
+        this.graph = graph;
+        this.landmarks = landmarks;
+        this.distances = distances;
+    }
+
+    /**
+     * Pick landmarks and compute their distance tables.
+     *
+     * @param graph         the polygon graph
+     * @param landmarkCount the number of landmarks K, more give a tighter heuristic at K floats per polygon
+     * @return the table
+     */
+    public static LandmarkTable build(PolyGraph graph, int landmarkCount) {
+        int nodeCount = graph.getNodeCount();
+        int k = Math.max(0, Math.min(landmarkCount, graph.getUsedNodeCount()));
+        int[] landmarks = new int[k];
+        float[] distances = new float[nodeCount * k];
+        float[] dist = new float[nodeCount];
+        // Distance from each node to its closest landmark so far, drives the farthest point selection
+        float[] closest = new float[nodeCount];
+        Arrays.fill(closest, Float.POSITIVE_INFINITY);
+        NodeQueue queue = new NodeQueue(nodeCount);
+
+        // Start from the node farthest from an arbitrary one, which lies on the rim of the navmesh
+        int first = firstUsed(graph);
+        int next = k > 0 && first >= 0 ? argMax(dijkstra(graph, first, dist, queue), nodeCount, -1) : -1;
+        int picked = 0;
+        while (picked < k && next >= 0) {
+            landmarks[picked] = next;
+            dijkstra(graph, next, dist, queue);
+            for (int n = 0; n < nodeCount; n++) {
+                distances[n * k + picked] = dist[n];
+                closest[n] = Math.min(closest[n], dist[n]);
+            }
+            picked++;
+            next = nextLandmark(graph, closest, nodeCount);
+        }
+        if (picked < k) {
+            // Fewer distinct candidates than requested, the picks are deterministic so build again without the gaps
+            return build(graph, picked);
+        }
+        return new LandmarkTable(graph, landmarks, distances);
+    }
+
+    /**
+     * @return the node farthest from every landmark so far, or a node on an island no landmark reaches yet
+     */
+    private static int nextLandmark(PolyGraph graph, float[] closest, int nodeCount) {
+        for (int n = 0; n < nodeCount; n++) {
+            if (closest[n] == Float.POSITIVE_INFINITY && graph.isUsed(n)) {
+                return n;
+            }
+        }
+        return argMax(closest, nodeCount, 0);
+    }
+
+    private static int firstUsed(PolyGraph graph) {
+        for (int n = 0; n < graph.getNodeCount(); n++) {
+            if (graph.isUsed(n)) {
+                return n;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return the node with the largest finite value above the minimum, -1 if there is none
+     */
+    private static int argMax(float[] values, int nodeCount, float min) {
+        int best = -1;
+        float bestValue = min;
+        for (int n = 0; n < nodeCount; n++) {
+            if (values[n] != Float.POSITIVE_INFINITY && values[n] > bestValue) {
+                bestValue = values[n];
+                best = n;
+            }
+        }
+        return best;
+    }
+
+    private static float[] dijkstra(PolyGraph graph, int source, float[] dist, NodeQueue queue) {
+        Arrays.fill(dist, Float.POSITIVE_INFINITY);
+        float[] centers = graph.getCenters();
+        queue.reset(graph.getNodeCount());
+        dist[source] = 0;
+        queue.push(source, 0);
+        while (!queue.isEmpty()) {
+            int n = queue.pop();
+            float d = dist[n];
+            for (int e = graph.getEdgeStart(n); e < graph.getEdgeEnd(n); e++) {
+                int m = graph.getEdgeTarget(e);
+                if (m < 0) {
+                    continue;
+                }
+                float nd = d + distance(centers, n, m);
+                if (nd < dist[m]) {
+                    dist[m] = nd;
+                    queue.push(m, nd);
+                }
+            }
+        }
+        return dist;
+    }
+
+    static float distance(float[] centers, int a, int b) {
+        float dx = centers[a * 3] - centers[b * 3];
+        float dy = centers[a * 3 + 1] - centers[b * 3 + 1];
+        float dz = centers[a * 3 + 2] - centers[b * 3 + 2];
+        return (float) Math.sqrt(dx * dx + dy * dy + dz * dz);
+    }
+
+    /**
+     * @return a lower bound of the distance from node to target
+     */
+    public float heuristic(int node, int target) {
+        int k = landmarks.length;
+        int a = node * k;
+        int b = target * k;
+        float h = 0;
+        for (int i = 0; i < k; i++) {
+            float ln = distances[a + i];
+            float lt = distances[b + i];
+            // Both must be reachable from the landmark for the bound to hold
+            if (ln != Float.POSITIVE_INFINITY && lt != Float.POSITIVE_INFINITY && lt - ln > h) {
+                h = lt - ln;
+            }
+        }
+        return h;
+    }
+
+    public PolyGraph getGraph() {
+        return graph;
+    }
+
+    public int getLandmarkCount() {
+        return landmarks.length;
+    }
+
+    /**
+     * @return the polygon ref of a landmark
+     */
+    public long getLandmarkRef(int index) {
+        return graph.ref(landmarks[index]);
+    }
+
+    /**
+     * Serialize the table, big endian.
+     */
+    public byte[] toBytes() {
+        int nodeCount = graph.getNodeCount();
+        ByteBuffer buffer = ByteBuffer.allocate(4 * 5 + 8 + landmarks.length * 4 + distances.length * 4);
+        buffer.order(ByteOrder.BIG_ENDIAN);
+        buffer.putInt(MAGIC);
+        buffer.putInt(VERSION);
+        buffer.putInt(nodeCount);
+        buffer.putLong(checksum(graph));
+        buffer.putInt(landmarks.length);
+        buffer.putInt(distances.length);
+        for (int landmark : landmarks) {
+            buffer.putInt(landmark);
+        }
+        buffer.asFloatBuffer().put(distances);
+        return buffer.array();
+    }
+
+    /**
+     * Read a table written by {@link #toBytes()} for the given graph.
+     *
+     * @throws GdxRuntimeException if the data is not a landmark table or was built for a different navmesh
+     */
+    public static LandmarkTable fromBytes(byte[] bytes, PolyGraph graph) {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        buffer.order(ByteOrder.BIG_ENDIAN);
+        if (buffer.getInt() != MAGIC) {
+            throw new GdxRuntimeException("Not a landmark table.");
+        }
+        int version = buffer.getInt();
+        if (version != VERSION) {
+            throw new GdxRuntimeException("Unsupported landmark table version: " + version);
+        }
+        int nodeCount = buffer.getInt();
+        long checksum = buffer.getLong();
+        if (nodeCount != graph.getNodeCount() || checksum != checksum(graph)) {
+            throw new GdxRuntimeException("Landmark table was built for a different navmesh.");
+        }
+        int[] landmarks = new int[buffer.getInt()];
+        float[] distances = new float[buffer.getInt()];
+        for (int i = 0; i < landmarks.length; i++) {
+            landmarks[i] = buffer.getInt();
+        }
+        buffer.asFloatBuffer().get(distances);
+        return new LandmarkTable(graph, landmarks, distances);
+    }
+
+    /**
+     * Hash of the polygon refs and link structure, to detect tables loaded for another navmesh.
+     */
+    private static long checksum(PolyGraph graph) {
+        long h = 1125899906842597L;
+        for (int n = 0; n < graph.getNodeCount(); n++) {
+            h = 31 * h + graph.ref(n);
+            h = 31 * h + graph.getEdgeEnd(n);
+        }
+        return h;
+    }
+}
@@ -0,0 +1,137 @@
+package com.github.jamestkhan.recast.detour;
+
+import java.util.Arrays;
+
+/**
+ * An indexed binary min-heap of dense int nodes keyed by float, for Dijkstra and A* over {@link PolyGraph} nodes
+ * without boxing. Each node is in the queue at most once, pushing a node already queued with a lower key updates its
+ * position.
+ *
+ * @author JamesTKhan
+ * @version October 18, 2026
+ */
+public class NodeQueue {
+    private int[] heap;
+    private float[] keys;
+    /** Position of each node in the heap, -1 if not queued. */
+    private int[] positions;
+    private int size;
+
+    /**
+     * @param nodeCount the number of distinct nodes, nodes must be in {@code [0, nodeCount)}
+     */
+    public NodeQueue(int nodeCount) {
+        heap = new int[Math.max(1, nodeCount)];
+        keys = new float[Math.max(1, nodeCount)];
+        positions = new int[Math.max(1, nodeCount)];
+        Arrays.fill(positions, -1);
+    }
+
+    /**
+     * Make room for nodes in {@code [0, nodeCount)}, clears the queue.
+     */
+    public void reset(int nodeCount) {
+        if (positions.length < nodeCount) {
+            heap = new int[nodeCount];
+            keys = new float[nodeCount];
+            positions = new int[nodeCount];
+            Arrays.fill(positions, -1);
+            size = 0;
+        } else {
+            clear();
+        }
+    }
+
+    /**
+     * Queue a node, or lower its key if it is already queued with a higher one.
+     */
+    public void push(int node, float key) {
+        int pos = positions[node];
+        if (pos < 0) {
+            pos = size++;
+            heap[pos] = node;
+            positions[node] = pos;
+        } else if (key >= keys[node]) {
+            return;
+        }
+        keys[node] = key;
+        up(pos);
+    }
+
+    /**
+     * @return the node with the lowest key, removed from the queue
+     */
+    public int pop() {
+        int node = heap[0];
+        positions[node] = -1;
+        size--;
+        if (size > 0) {
+            heap[0] = heap[size];
+            positions[heap[0]] = 0;
+            down(0);
+        }
+        return node;
+    }
+
+    public float peekKey() {
+        return keys[heap[0]];
+    }
+
+    public boolean contains(int node) {
+        return positions[node] >= 0;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void clear() {
+        for (int i = 0; i < size; i++) {
+            positions[heap[i]] = -1;
+        }
+        size = 0;
+    }
+
+    private void up(int pos) {
+        int node = heap[pos];
+        float key = keys[node];
+        while (pos > 0) {
+            int parent = (pos - 1) >>> 1;
+            int p = heap[parent];
+            if (keys[p] <= key) {
+                break;
+            }
+            heap[pos] = p;
+            positions[p] = pos;
+            pos = parent;
+        }
+        heap[pos] = node;
+        positions[node] = pos;
+    }
+
+    private void down(int pos) {
+        int node = heap[pos];
+        float key = keys[node];
+        int half = size >>> 1;
+        while (pos < half) {
+            int child = 2 * pos + 1;
+            int right = child + 1;
+            if (right < size && keys[heap[right]] < keys[heap[child]]) {
+                child = right;
+            }
+            int c = heap[child];
+            if (key <= keys[c]) {
+                break;
+            }
+            heap[pos] = c;
+            positions[c] = pos;
+            pos = child;
+        }
+        heap[pos] = node;
+        positions[node] = pos;
+    }
+}
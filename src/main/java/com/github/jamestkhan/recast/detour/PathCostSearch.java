@@ -0,0 +1,155 @@
+package com.github.jamestkhan.recast.detour;
+
+import org.recast4j.detour.DefaultQueryFilter;
+import org.recast4j.detour.NavMesh;
+import org.recast4j.detour.QueryFilter;
+
+import java.util.Arrays;
+
+/**
+ * Multi-target Dijkstra over a {@link PolyGraph}, finding the path cost from one polygon to many others in a single
+ * search.
+ * <p>
+ * Costs are measured like {@link PolyAStar}: the distance between polygon centers times the filter's cost for the
+ * area being left. The search stops as soon as every target is settled, or when the source's island is exhausted.
+ * No corridor or waypoints are built, for scoring many candidates by path cost. Only {@link DefaultQueryFilter} is
+ * supported.
+ * </p>
+ * Not thread safe, the search state is kept in the instance; use one per thread.
+ *
+ * @author JamesTKhan
+ * @version October 18, 2026
+ */
+public class PathCostSearch {
+    private final PolyGraph graph;
+    private final NodeQueue open;
+    private final float[] dist;
+    private final int[] visited;
+    /** Search stamp of the nodes that are targets of the current search. */
+    private final int[] targeted;
+    private int stamp;
+
+    private QueryFilter filter;
+    private int includeFlags;
+    private int excludeFlags;
+    private final float[] areaCosts = new float[NavMesh.DT_MAX_AREAS];
+
+    private int lastExpansions;
+
+    public PathCostSearch(PolyGraph graph) {
+        this.graph = graph;
+        int nodeCount = graph.getNodeCount();
+        open = new NodeQueue(nodeCount);
+        dist = new float[nodeCount];
+        visited = new int[nodeCount];
+        targeted = new int[nodeCount];
+    }
+
+    /**
+     * Use the flags and area costs of a filter for the following searches.
+     *
+     * @return false if the filter is not a {@link DefaultQueryFilter}, which can not be searched with
+     */
+    public boolean setFilter(QueryFilter filter) {
+        if (filter == this.filter) {
+            return true;
+        }
+        if (!(filter instanceof DefaultQueryFilter)) {
+            return false;
+        }
+        DefaultQueryFilter defaultFilter = (DefaultQueryFilter) filter;
+        includeFlags = defaultFilter.getIncludeFlags();
+        excludeFlags = defaultFilter.getExcludeFlags();
+        PolyAStar.readAreaCosts(defaultFilter, areaCosts);
+        this.filter = filter;
+        return true;
+    }
+
+    /**
+     * Find the cost from a source node to each target node.
+     *
+     * @param source      the source node, see {@link PolyGraph#node(long)}
+     * @param targets     the target nodes, negative entries are skipped
+     * @param targetCount the number of targets
+     * @param out         receives the cost to target j at {@code outOffset + j}, infinite if it can not be reached
+     * @param outOffset   the index of the first cost written
+     */
+    public void search(int source, int[] targets, int targetCount, float[] out, int outOffset) {
+        lastExpansions = 0;
+        if (source < 0 || !passes(source)) {
+            Arrays.fill(out, outOffset, outOffset + targetCount, Float.POSITIVE_INFINITY);
+            return;
+        }
+
+        stamp++;
+        if (stamp == 0) {
+            Arrays.fill(visited, 0);
+            Arrays.fill(targeted, 0);
+            stamp = 1;
+        }
+        int remaining = 0;
+        for (int j = 0; j < targetCount; j++) {
+            int t = targets[j];
+            if (t >= 0 && targeted[t] != stamp && passes(t)) {
+                targeted[t] = stamp;
+                remaining++;
+            }
+        }
+
+        open.clear();
+        float[] centers = graph.getCenters();
+        visited[source] = stamp;
+        dist[source] = 0;
+        open.push(source, 0);
+        while (remaining > 0 && !open.isEmpty()) {
+            int n = open.pop();
+            lastExpansions++;
+            if (targeted[n] == stamp) {
+                remaining--;
+            }
+            float areaCost = areaCosts[graph.getArea(n)];
+            for (int e = graph.getEdgeStart(n); e < graph.getEdgeEnd(n); e++) {
+                int m = graph.getEdgeTarget(e);
+                if (m < 0 || !passes(m)) {
+                    continue;
+                }
+                float cost = dist[n] + LandmarkTable.distance(centers, n, m) * areaCost;
+                if (visited[m] == stamp && cost >= dist[m]) {
+                    continue;
+                }
+                visited[m] = stamp;
+                dist[m] = cost;
+                open.push(m, cost);
+            }
+        }
+
+        // Every target that was reached is settled, either all of them were or the island was exhausted
+        for (int j = 0; j < targetCount; j++) {
+            int t = targets[j];
+            out[outOffset + j] = t >= 0 && targeted[t] == stamp && visited[t] == stamp ? dist[t]
+                    : Float.POSITIVE_INFINITY;
+        }
+    }
+
+    private boolean passes(int node) {
+        return graph.passFlags(node, includeFlags, excludeFlags);
+    }
+
+    /**
+     * @return the cost per unit of distance of moving over a polygon of the node's area
+     */
+    public float getAreaCost(int node) {
+        return areaCosts[graph.getArea(node)];
+    }
+
+    public PolyGraph getGraph() {
+        return graph;
+    }
+
+    /**
+     * @return the number of nodes expanded by the last search
+     */
+    public int getLastExpansions() {
+        return lastExpansions;
+    }
+}
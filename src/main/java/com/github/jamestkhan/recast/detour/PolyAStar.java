@@ -0,0 +1,212 @@
+package com.github.jamestkhan.recast.detour;
+
+import com.github.jamestkhan.recast.utils.PolyCorridor;
+import org.recast4j.detour.DefaultQueryFilter;
+import org.recast4j.detour.NavMesh;
+import org.recast4j.detour.Poly;
+import org.recast4j.detour.QueryFilter;
+
+import java.util.Arrays;
+
+/**
+ * A* over the polygons of a {@link PolyGraph}, optionally guided by a {@link LandmarkTable}.
+ * <p>
+ * Moving out of a polygon costs the distance between its center and the center of the next polygon times the
+ * filter's cost for the polygon's area, like Detour's default filter. The heuristic is the larger of the straight
+ * line distance and the landmark bound, scaled down when the filter has area costs below 1 so it stays admissible.
+ * Only {@link DefaultQueryFilter} is supported, since the flags and area costs of other filters are not known.
+ * </p>
+ * Not thread safe, the search state is kept in the instance.
+ *
+ * @author JamesTKhan
+ * @version October 18, 2026
+ */
+public class PolyAStar {
+    private final PolyGraph graph;
+    private final LandmarkTable landmarks;
+    private final NodeQueue open;
+    private final float[] g;
+    private final int[] parent;
+    private final int[] visited;
+    private int stamp;
+
+    private QueryFilter filter;
+    private int includeFlags;
+    private int excludeFlags;
+    private final float[] areaCosts = new float[NavMesh.DT_MAX_AREAS];
+    private float heuristicScale = 1f;
+
+    private long[] path = new long[64];
+    private int lastExpansions;
+    private float lastCost;
+
+    /**
+     * @param graph     the graph to search
+     * @param landmarks landmark distances for the graph, or null for the straight line heuristic only
+     */
+    public PolyAStar(PolyGraph graph, LandmarkTable landmarks) {
+        if (landmarks != null && landmarks.getGraph() != graph) {
+            throw new IllegalArgumentException("Landmark table was built for another graph.");
+        }
+        this.graph = graph;
+        this.landmarks = landmarks;
+        int nodeCount = graph.getNodeCount();
+        open = new NodeQueue(nodeCount);
+        g = new float[nodeCount];
+        parent = new int[nodeCount];
+        visited = new int[nodeCount];
+    }
+
+    /**
+     * Use the flags and area costs of a filter for the following searches.
+     *
+     * @return false if the filter is not a {@link DefaultQueryFilter}, which can not be searched with
+     */
+    public boolean setFilter(QueryFilter filter) {
+        if (filter == this.filter) {
+            return true;
+        }
+        if (!(filter instanceof DefaultQueryFilter)) {
+            return false;
+        }
+        DefaultQueryFilter defaultFilter = (DefaultQueryFilter) filter;
+        includeFlags = defaultFilter.getIncludeFlags();
+        excludeFlags = defaultFilter.getExcludeFlags();
+        heuristicScale = Math.min(1f, readAreaCosts(defaultFilter, areaCosts));
+        this.filter = filter;
+        return true;
+    }
+
+    /**
+     * Read the cost per unit of distance of every area of a filter.
+     *
+     * @param out receives {@link NavMesh#DT_MAX_AREAS} costs
+     * @return the lowest area cost
+     */
+    static float readAreaCosts(DefaultQueryFilter filter, float[] out) {
+        // The default filter's cost is the distance times the area cost of the current polygon,
+        // so the cost of a unit move over a polygon of each area gives the area costs.
+        float[] a = new float[3];
+        float[] b = { 1, 0, 0 };
+        Poly poly = new Poly(0, 3);
+        float minCost = Float.POSITIVE_INFINITY;
+        for (int area = 0; area < NavMesh.DT_MAX_AREAS; area++) {
+            poly.setArea(area);
+            out[area] = filter.getCost(a, b, 0, null, null, 0, null, poly, 0, null, null);
+            minCost = Math.min(minCost, out[area]);
+        }
+        return minCost;
+    }
+
+    /**
+     * Find the cheapest corridor between two polygons with the filter set by {@link #setFilter(QueryFilter)}.
+     *
+     * When the end is not reachable the corridor to the reached polygon closest to the end is written instead, like
+     * Detour's partial paths, so the caller does not have to search again to get one.
+     *
+     * @param out receives the polygon refs of the path from start to end, or to the polygon closest to the end
+     * @return false if the end is not reachable, or if either polygon is not in the graph or is filtered out, in
+     * which case out is left untouched
+     */
+    public boolean findPath(long startRef, long endRef, PolyCorridor out) {
+        lastExpansions = 0;
+        lastCost = Float.POSITIVE_INFINITY;
+        int start = graph.node(startRef);
+        int end = graph.node(endRef);
+        if (start < 0 || end < 0 || !passes(start) || !passes(end)) {
+            return false;
+        }
+
+        stamp++;
+        if (stamp == 0) {
+            Arrays.fill(visited, 0);
+            stamp = 1;
+        }
+        open.clear();
+        float[] centers = graph.getCenters();
+
+        visited[start] = stamp;
+        g[start] = 0;
+        parent[start] = -1;
+        open.push(start, heuristic(start, end, centers));
+        int closest = start;
+        float closestDistance = LandmarkTable.distance(centers, start, end);
+        while (!open.isEmpty()) {
+            int n = open.pop();
+            lastExpansions++;
+            if (n == end) {
+                lastCost = g[end];
+                writePath(end, out);
+                return true;
+            }
+            float distance = LandmarkTable.distance(centers, n, end);
+            if (distance < closestDistance) {
+                closest = n;
+                closestDistance = distance;
+            }
+            float areaCost = areaCosts[graph.getArea(n)];
+            for (int e = graph.getEdgeStart(n); e < graph.getEdgeEnd(n); e++) {
+                int m = graph.getEdgeTarget(e);
+                if (m < 0 || !passes(m)) {
+                    continue;
+                }
+                float cost = g[n] + LandmarkTable.distance(centers, n, m) * areaCost;
+                if (visited[m] == stamp && cost >= g[m]) {
+                    continue;
+                }
+                visited[m] = stamp;
+                g[m] = cost;
+                parent[m] = n;
+                open.push(m, cost + heuristic(m, end, centers));
+            }
+        }
+        writePath(closest, out);
+        return false;
+    }
+
+    private boolean passes(int node) {
+        return graph.passFlags(node, includeFlags, excludeFlags);
+    }
+
+    private float heuristic(int node, int end, float[] centers) {
+        float h = LandmarkTable.distance(centers, node, end);
+        if (landmarks != null) {
+            h = Math.max(h, landmarks.heuristic(node, end));
+        }
+        return h * heuristicScale;
+    }
+
+    private void writePath(int end, PolyCorridor out) {
+        int count = 0;
+        for (int n = end; n >= 0; n = parent[n]) {
+            if (count == path.length) {
+                path = Arrays.copyOf(path, count * 2);
+            }
+            path[count++] = graph.ref(n);
+        }
+        for (int i = 0, j = count - 1; i < j; i++, j--) {
+            long tmp = path[i];
+            path[i] = path[j];
+            path[j] = tmp;
+        }
+        out.set(path, count);
+    }
+
+    public PolyGraph getGraph() {
+        return graph;
+    }
+
+    /**
+     * @return the number of nodes expanded by the last search
+     */
+    public int getLastExpansions() {
+        return lastExpansions;
+    }
+
+    /**
+     * @return the cost of the path found by the last search, infinite if none was found
+     */
+    public float getLastCost() {
+        return lastCost;
+    }
+}
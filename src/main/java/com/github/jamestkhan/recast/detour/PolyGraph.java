@@ -0,0 +1,366 @@
+package com.github.jamestkhan.recast.detour;
+
+import com.badlogic.gdx.utils.IntSet;
+import org.recast4j.detour.Link;
+import org.recast4j.detour.MeshTile;
+import org.recast4j.detour.NavMesh;
+import org.recast4j.detour.Poly;
+import org.recast4j.detour.Result;
+import org.recast4j.detour.Tupple2;
+
+import java.util.Arrays;
+
+/**
+ * A compact snapshot of the polygon adjacency of a {@link NavMesh}, for whole-mesh graph algorithms.
+ * <p>
+ * Every polygon of every tile gets a dense node index: the polygons of a tile are numbered consecutively from the
+ * tile's base offset. The links of each polygon, including those to and from off-mesh connections, are stored as
+ * directed edges: the neighbours of node {@code n} are {@code getEdgeTarget(e)} for {@code e} in
+ * {@code [getEdgeStart(n), getEdgeEnd(n))}. The snapshot does not follow changes of the navmesh, {@link #update}
+ * derives a new graph when tiles change.
+ * </p>
+ * An updated graph keeps the numbering of the tiles that did not change, so it may contain unused nodes: their ref is
+ * 0, they pass no filter and have no edges.
+ *
+ * @author JamesTKhan
+ * @version October 18, 2026
+ */
+public class PolyGraph {
+    private final NavMesh navMesh;
+    private final int[] tileBase;
+    /** Per tile, the number of nodes reserved from its base, at least its polygon count. */
+    private final int[] tileCapacity;
+    /** Per tile, the [x,y] location it had when its nodes were built. */
+    private final int[] tileCoords;
+    private final int nodeCount;
+    private final int usedNodeCount;
+    private final long[] refs;
+    private final int[] polyFlags;
+    private final int[] areas;
+    private final float[] centers;
+    private final int[] edgeStart;
+    private final int[] edgeEnd;
+    private final int[] edgeTarget;
+    private final int usedEdgeCount;
+
+    public PolyGraph(NavMesh navMesh) {
+        this(navMesh, null, null);
+    }
+
+    /**
+     * Build the nodes of the changed tiles and of the tiles around them, whose links to the changed tiles may have
+     * changed too, and copy the rest from the previous graph. Without a previous graph every tile is built.
+     */
+    private PolyGraph(NavMesh navMesh, PolyGraph previous, IntSet changedTiles) {
+        this.navMesh = navMesh;
+        int maxTiles = navMesh.getMaxTiles();
+        boolean[] rebuild = new boolean[maxTiles];
+        int[] tileBase;
+        int[] tileCapacity;
+        int[] tileCoords;
+        int count;
+        int edgeCount;
+        if (previous == null) {
+            tileBase = new int[maxTiles];
+            Arrays.fill(tileBase, -1);
+            tileCapacity = new int[maxTiles];
+            tileCoords = new int[maxTiles * 2];
+            Arrays.fill(rebuild, true);
+            count = 0;
+            edgeCount = 0;
+        } else {
+            tileBase = previous.tileBase.clone();
+            tileCapacity = previous.tileCapacity.clone();
+            tileCoords = previous.tileCoords.clone();
+            IntSet.IntSetIterator it = changedTiles.iterator();
+            while (it.hasNext) {
+                int t = it.next();
+                if (t < 0 || t >= maxTiles) {
+                    continue;
+                }
+                rebuild[t] = true;
+                // The tile may have moved, both its old and new neighbours need new links
+                if (tileBase[t] >= 0) {
+                    markNeighbours(navMesh, tileCoords[t * 2], tileCoords[t * 2 + 1], rebuild);
+                }
+                MeshTile tile = navMesh.getTile(t);
+                if (hasPolys(tile)) {
+                    markNeighbours(navMesh, tile.data.header.x, tile.data.header.y, rebuild);
+                }
+            }
+            count = previous.nodeCount;
+            edgeCount = previous.edgeTarget.length;
+        }
+
+        // Reserve nodes, tiles that no longer fit their range are moved to the end
+        int[] oldBase = tileBase.clone();
+        int[] oldCapacity = tileCapacity.clone();
+        for (int t = 0; t < maxTiles; t++) {
+            if (!rebuild[t]) {
+                continue;
+            }
+            MeshTile tile = navMesh.getTile(t);
+            if (!hasPolys(tile)) {
+                tileBase[t] = -1;
+                tileCapacity[t] = 0;
+                continue;
+            }
+            int polyCount = tile.data.header.polyCount;
+            if (tileBase[t] < 0 || tileCapacity[t] < polyCount) {
+                tileBase[t] = count;
+                tileCapacity[t] = polyCount;
+                count += polyCount;
+            }
+            tileCoords[t * 2] = tile.data.header.x;
+            tileCoords[t * 2 + 1] = tile.data.header.y;
+        }
+
+        long[] refs = previous != null ? Arrays.copyOf(previous.refs, count) : new long[count];
+        int[] polyFlags = previous != null ? Arrays.copyOf(previous.polyFlags, count) : new int[count];
+        int[] areas = previous != null ? Arrays.copyOf(previous.areas, count) : new int[count];
+        float[] centers = previous != null ? Arrays.copyOf(previous.centers, count * 3) : new float[count * 3];
+        int[] edgeStart = previous != null ? Arrays.copyOf(previous.edgeStart, count) : new int[count];
+        int[] edgeEnd = previous != null ? Arrays.copyOf(previous.edgeEnd, count) : new int[count];
+
+        // Clear the old ranges of rebuilt tiles, then fill in their nodes and count their edges
+        for (int t = 0; t < maxTiles; t++) {
+            if (rebuild[t] && oldBase[t] >= 0) {
+                clearNodes(oldBase[t], oldBase[t] + oldCapacity[t], refs, polyFlags, areas, edgeStart, edgeEnd);
+            }
+        }
+        int newEdges = 0;
+        for (int t = 0; t < maxTiles; t++) {
+            if (!rebuild[t] || tileBase[t] < 0) {
+                continue;
+            }
+            MeshTile tile = navMesh.getTile(t);
+            long base = navMesh.getPolyRefBase(tile);
+            for (int p = 0; p < tile.data.header.polyCount; p++) {
+                int node = tileBase[t] + p;
+                Poly poly = tile.data.polys[p];
+                refs[node] = base | p;
+                polyFlags[node] = poly.flags;
+                areas[node] = poly.getArea();
+                polyCenter(tile, poly, centers, node * 3);
+                for (int k = tile.polyLinks[p]; k != NavMesh.DT_NULL_LINK; k = tile.links.get(k).next) {
+                    if (tile.links.get(k).ref != 0) {
+                        newEdges++;
+                    }
+                }
+            }
+        }
+
+        // Append the edges of rebuilt tiles, resolving link targets with the new numbering
+        int[] edgeTarget = previous != null ? Arrays.copyOf(previous.edgeTarget, edgeCount + newEdges)
+                : new int[newEdges];
+        int e = edgeCount;
+        for (int t = 0; t < maxTiles; t++) {
+            if (!rebuild[t] || tileBase[t] < 0) {
+                continue;
+            }
+            MeshTile tile = navMesh.getTile(t);
+            for (int p = 0; p < tile.data.header.polyCount; p++) {
+                int node = tileBase[t] + p;
+                edgeStart[node] = e;
+                for (int k = tile.polyLinks[p]; k != NavMesh.DT_NULL_LINK; k = tile.links.get(k).next) {
+                    Link link = tile.links.get(k);
+                    if (link.ref != 0) {
+                        edgeTarget[e++] = node(navMesh, tileBase, refs, link.ref);
+                    }
+                }
+                edgeEnd[node] = e;
+            }
+        }
+
+        int usedNodes = 0;
+        int usedEdges = 0;
+        for (int n = 0; n < count; n++) {
+            if (refs[n] != 0) {
+                usedNodes++;
+                usedEdges += edgeEnd[n] - edgeStart[n];
+            }
+        }
+
+        this.tileBase = tileBase;
+        this.tileCapacity = tileCapacity;
+        this.tileCoords = tileCoords;
+        this.nodeCount = count;
+        this.usedNodeCount = usedNodes;
+        this.refs = refs;
+        this.polyFlags = polyFlags;
+        this.areas = areas;
+        this.centers = centers;
+        this.edgeStart = edgeStart;
+        this.edgeEnd = edgeEnd;
+        this.edgeTarget = edgeTarget;
+        this.usedEdgeCount = usedEdges;
+    }
+
+    /**
+     * Derive the graph of the navmesh after some of its tiles changed. Only the changed tiles and their neighbours are
+     * read from the navmesh, the other nodes keep their numbers. Once more than half of the nodes or edges are unused
+     * the graph is built again from scratch.
+     *
+     * @param changedTiles the indices of the tiles added, removed or replaced since this graph was built
+     * @return a new graph, this one is not modified
+     */
+    public PolyGraph update(IntSet changedTiles) {
+        PolyGraph graph = new PolyGraph(navMesh, this, changedTiles);
+        if (graph.usedNodeCount * 2 < graph.nodeCount || graph.usedEdgeCount * 2 < graph.edgeTarget.length) {
+            return new PolyGraph(navMesh);
+        }
+        return graph;
+    }
+
+    private static boolean hasPolys(MeshTile tile) {
+        return tile != null && tile.data != null && tile.data.header != null;
+    }
+
+    private static void markNeighbours(NavMesh navMesh, int x, int y, boolean[] rebuild) {
+        for (int dy = -1; dy <= 1; dy++) {
+            for (int dx = -1; dx <= 1; dx++) {
+                for (MeshTile tile : navMesh.getTilesAt(x + dx, y + dy)) {
+                    rebuild[tile.index] = true;
+                }
+            }
+        }
+    }
+
+    private static void clearNodes(int from, int to, long[] refs, int[] polyFlags, int[] areas, int[] edgeStart,
+            int[] edgeEnd) {
+        for (int n = from; n < to; n++) {
+            refs[n] = 0;
+            polyFlags[n] = 0;
+            areas[n] = 0;
+            edgeStart[n] = 0;
+            edgeEnd[n] = 0;
+        }
+    }
+
+    /**
+     * Write the average of the polygon's vertices into {@code out} at {@code offset}.
+     */
+    static void polyCenter(MeshTile tile, Poly poly, float[] out, int offset) {
+        float x = 0, y = 0, z = 0;
+        for (int i = 0; i < poly.vertCount; i++) {
+            int v = poly.verts[i] * 3;
+            x += tile.data.verts[v];
+            y += tile.data.verts[v + 1];
+            z += tile.data.verts[v + 2];
+        }
+        float s = poly.vertCount > 0 ? 1f / poly.vertCount : 0;
+        out[offset] = x * s;
+        out[offset + 1] = y * s;
+        out[offset + 2] = z * s;
+    }
+
+    /**
+     * @return the index of the polygon in the tile if the ref belongs to the tile with the given ref base, else -1
+     */
+    static int localPoly(long ref, long base, int polyCount) {
+        long p = ref - base;
+        return p >= 0 && p < polyCount && (base | p) == ref ? (int) p : -1;
+    }
+
+    /**
+     * @return the node index of a polygon, -1 if the ref is not valid for the snapshot
+     */
+    public int node(long ref) {
+        return node(navMesh, tileBase, refs, ref);
+    }
+
+    private static int node(NavMesh navMesh, int[] tileBase, long[] refs, long ref) {
+        if (ref == 0) {
+            return -1;
+        }
+        Result<Tupple2<MeshTile, Poly>> tileAndPoly = navMesh.getTileAndPolyByRef(ref);
+        if (tileAndPoly.failed()) {
+            return -1;
+        }
+        int tileIndex = tileAndPoly.result.first.index;
+        if (tileIndex >= tileBase.length || tileBase[tileIndex] < 0) {
+            return -1;
+        }
+        int node = tileBase[tileIndex] + tileAndPoly.result.second.index;
+        return node < refs.length && refs[node] == ref ? node : -1;
+    }
+
+    public long ref(int node) {
+        return refs[node];
+    }
+
+    public NavMesh getNavMesh() {
+        return navMesh;
+    }
+
+    /**
+     * @return the number of node indices, including unused nodes
+     */
+    public int getNodeCount() {
+        return nodeCount;
+    }
+
+    /**
+     * @return the number of nodes that are polygons of the navmesh
+     */
+    public int getUsedNodeCount() {
+        return usedNodeCount;
+    }
+
+    /**
+     * @return false for nodes left unused by an {@link #update}
+     */
+    public boolean isUsed(int node) {
+        return refs[node] != 0;
+    }
+
+    /**
+     * @return the node index of the first polygon of a tile, -1 if the tile was empty when the graph was built or
+     * updated
+     */
+    public int getTileBase(int tileIndex) {
+        return tileBase[tileIndex];
+    }
+
+    public int getPolyFlags(int node) {
+        return polyFlags[node];
+    }
+
+    public int getArea(int node) {
+        return areas[node];
+    }
+
+    /**
+     * @return the packed [x,y,z] centers of the polygon outlines, indexed by {@code node * 3}
+     */
+    public float[] getCenters() {
+        return centers;
+    }
+
+    public int getEdgeStart(int node) {
+        return edgeStart[node];
+    }
+
+    public int getEdgeEnd(int node) {
+        return edgeEnd[node];
+    }
+
+    public int getEdgeTarget(int edge) {
+        return edgeTarget[edge];
+    }
+
+    /**
+     * @return the size of the edge index range, including edges left unused by an {@link #update}
+     */
+    public int getEdgeCount() {
+        return edgeTarget.length;
+    }
+
+    /**
+     * @return true if the node passes a filter with the given include and exclude flags, as Detour's default filter
+     */
+    public boolean passFlags(int node, int includeFlags, int excludeFlags) {
+        int flags = polyFlags[node];
+        return (flags & includeFlags) != 0 && (flags & excludeFlags) == 0;
+    }
+}
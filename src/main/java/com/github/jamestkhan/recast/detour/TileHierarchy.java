@@ -0,0 +1,525 @@
+package com.github.jamestkhan.recast.detour;
+
+import com.badlogic.gdx.utils.IntSet;
+import com.github.jamestkhan.recast.NavMeshData;
+import org.recast4j.detour.Link;
+import org.recast4j.detour.MeshTile;
+import org.recast4j.detour.NavMesh;
+import org.recast4j.detour.Poly;
+import org.recast4j.detour.QueryFilter;
+import org.recast4j.detour.Result;
+import org.recast4j.detour.Tupple2;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * An abstract graph over the tiles of a tiled navmesh, for narrowing long searches down to a corridor of tiles.
+ * <p>
+ * The nodes of the graph are the border polygons of each tile, the polygons linked to a polygon of another tile.
+ * Border polygons of the same tile are connected with the cost of the shortest path between them inside the tile,
+ * precomputed with Dijkstra over polygon centers, and border polygons of neighbouring tiles with the distance between
+ * their centers. A {@link CorridorSearch} searches this graph with A* from the start polygon to the end polygon and
+ * returns the tiles the route passes through; the detailed search then only has to expand the polygons of those
+ * tiles, see {@link CorridorFilter}. When a tile changes only that tile and its neighbours are rebuilt.
+ * </p>
+ * The graph is built for a single filter, it is only used for searches with that filter. Rebuilds are synchronized
+ * and publish the graph as an immutable snapshot, so searches do not lock. Each thread searches with its own
+ * {@link CorridorSearch}, tiles must not be changed while other threads are searching.
+ *
+ * @author JamesTKhan
+ * @version October 18, 2026
+ */
+public class TileHierarchy implements NavMeshData.Listener {
+    private final NavMeshData navMeshData;
+    private final QueryFilter filter;
+    private int minTileDistance = 3;
+
+    private volatile Graph graph = new Graph(null, new TileNode[0]);
+
+    // Only used by rebuilds, under the lock
+    private final CorridorSearch buildSearch = new CorridorSearch(this);
+
+    /**
+     * The precomputed part of a single tile.
+     */
+    private static final class TileNode {
+        int x, y, layer;
+        int polyCount;
+        /** Refs of the border polygons, in ascending order. */
+        long[] borderRefs;
+        /** Local polygon index of each border polygon. */
+        int[] borderPolys;
+        /** Packed [x,y,z] centers of every polygon of the tile. */
+        float[] polyCenters;
+        /** borderCount x borderCount matrix of costs inside the tile, infinite when not connected inside it. */
+        float[] costs;
+        /** For each border polygon, the range of its crossings into other tiles. */
+        int[] crossStart;
+        int[] crossTile;
+        long[] crossRef;
+
+        int borderCount() {
+            return borderRefs.length;
+        }
+
+        int border(long ref) {
+            int b = Arrays.binarySearch(borderRefs, ref);
+            return b >= 0 ? b : -1;
+        }
+    }
+
+    /**
+     * The tiles of a navmesh and the dense numbering of all their border polygons, never modified once published.
+     */
+    private static final class Graph {
+        final NavMesh navMesh;
+        final TileNode[] tiles;
+        final int[] borderBase;
+        final int[] nodeTile;
+        final int nodeCount;
+
+        Graph(NavMesh navMesh, TileNode[] tiles) {
+            this.navMesh = navMesh;
+            this.tiles = tiles;
+            borderBase = new int[tiles.length];
+            int count = 0;
+            for (int t = 0; t < tiles.length; t++) {
+                borderBase[t] = count;
+                if (tiles[t] != null) {
+                    count += tiles[t].borderCount();
+                }
+            }
+            nodeCount = count;
+            nodeTile = new int[count];
+            for (int t = 0; t < tiles.length; t++) {
+                if (tiles[t] != null) {
+                    Arrays.fill(nodeTile, borderBase[t], borderBase[t] + tiles[t].borderCount(), t);
+                }
+            }
+        }
+    }
+
+    /**
+     * @param navMeshData the tiled navmesh to build the graph for
+     * @param filter      the filter the graph is built for, it decides which polygons are traversable
+     */
+    public TileHierarchy(NavMeshData navMeshData, QueryFilter filter) {
+        this.navMeshData = navMeshData;
+        this.filter = filter;
+        navMeshData.addListener(this);
+        rebuild();
+    }
+
+    /**
+     * Searches the abstract graph of a {@link TileHierarchy} for the tiles a path should pass through. Always searches
+     * the latest graph of the hierarchy.
+     * <p>
+     * Not thread safe, the search state is kept in the instance.
+     */
+    public static class CorridorSearch {
+        private final TileHierarchy hierarchy;
+        private final NodeQueue open = new NodeQueue(64);
+        private final NodeQueue tileOpen = new NodeQueue(64);
+        private float[] g = new float[0];
+        private int[] parent = new int[0];
+        private int[] visited = new int[0];
+        private int stamp;
+        private float[] startCosts = new float[0];
+        private float[] goalCosts = new float[0];
+        private float[] polyDist = new float[0];
+
+        public CorridorSearch(TileHierarchy hierarchy) {
+            this.hierarchy = hierarchy;
+        }
+
+        public TileHierarchy getHierarchy() {
+            return hierarchy;
+        }
+
+        /**
+         * Find the tiles a path between two polygons should pass through.
+         *
+         * @param startRef the start polygon
+         * @param endRef   the end polygon
+         * @param endPos   the end position, used by the heuristic
+         * @param outTiles receives the indices of the corridor tiles, cleared first
+         * @return false if the polygons are closer than {@link #getMinTileDistance()} tiles or no route was found, in
+         * which case a regular search should be used
+         */
+        public boolean findCorridorTiles(long startRef, long endRef, float[] endPos, IntSet outTiles) {
+            outTiles.clear();
+            Graph graph = hierarchy.graph;
+            NavMesh navMesh = graph.navMesh;
+            if (navMesh == null) {
+                return false;
+            }
+            Result<Tupple2<MeshTile, Poly>> start = navMesh.getTileAndPolyByRef(startRef);
+            Result<Tupple2<MeshTile, Poly>> end = navMesh.getTileAndPolyByRef(endRef);
+            if (start.failed() || end.failed()) {
+                return false;
+            }
+            TileNode[] tiles = graph.tiles;
+            int[] borderBase = graph.borderBase;
+            int[] nodeTile = graph.nodeTile;
+            int nodeCount = graph.nodeCount;
+            int startTile = start.result.first.index;
+            int endTile = end.result.first.index;
+            TileNode ts = startTile < tiles.length ? tiles[startTile] : null;
+            TileNode te = endTile < tiles.length ? tiles[endTile] : null;
+            if (ts == null || te == null
+                    || Math.max(Math.abs(ts.x - te.x), Math.abs(ts.y - te.y)) < hierarchy.minTileDistance) {
+                return false;
+            }
+
+            // Costs from the start polygon to the borders of its tile, and from the borders of the end tile to the end
+            startCosts = borderCosts(navMesh, start.result.first, ts, start.result.second.index, startCosts);
+            goalCosts = borderCosts(navMesh, end.result.first, te, end.result.second.index, goalCosts);
+
+            int startNode = nodeCount;
+            int goalNode = nodeCount + 1;
+            if (g.length < nodeCount + 2) {
+                g = new float[nodeCount + 2];
+                parent = new int[nodeCount + 2];
+                visited = new int[nodeCount + 2];
+            }
+            open.reset(nodeCount + 2);
+            stamp++;
+            if (stamp == 0) {
+                Arrays.fill(visited, 0);
+                stamp = 1;
+            }
+
+            g[startNode] = 0;
+            parent[startNode] = -1;
+            visited[startNode] = stamp;
+            open.push(startNode, 0);
+            boolean found = false;
+            while (!open.isEmpty()) {
+                int n = open.pop();
+                if (n == goalNode) {
+                    found = true;
+                    break;
+                }
+                float gn = g[n];
+                if (n == startNode) {
+                    for (int b = 0; b < ts.borderCount(); b++) {
+                        relax(graph, n, borderBase[startTile] + b, gn + startCosts[b], endPos);
+                    }
+                    continue;
+                }
+                int t = nodeTile[n];
+                TileNode tile = tiles[t];
+                int b = n - borderBase[t];
+                int count = tile.borderCount();
+                if (t == endTile && goalCosts[b] < Float.POSITIVE_INFINITY) {
+                    relax(graph, n, goalNode, gn + goalCosts[b], endPos);
+                }
+                for (int c = 0; c < count; c++) {
+                    if (c != b) {
+                        relax(graph, n, borderBase[t] + c, gn + tile.costs[b * count + c], endPos);
+                    }
+                }
+                float[] centers = tile.polyCenters;
+                int pb = tile.borderPolys[b] * 3;
+                for (int i = tile.crossStart[b]; i < tile.crossStart[b + 1]; i++) {
+                    int nt = tile.crossTile[i];
+                    TileNode neighbour = nt < tiles.length ? tiles[nt] : null;
+                    int c = neighbour != null ? neighbour.border(tile.crossRef[i]) : -1;
+                    if (c < 0) {
+                        continue;
+                    }
+                    int pc = neighbour.borderPolys[c] * 3;
+                    float cost = dist(centers, pb, neighbour.polyCenters, pc);
+                    relax(graph, n, borderBase[nt] + c, gn + cost, endPos);
+                }
+            }
+            if (!found) {
+                return false;
+            }
+
+            outTiles.add(startTile);
+            outTiles.add(endTile);
+            for (int n = parent[goalNode]; n >= 0 && n != startNode; n = parent[n]) {
+                outTiles.add(nodeTile[n]);
+            }
+            return true;
+        }
+
+        private void relax(Graph graph, int from, int to, float cost, float[] endPos) {
+            if (cost == Float.POSITIVE_INFINITY) {
+                return;
+            }
+            if (visited[to] == stamp && cost >= g[to]) {
+                return;
+            }
+            visited[to] = stamp;
+            g[to] = cost;
+            parent[to] = from;
+            float h = 0;
+            if (to < graph.nodeCount) {
+                int t = graph.nodeTile[to];
+                TileNode tile = graph.tiles[t];
+                int p = tile.borderPolys[to - graph.borderBase[t]] * 3;
+                float dx = tile.polyCenters[p] - endPos[0];
+                float dy = tile.polyCenters[p + 1] - endPos[1];
+                float dz = tile.polyCenters[p + 2] - endPos[2];
+                h = (float) Math.sqrt(dx * dx + dy * dy + dz * dz);
+            }
+            open.push(to, cost + h);
+        }
+
+        /**
+         * Costs between a polygon and every border polygon of its tile, infinite when not connected inside the tile.
+         */
+        private float[] borderCosts(NavMesh navMesh, MeshTile tile, TileNode node, int poly, float[] out) {
+            if (out.length < node.borderCount()) {
+                out = new float[node.borderCount()];
+            }
+            dijkstra(navMesh, tile, node, poly);
+            for (int b = 0; b < node.borderCount(); b++) {
+                out[b] = polyDist[node.borderPolys[b]];
+            }
+            return out;
+        }
+
+        /**
+         * Dijkstra from a polygon over the polygons of its own tile, writing the distances into {@link #polyDist}.
+         */
+        private void dijkstra(NavMesh navMesh, MeshTile tile, TileNode node, int source) {
+            int n = node.polyCount;
+            if (polyDist.length < n) {
+                polyDist = new float[n];
+            }
+            Arrays.fill(polyDist, 0, n, Float.POSITIVE_INFINITY);
+            tileOpen.reset(n);
+            long base = navMesh.getPolyRefBase(tile);
+            float[] centers = node.polyCenters;
+            QueryFilter filter = hierarchy.filter;
+
+            polyDist[source] = 0;
+            tileOpen.push(source, 0);
+            while (!tileOpen.isEmpty()) {
+                int p = tileOpen.pop();
+                float d = polyDist[p];
+                for (int k = tile.polyLinks[p]; k != NavMesh.DT_NULL_LINK; k = tile.links.get(k).next) {
+                    Link link = tile.links.get(k);
+                    int q = PolyGraph.localPoly(link.ref, base, n);
+                    if (q < 0 || !filter.passFilter(link.ref, tile, tile.data.polys[q])) {
+                        continue;
+                    }
+                    float nd = d + dist(centers, p * 3, centers, q * 3);
+                    if (nd < polyDist[q]) {
+                        polyDist[q] = nd;
+                        tileOpen.push(q, nd);
+                    }
+                }
+            }
+        }
+    }
+
+    private static float dist(float[] a, int ai, float[] b, int bi) {
+        float dx = a[ai] - b[bi];
+        float dy = a[ai + 1] - b[bi + 1];
+        float dz = a[ai + 2] - b[bi + 2];
+        return (float) Math.sqrt(dx * dx + dy * dy + dz * dz);
+    }
+
+    private TileNode buildTile(NavMesh navMesh, int tileIndex) {
+        MeshTile tile = navMesh.getTile(tileIndex);
+        if (tile == null || tile.data == null || tile.data.header == null) {
+            return null;
+        }
+        TileNode node = new TileNode();
+        node.x = tile.data.header.x;
+        node.y = tile.data.header.y;
+        node.layer = tile.data.header.layer;
+        int n = tile.data.header.polyCount;
+        node.polyCount = n;
+        node.polyCenters = new float[n * 3];
+        long base = navMesh.getPolyRefBase(tile);
+
+        // Find the border polygons and count their crossings
+        int[] crossings = new int[n];
+        int borderCount = 0;
+        int crossCount = 0;
+        for (int p = 0; p < n; p++) {
+            Poly poly = tile.data.polys[p];
+            PolyGraph.polyCenter(tile, poly, node.polyCenters, p * 3);
+            if (!filter.passFilter(base | p, tile, poly)) {
+                continue;
+            }
+            for (int k = tile.polyLinks[p]; k != NavMesh.DT_NULL_LINK; k = tile.links.get(k).next) {
+                long ref = tile.links.get(k).ref;
+                if (ref != 0 && PolyGraph.localPoly(ref, base, n) < 0) {
+                    crossings[p]++;
+                }
+            }
+            if (crossings[p] > 0) {
+                borderCount++;
+                crossCount += crossings[p];
+            }
+        }
+
+        node.borderRefs = new long[borderCount];
+        node.borderPolys = new int[borderCount];
+        node.crossStart = new int[borderCount + 1];
+        node.crossTile = new int[crossCount];
+        node.crossRef = new long[crossCount];
+        int b = 0;
+        int c = 0;
+        for (int p = 0; p < n; p++) {
+            if (crossings[p] == 0) {
+                continue;
+            }
+            // Refs are the tile base or'ed with the polygon index, so they come out sorted
+            node.borderRefs[b] = base | p;
+            node.borderPolys[b] = p;
+            node.crossStart[b] = c;
+            for (int k = tile.polyLinks[p]; k != NavMesh.DT_NULL_LINK; k = tile.links.get(k).next) {
+                long ref = tile.links.get(k).ref;
+                if (ref == 0 || PolyGraph.localPoly(ref, base, n) >= 0) {
+                    continue;
+                }
+                Result<Tupple2<MeshTile, Poly>> other = navMesh.getTileAndPolyByRef(ref);
+                if (other.succeeded() && filter.passFilter(ref, other.result.first, other.result.second)) {
+                    node.crossTile[c] = other.result.first.index;
+                    node.crossRef[c] = ref;
+                    c++;
+                }
+            }
+            b++;
+        }
+        node.crossStart[borderCount] = c;
+
+        // Costs between every pair of border polygons inside the tile
+        node.costs = new float[borderCount * borderCount];
+        for (int i = 0; i < borderCount; i++) {
+            buildSearch.dijkstra(navMesh, tile, node, node.borderPolys[i]);
+            for (int j = 0; j < borderCount; j++) {
+                node.costs[i * borderCount + j] = buildSearch.polyDist[node.borderPolys[j]];
+            }
+        }
+        return node;
+    }
+
+    private synchronized void rebuild() {
+        NavMesh navMesh = navMeshData.getNavMesh();
+        if (navMesh == null) {
+            graph = new Graph(null, new TileNode[0]);
+            return;
+        }
+        TileNode[] tiles = new TileNode[navMesh.getMaxTiles()];
+        for (int t = 0; t < tiles.length; t++) {
+            tiles[t] = buildTile(navMesh, t);
+        }
+        graph = new Graph(navMesh, tiles);
+    }
+
+    /**
+     * Rebuild a tile and every tile around it, both where the tile was and where it is now.
+     */
+    private synchronized void rebuildAround(int tileIndex) {
+        NavMesh navMesh = graph.navMesh;
+        if (navMesh == null || navMesh != navMeshData.getNavMesh()) {
+            rebuild();
+            return;
+        }
+        TileNode[] tiles = graph.tiles.clone();
+        IntSet dirty = new IntSet();
+        dirty.add(tileIndex);
+        TileNode old = tiles[tileIndex];
+        if (old != null) {
+            addNeighbours(navMesh, old.x, old.y, dirty);
+        }
+        MeshTile tile = navMesh.getTile(tileIndex);
+        if (tile != null && tile.data != null && tile.data.header != null) {
+            addNeighbours(navMesh, tile.data.header.x, tile.data.header.y, dirty);
+        }
+        IntSet.IntSetIterator iterator = dirty.iterator();
+        while (iterator.hasNext) {
+            int t = iterator.next();
+            tiles[t] = buildTile(navMesh, t);
+        }
+        graph = new Graph(navMesh, tiles);
+    }
+
+    private static void addNeighbours(NavMesh navMesh, int x, int y, IntSet out) {
+        for (int dy = -1; dy <= 1; dy++) {
+            for (int dx = -1; dx <= 1; dx++) {
+                List<MeshTile> at = navMesh.getTilesAt(x + dx, y + dy);
+                for (MeshTile tile : at) {
+                    out.add(tile.index);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void navMeshChanged(NavMeshData navMeshData) {
+        rebuild();
+    }
+
+    @Override
+    public void tileChanged(NavMeshData navMeshData, int tileIndex) {
+        rebuildAround(tileIndex);
+    }
+
+    /**
+     * Stop following changes of the navmesh data.
+     */
+    public void dispose() {
+        navMeshData.removeListener(this);
+    }
+
+    public QueryFilter getFilter() {
+        return filter;
+    }
+
+    /**
+     * @return the number of border polygons in the abstract graph
+     */
+    public int getNodeCount() {
+        return graph.nodeCount;
+    }
+
+    public int getMinTileDistance() {
+        return minTileDistance;
+    }
+
+    /**
+     * @param minTileDistance the distance in tiles, along x or z, from which {@link CorridorSearch#findCorridorTiles}
+     *                        searches the abstract graph. Closer queries are cheap enough for a regular search.
+     */
+    public void setMinTileDistance(int minTileDistance) {
+        this.minTileDistance = minTileDistance;
+    }
+
+    /**
+     * A filter that delegates to another one but only passes polygons of the corridor tiles.
+     */
+    public static class CorridorFilter implements QueryFilter {
+        private final IntSet tiles = new IntSet();
+        private QueryFilter delegate;
+
+        public IntSet getTiles() {
+            return tiles;
+        }
+
+        public void setDelegate(QueryFilter delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public boolean passFilter(long ref, MeshTile tile, Poly poly) {
+            return tiles.contains(tile.index) && delegate.passFilter(ref, tile, poly);
+        }
+
+        @Override
+        public float getCost(float[] pa, float[] pb, long prevRef, MeshTile prevTile, Poly prevPoly, long curRef,
+                MeshTile curTile, Poly curPoly, long nextRef, MeshTile nextTile, Poly nextPoly) {
+            return delegate.getCost(pa, pb, prevRef, prevTile, prevPoly, curRef, curTile, curPoly, nextRef, nextTile,
+                    nextPoly);
+        }
+    }
+}
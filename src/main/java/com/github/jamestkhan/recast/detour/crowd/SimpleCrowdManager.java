@@ -1,20 +1,25 @@
 package com.github.jamestkhan.recast.detour.crowd;
 
 import com.badlogic.gdx.math.Vector3;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.ObjectMap;
 import com.github.jamestkhan.recast.NavMeshData;
 import com.github.jamestkhan.recast.builders.SampleAreaModifications;
+import com.github.jamestkhan.recast.detour.FlowField;
+import com.github.jamestkhan.recast.detour.PolyGraph;
 import org.recast4j.detour.DefaultQueryFilter;
-import org.recast4j.detour.FindNearestPolyResult;
 import org.recast4j.detour.NavMesh;
 import org.recast4j.detour.NavMeshQuery;
 import org.recast4j.detour.QueryFilter;
-import org.recast4j.detour.Result;
 import org.recast4j.detour.crowd.Crowd;
 import org.recast4j.detour.crowd.CrowdAgent;
 import org.recast4j.detour.crowd.CrowdAgentParams;
 import org.recast4j.detour.crowd.CrowdConfig;
 import org.recast4j.detour.crowd.ObstacleAvoidanceQuery;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import static com.github.jamestkhan.recast.utils.PathUtils.vectorToFloatArray;
 
 /**
@@ -27,8 +32,12 @@ public class SimpleCrowdManager implements CrowdManager {
     private Crowd crowd;
     private final CrowdConfig config;
     private final NavMeshData navMeshData;
+    private final ObjectMap<CrowdAgent, GroupMember> groupMoves = new ObjectMap<>();
+    private final Array<GroupMove> tmpGroups = new Array<>();
 
     protected final float[] tmpPos = new float[3];
+    protected final float[] tmpTarget = new float[3];
+    private final List<Long> tmpPath = new ArrayList<>();
 
     public SimpleCrowdManager(NavMeshData navMeshData, CrowdConfig crowdConfig) {
         this.navMeshData = navMeshData;
@@ -81,6 +90,7 @@ public class SimpleCrowdManager implements CrowdManager {
         NavMesh nav = navMeshData.getNavMesh();
         if (nav == null) return;
 
+        updateGroupMoves();
         crowd.update(deltaTime, null);
     }
 
@@ -99,6 +109,51 @@ public class SimpleCrowdManager implements CrowdManager {
     public void setAgentMoveTarget(CrowdAgent agent, Vector3 moveTarget) {
         if (agent == null) return;
 
+        groupMoves.remove(agent);
+        long targetRef = findTarget(moveTarget);
+        if (targetRef == 0) return;
+        crowd.requestMoveTarget(agent, targetRef, tmpTarget);
+    }
+
+    /**
+     * Move many agents to the same target with a single search.
+     * <p>
+     * A {@link FlowField} is built towards the target and every agent of the group is handed the corridor the field's
+     * next hops lead along from its polygon, so the crowd steers and smooths it without a path search of its own.
+     * When a navmesh change renumbers the polygon graph the field is rebuilt and the corridors are handed out again.
+     * Agents leave the group once they reach the target polygon. An agent whose polygon can not reach the target gets
+     * a regular move request instead, which the crowd searches for.
+     * </p>
+     *
+     * @param agents     the agents to move
+     * @param moveTarget the shared target
+     * @return the flow field of the group, null if the target is not on the navmesh
+     */
+    public FlowField setGroupMoveTarget(Array<CrowdAgent> agents, Vector3 moveTarget) {
+        long targetRef = findTarget(moveTarget);
+        if (targetRef == 0) return null;
+
+        PolyGraph graph = navMeshData.getIslandIndex().getGraph();
+        if (graph == null) return null;
+        GroupMove group = new GroupMove();
+        System.arraycopy(tmpTarget, 0, group.target, 0, 3);
+        group.field = new FlowField(graph);
+        if (!group.field.build(targetRef, group.target, crowd.getFilter(0))) return null;
+
+        for (CrowdAgent agent : agents) {
+            if (agent == null) continue;
+            groupMoves.put(agent, new GroupMember(group));
+        }
+        updateGroupMoves();
+        return group.field;
+    }
+
+    /**
+     * Find the nearest point on the navmesh to a target, into {@link #tmpTarget}.
+     *
+     * @return the polygon of the point, 0 if none was found
+     */
+    private long findTarget(Vector3 moveTarget) {
         vectorToFloatArray(moveTarget, tmpPos);
 
         // Find nearest point on navmesh and set move request to that location.
@@ -106,13 +161,81 @@ public class SimpleCrowdManager implements CrowdManager {
         QueryFilter filter = crowd.getFilter(0);
         float[] halfExtents = crowd.getQueryExtents();
 
-        Result<FindNearestPolyResult> result = navquery.findNearestPoly(tmpPos, halfExtents, filter);
-        long targetRef = result.result.getNearestRef();
-        float[] targetPos = result.result.getNearestPos();
-        crowd.requestMoveTarget(agent, targetRef, targetPos);
+        return navMeshData.getNearestPolyCache().findNearestPoly(navquery, tmpPos, halfExtents, filter, tmpTarget);
+    }
+
+    private void updateGroupMoves() {
+        if (groupMoves.size == 0) return;
+
+        // Tile changes renumber the polygon graph, rebuild the fields of the groups still moving
+        PolyGraph graph = navMeshData.getIslandIndex().getGraph();
+        tmpGroups.clear();
+        for (GroupMember member : groupMoves.values()) {
+            GroupMove group = member.group;
+            if (group.field != null && group.field.getGraph() != graph && !tmpGroups.contains(group, true)) {
+                tmpGroups.add(group);
+            }
+        }
+        for (GroupMove group : tmpGroups) {
+            FlowField field = null;
+            if (graph != null) {
+                long targetRef = navMeshData.getNearestPolyCache().findNearestPoly(navMeshData.getNavMeshQuery(),
+                        group.target, crowd.getQueryExtents(), crowd.getFilter(0), tmpTarget);
+                field = new FlowField(graph);
+                if (targetRef == 0 || !field.build(targetRef, tmpTarget, crowd.getFilter(0))) {
+                    field = null;
+                }
+            }
+            group.field = field;
+        }
+
+        ObjectMap.Entries<CrowdAgent, GroupMember> entries = groupMoves.entries();
+        while (entries.hasNext()) {
+            ObjectMap.Entry<CrowdAgent, GroupMember> entry = entries.next();
+            CrowdAgent agent = entry.key;
+            GroupMember member = entry.value;
+            FlowField field = member.group.field;
+            if (field == null) {
+                entries.remove();
+                continue;
+            }
+            long firstRef = agent.corridor.getFirstPoly();
+            if (member.field != field) {
+                member.field = field;
+                if (!field.getCorridor(firstRef, tmpPath)) {
+                    crowd.requestMoveTarget(agent, field.getGoalRef(), field.getGoalPos());
+                    entries.remove();
+                    continue;
+                }
+                setCorridor(agent, field.getGoalRef(), field.getGoalPos(), tmpPath);
+            }
+            if (firstRef == field.getGoalRef()) {
+                // The crowd takes it from here
+                entries.remove();
+            }
+        }
+    }
+
+    /**
+     * Hand an agent a path that is already known, as if the crowd had searched for it.
+     */
+    private static void setCorridor(CrowdAgent agent, long targetRef, float[] targetPos, List<Long> path) {
+        agent.corridor.setCorridor(targetPos, new ArrayList<>(path));
+        agent.targetRef = targetRef;
+        System.arraycopy(targetPos, 0, agent.targetPos, 0, 3);
+        agent.targetState = CrowdAgent.MoveRequestState.DT_CROWDAGENT_TARGET_VALID;
+    }
+
+    /**
+     * @return true while the agent follows the flow field of a group move, false once it reached the target polygon,
+     * was given another target, removed, or its group lost its field to a navmesh change
+     */
+    public boolean isGroupMoving(CrowdAgent agent) {
+        return groupMoves.containsKey(agent);
     }
 
     public void removeAgent(CrowdAgent agent) {
+        groupMoves.remove(agent);
         crowd.removeAgent(agent);
     }
 
@@ -155,4 +278,19 @@ public class SimpleCrowdManager implements CrowdManager {
         return ap;
     }
 
+    private static final class GroupMove {
+        final float[] target = new float[3];
+        FlowField field;
+    }
+
+    private static final class GroupMember {
+        final GroupMove group;
+        /** The field the agent's corridor was built from. */
+        FlowField field;
+
+        GroupMember(GroupMove group) {
+            this.group = group;
+        }
+    }
+
 }
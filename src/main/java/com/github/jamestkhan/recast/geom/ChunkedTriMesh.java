@@ -0,0 +1,73 @@
+package com.github.jamestkhan.recast.geom;
+
+import org.recast4j.recast.geom.ChunkyTriMesh.ChunkyTriMeshNode;
+import org.recast4j.recast.geom.TriMesh;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A {@link TriMesh} backed by an existing {@link ChunkyTriMesh}, so Recast queries the chunk tree the input geometry
+ * already has instead of building its own.
+ * <p>
+ * Recast's TriMesh builds a chunk tree in its constructor, so this passes it a single placeholder triangle and
+ * overrides the accessors Recast uses. The chunks handed to Recast are created the first time a tile overlaps them and
+ * reused afterwards. Thread safe, tiles may be rasterized in parallel.
+ * </p>
+ *
+ * @author JamesTKhan
+ * @version October 18, 2026
+ */
+public class ChunkedTriMesh extends TriMesh {
+    private final float[] vertices;
+    private final int[] faces;
+    private final ChunkyTriMesh chunkyTriMesh;
+    private final ChunkyTriMeshNode[] chunks;
+
+    /**
+     * @param vertices      the packed [x,y,z] vertices
+     * @param faces         the vertex indices of the triangles
+     * @param chunkyTriMesh the chunk tree built over the faces
+     */
+    public ChunkedTriMesh(float[] vertices, int[] faces, ChunkyTriMesh chunkyTriMesh) {
+        super(new float[9], new int[] { 0, 1, 2 });
+        this.vertices = vertices;
+        this.faces = faces;
+        this.chunkyTriMesh = chunkyTriMesh;
+        this.chunks = new ChunkyTriMeshNode[chunkyTriMesh.getNodeCount()];
+    }
+
+    @Override
+    public float[] getVerts() {
+        return vertices;
+    }
+
+    @Override
+    public int[] getTris() {
+        return faces;
+    }
+
+    @Override
+    public List<ChunkyTriMeshNode> getChunksOverlappingRect(float[] bmin, float[] bmax) {
+        List<ChunkyTriMeshNode> overlapping = new ArrayList<>();
+        chunkyTriMesh.forEachChunkOverlappingRect(bmin, bmax, node -> overlapping.add(chunk(node)));
+        return overlapping;
+    }
+
+    private synchronized ChunkyTriMeshNode chunk(int node) {
+        ChunkyTriMeshNode chunk = chunks[node];
+        if (chunk == null) {
+            // Recast only reads the triangles of the chunks it is given
+            chunk = new ChunkyTriMeshNode();
+            int start = chunkyTriMesh.getNodeTriStart(node) * 3;
+            chunk.tris = new int[chunkyTriMesh.getNodeTriCount(node) * 3];
+            System.arraycopy(chunkyTriMesh.getTris(), start, chunk.tris, 0, chunk.tris.length);
+            chunks[node] = chunk;
+        }
+        return chunk;
+    }
+
+    public ChunkyTriMesh getChunkyTriMesh() {
+        return chunkyTriMesh;
+    }
+}
@@ -18,19 +18,39 @@ freely, subject to the following restrictions:
 */
 package com.github.jamestkhan.recast.geom;
 
+import com.github.jamestkhan.recast.utils.BatchExecutor;
+
 import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.Comparator;
 import java.util.List;
 
+/**
+ * A bounding volume tree over the xz bounds of a triangle mesh, for finding the triangles overlapping an area.
+ * <p>
+ * The tree is stored flat: triangle bounds in a single float array while building, node bounds, triangle ranges and
+ * escape indices in parallel primitive arrays, and the triangles of all leaves in one index array ordered by leaf.
+ * Nodes are stored depth first, a leaf's index is positive and an inner node's index is the negated index of the
+ * node following its subtree.
+ * </p>
+ * Given a {@link BatchExecutor} the build runs in parallel: subtrees, sorts and bounds of more than
+ * {@link #PARALLEL_THRESHOLD} triangles are split into subtasks. Every subtree writes to node slots computed up front
+ * from its triangle count, so the tree is identical to a serial build.
+ */
 public class ChunkyTriMesh {
 
-    private static class BoundsItem {
-        private final float[] bmin = new float[2];
-        private final float[] bmax = new float[2];
-        private int i;
+    /**
+     * Receives the leaves found by a query, without allocating.
+     */
+    public interface ChunkVisitor {
+        /**
+         * @param node the leaf, its triangles are {@link #getNodeTriCount(int)} triangles of {@link #getTris()}
+         *             starting at {@link #getNodeTriStart(int)}
+         */
+        void visit(int node);
     }
 
+    /**
+     * A view of a leaf of the tree, created on first use by the list based queries.
+     */
     public static class ChunkyTriMeshNode {
         private final float[] bmin = new float[2];
         private final float[] bmax = new float[2];
@@ -38,221 +58,400 @@ public class ChunkyTriMesh {
         public int[] tris;
     }
 
-    private static class CompareItemX implements Comparator<BoundsItem> {
-        @Override
-        public int compare(BoundsItem a, BoundsItem b) {
-            return Float.compare(a.bmin[0], b.bmin[0]);
-        }
-    }
+    /** Ranges of at least this many triangles are split into parallel subtasks. */
+    public static final int PARALLEL_THRESHOLD = 4096;
+
+    final int ntris;
+    final int trisPerChunk;
+    final int maxTrisPerChunk;
+    final int nodeCount;
+    /** Per node [minX, minZ, maxX, maxZ]. */
+    final float[] nodeBounds;
+    /** Per node, positive for leaves, the negated index of the node after the subtree for inner nodes. */
+    final int[] nodeIndex;
+    /** Per node, the first triangle of the node in {@link #tris}. */
+    final int[] nodeTriStart;
+    /** Per node, the number of triangles of the node. */
+    final int[] nodeTriCount;
+    /** The vertex indices of the triangles of every leaf, in leaf order. */
+    final int[] tris;
+    private ChunkyTriMeshNode[] views;
 
-    private static class CompareItemY implements Comparator<BoundsItem> {
-        @Override
-        public int compare(BoundsItem a, BoundsItem b) {
-            return Float.compare(a.bmin[1], b.bmin[1]);
-        }
+    public ChunkyTriMesh(float[] verts, int[] tris, int ntris, int trisPerChunk) {
+        this(verts, tris, ntris, trisPerChunk, null);
     }
 
-    List<ChunkyTriMeshNode> nodes;
-    int ntris;
-    int maxTrisPerChunk;
-
-    private void calcExtends(BoundsItem[] items, int imin, int imax, float[] bmin, float[] bmax) {
-        bmin[0] = items[imin].bmin[0];
-        bmin[1] = items[imin].bmin[1];
+    /**
+     * @param executor the executor to build in parallel on, null to build on the calling thread
+     */
+    public ChunkyTriMesh(final float[] verts, final int[] tris, int ntris, int trisPerChunk, BatchExecutor executor) {
+        this.ntris = ntris;
+        this.trisPerChunk = trisPerChunk;
+
+        // Calc triangle XZ bounds.
+        final float[] bounds = new float[ntris * 4];
+        final int[] items = new int[ntris];
+        run(executor, ntris, (from, to) -> {
+            for (int i = from; i < to; i++) {
+                int t = i * 3;
+                int b = i * 4;
+                items[i] = i;
+                bounds[b] = bounds[b + 2] = verts[tris[t] * 3];
+                bounds[b + 1] = bounds[b + 3] = verts[tris[t] * 3 + 2];
+                for (int j = 1; j < 3; ++j) {
+                    int v = tris[t + j] * 3;
+                    bounds[b] = Math.min(bounds[b], verts[v]);
+                    bounds[b + 1] = Math.min(bounds[b + 1], verts[v + 2]);
+                    bounds[b + 2] = Math.max(bounds[b + 2], verts[v]);
+                    bounds[b + 3] = Math.max(bounds[b + 3], verts[v + 2]);
+                }
+            }
+        });
 
-        bmax[0] = items[imin].bmax[0];
-        bmax[1] = items[imin].bmax[1];
+        // Build tree
+        nodeCount = ntris > 0 ? countNodes(ntris, trisPerChunk) : 0;
+        nodeBounds = new float[nodeCount * 4];
+        nodeIndex = new int[nodeCount];
+        nodeTriStart = new int[nodeCount];
+        nodeTriCount = new int[nodeCount];
+        if (ntris > 0) {
+            subdivide(bounds, items, new int[ntris], 0, ntris, trisPerChunk, 0, executor);
+        }
 
-        for (int i = imin + 1; i < imax; ++i) {
-            BoundsItem it = items[i];
-            if (it.bmin[0] < bmin[0]) {
-                bmin[0] = it.bmin[0];
-            }
-            if (it.bmin[1] < bmin[1]) {
-                bmin[1] = it.bmin[1];
+        // Copy triangles in leaf order.
+        final int[] leafTris = this.tris = new int[ntris * 3];
+        run(executor, ntris, (from, to) -> {
+            for (int i = from; i < to; i++) {
+                System.arraycopy(tris, items[i] * 3, leafTris, i * 3, 3);
             }
+        });
 
-            if (it.bmax[0] > bmax[0]) {
-                bmax[0] = it.bmax[0];
+        // Calc max tris per node.
+        int max = 0;
+        for (int n = 0; n < nodeCount; n++) {
+            if (nodeIndex[n] >= 0) {
+                max = Math.max(max, nodeTriCount[n]);
             }
-            if (it.bmax[1] > bmax[1]) {
-                bmax[1] = it.bmax[1];
+        }
+        maxTrisPerChunk = max;
+    }
+
+    /**
+     * Restore a tree from its arrays, see {@link GeomSnapshot}.
+     */
+    ChunkyTriMesh(int ntris, int trisPerChunk, float[] nodeBounds, int[] nodeIndex, int[] nodeTriStart,
+            int[] nodeTriCount, int[] tris) {
+        this.ntris = ntris;
+        this.trisPerChunk = trisPerChunk;
+        this.nodeCount = nodeIndex.length;
+        this.nodeBounds = nodeBounds;
+        this.nodeIndex = nodeIndex;
+        this.nodeTriStart = nodeTriStart;
+        this.nodeTriCount = nodeTriCount;
+        this.tris = tris;
+        int max = 0;
+        for (int n = 0; n < nodeCount; n++) {
+            if (nodeIndex[n] >= 0) {
+                max = Math.max(max, nodeTriCount[n]);
             }
         }
+        maxTrisPerChunk = max;
     }
 
-    private int longestAxis(float x, float y) {
-        return y > x ? 1 : 0;
+    /**
+     * @return the number of nodes of the subtree over {@code inum} triangles
+     */
+    static int countNodes(int inum, int trisPerChunk) {
+        if (inum <= trisPerChunk) {
+            return 1;
+        }
+        int half = inum / 2;
+        return 1 + countNodes(half, trisPerChunk) + countNodes(inum - half, trisPerChunk);
     }
 
-    private void subdivide(BoundsItem[] items, int imin, int imax, int trisPerChunk, List<ChunkyTriMeshNode> nodes,
-            int[] inTris) {
-        int inum = imax - imin;
+    private static void run(BatchExecutor executor, int count, BatchExecutor.RangeTask task) {
+        if (executor == null || count < PARALLEL_THRESHOLD) {
+            task.run(0, count);
+        } else {
+            executor.run(0, count, Math.max(PARALLEL_THRESHOLD, count / (executor.getParallelism() * 4)), task);
+        }
+    }
 
-        ChunkyTriMeshNode node = new ChunkyTriMeshNode();
-        nodes.add(node);
+    private void subdivide(final float[] bounds, final int[] items, final int[] tmp, final int imin, final int imax,
+            final int trisPerChunk, final int node, final BatchExecutor executor) {
+        int inum = imax - imin;
+        calcExtends(bounds, items, imin, imax, nodeBounds, node * 4, executor);
+        nodeTriStart[node] = imin;
+        nodeTriCount[node] = inum;
 
         if (inum <= trisPerChunk) {
             // Leaf
-            calcExtends(items, imin, imax, node.bmin, node.bmax);
-
-            // Copy triangles.
-            node.i = nodes.size();
-            node.tris = new int[inum * 3];
-
-            int dst = 0;
-            for (int i = imin; i < imax; ++i) {
-                int src = items[i].i * 3;
-                node.tris[dst++] = inTris[src];
-                node.tris[dst++] = inTris[src + 1];
-                node.tris[dst++] = inTris[src + 2];
-            }
-        } else {
-            // Split
-            calcExtends(items, imin, imax, node.bmin, node.bmax);
-
-            int axis = longestAxis(node.bmax[0] - node.bmin[0], node.bmax[1] - node.bmin[1]);
+            nodeIndex[node] = node + 1;
+            return;
+        }
 
-            if (axis == 0) {
-                Arrays.sort(items, imin, imax, new CompareItemX());
-                // Sort along x-axis
-            } else if (axis == 1) {
-                Arrays.sort(items, imin, imax, new CompareItemY());
-                // Sort along y-axis
-            }
+        // Split
+        int b = node * 4;
+        int axis = longestAxis(nodeBounds[b + 2] - nodeBounds[b], nodeBounds[b + 3] - nodeBounds[b + 1]);
+        // Sort along the x or z axis, stable like the object sort it replaces so splits are unchanged
+        sort(bounds, axis, items, tmp, imin, imax, executor);
 
-            int isplit = imin + inum / 2;
+        final int isplit = imin + inum / 2;
+        // The left subtree follows its parent, the right one follows the left subtree
+        final int right = node + 1 + countNodes(isplit - imin, trisPerChunk);
 
+        if (executor != null && inum >= PARALLEL_THRESHOLD) {
+            executor.invokeAll(
+                    () -> subdivide(bounds, items, tmp, imin, isplit, trisPerChunk, node + 1, executor),
+                    () -> subdivide(bounds, items, tmp, isplit, imax, trisPerChunk, right, executor));
+        } else {
             // Left
-            subdivide(items, imin, isplit, trisPerChunk, nodes, inTris);
+            subdivide(bounds, items, tmp, imin, isplit, trisPerChunk, node + 1, null);
             // Right
-            subdivide(items, isplit, imax, trisPerChunk, nodes, inTris);
-
-            // Negative index means escape.
-            node.i = -nodes.size();
+            subdivide(bounds, items, tmp, isplit, imax, trisPerChunk, right, null);
         }
+
+        // Negative index means escape.
+        nodeIndex[node] = -(right + countNodes(imax - isplit, trisPerChunk));
     }
 
-    public ChunkyTriMesh(float[] verts, int[] tris, int ntris, int trisPerChunk) {
-        int nchunks = (ntris + trisPerChunk - 1) / trisPerChunk;
+    private static void calcExtends(final float[] bounds, final int[] items, final int imin, final int imax,
+            float[] out, int o, BatchExecutor executor) {
+        if (executor != null && imax - imin >= PARALLEL_THRESHOLD) {
+            final int mid = (imin + imax) >>> 1;
+            final float[] left = new float[4];
+            final float[] right = new float[4];
+            executor.invokeAll(() -> calcExtends(bounds, items, imin, mid, left, 0, executor),
+                    () -> calcExtends(bounds, items, mid, imax, right, 0, executor));
+            out[o] = Math.min(left[0], right[0]);
+            out[o + 1] = Math.min(left[1], right[1]);
+            out[o + 2] = Math.max(left[2], right[2]);
+            out[o + 3] = Math.max(left[3], right[3]);
+            return;
+        }
 
-        nodes = new ArrayList<>(nchunks);
-        this.ntris = ntris;
+        int b = items[imin] * 4;
+        out[o] = bounds[b];
+        out[o + 1] = bounds[b + 1];
+        out[o + 2] = bounds[b + 2];
+        out[o + 3] = bounds[b + 3];
+        for (int i = imin + 1; i < imax; ++i) {
+            b = items[i] * 4;
+            if (bounds[b] < out[o]) {
+                out[o] = bounds[b];
+            }
+            if (bounds[b + 1] < out[o + 1]) {
+                out[o + 1] = bounds[b + 1];
+            }
+            if (bounds[b + 2] > out[o + 2]) {
+                out[o + 2] = bounds[b + 2];
+            }
+            if (bounds[b + 3] > out[o + 3]) {
+                out[o + 3] = bounds[b + 3];
+            }
+        }
+    }
 
-        // Build tree
-        BoundsItem[] items = new BoundsItem[ntris];
-
-        for (int i = 0; i < ntris; i++) {
-            int t = i * 3;
-            BoundsItem it = items[i] = new BoundsItem();
-            it.i = i;
-            // Calc triangle XZ bounds.
-            it.bmin[0] = it.bmax[0] = verts[tris[t] * 3 + 0];
-            it.bmin[1] = it.bmax[1] = verts[tris[t] * 3 + 2];
-            for (int j = 1; j < 3; ++j) {
-                int v = tris[t + j] * 3;
-                if (verts[v] < it.bmin[0]) {
-                    it.bmin[0] = verts[v];
-                }
-                if (verts[v + 2] < it.bmin[1]) {
-                    it.bmin[1] = verts[v + 2];
-                }
+    private static int longestAxis(float x, float y) {
+        return y > x ? 1 : 0;
+    }
 
-                if (verts[v] > it.bmax[0]) {
-                    it.bmax[0] = verts[v];
-                }
-                if (verts[v + 2] > it.bmax[1]) {
-                    it.bmax[1] = verts[v + 2];
+    static void sort(float[] bounds, int axis, int[] items, int[] tmp, int from, int to) {
+        sort(bounds, axis, items, tmp, from, to, null);
+    }
+
+    /**
+     * Stable merge sort of items[from, to) by the minimum bound of the items on an axis, the halves of large ranges
+     * are sorted in parallel. The splits do not depend on the executor so the order is the same either way.
+     */
+    static void sort(final float[] bounds, final int axis, final int[] items, final int[] tmp, final int from,
+            final int to, final BatchExecutor executor) {
+        if (to - from < 16) {
+            // Insertion sort, stable since equal keys are never moved past each other
+            for (int i = from + 1; i < to; i++) {
+                int item = items[i];
+                float key = bounds[item * 4 + axis];
+                int j = i - 1;
+                while (j >= from && Float.compare(bounds[items[j] * 4 + axis], key) > 0) {
+                    items[j + 1] = items[j];
+                    j--;
                 }
+                items[j + 1] = item;
             }
+            return;
+        }
+        final int mid = (from + to) >>> 1;
+        if (executor != null && to - from >= PARALLEL_THRESHOLD) {
+            executor.invokeAll(() -> sort(bounds, axis, items, tmp, from, mid, executor),
+                    () -> sort(bounds, axis, items, tmp, mid, to, executor));
+        } else {
+            sort(bounds, axis, items, tmp, from, mid, null);
+            sort(bounds, axis, items, tmp, mid, to, null);
+        }
+        if (Float.compare(bounds[items[mid - 1] * 4 + axis], bounds[items[mid] * 4 + axis]) <= 0) {
+            return;
+        }
+        System.arraycopy(items, from, tmp, from, to - from);
+        int i = from, j = mid, k = from;
+        while (i < mid && j < to) {
+            items[k++] = Float.compare(bounds[tmp[j] * 4 + axis], bounds[tmp[i] * 4 + axis]) < 0 ? tmp[j++] : tmp[i++];
+        }
+        while (i < mid) {
+            items[k++] = tmp[i++];
+        }
+        while (j < to) {
+            items[k++] = tmp[j++];
         }
+    }
 
-        subdivide(items, 0, ntris, trisPerChunk, nodes, tris);
+    public List<ChunkyTriMeshNode> getChunksOverlappingRect(float[] bmin, float[] bmax) {
+        List<ChunkyTriMeshNode> ids = new ArrayList<>();
+        forEachChunkOverlappingRect(bmin, bmax, node -> ids.add(view(node)));
+        return ids;
+    }
 
-        // Calc max tris per node.
-        maxTrisPerChunk = 0;
-        for (ChunkyTriMeshNode node : nodes) {
-            boolean isLeaf = node.i >= 0;
-            if (!isLeaf) {
-                continue;
+    /**
+     * Visit every leaf whose xz bounds overlap a rectangle, in tree order.
+     *
+     * @param bmin the [x,z] minimum of the rectangle
+     * @param bmax the [x,z] maximum of the rectangle
+     */
+    public void forEachChunkOverlappingRect(float[] bmin, float[] bmax, ChunkVisitor visitor) {
+        // Traverse tree
+        int i = 0;
+        while (i < nodeCount) {
+            boolean overlap = checkOverlapRect(bmin, bmax, i);
+            boolean isLeafNode = nodeIndex[i] >= 0;
+
+            if (isLeafNode && overlap) {
+                visitor.visit(i);
             }
-            if (node.tris.length / 3 > maxTrisPerChunk) {
-                maxTrisPerChunk = node.tris.length / 3;
+
+            if (overlap || isLeafNode) {
+                i++;
+            } else {
+                i = -nodeIndex[i];
             }
         }
-
     }
 
-    public List<ChunkyTriMeshNode> getChunksOverlappingRect(float[] bmin, float[] bmax) {
+    /**
+     * Find the leaves whose xz bounds overlap a rectangle, in tree order.
+     *
+     * @param out receives the leaf node indices, as many as fit
+     * @return the number of overlapping leaves, larger than the length of out if not all of them fit
+     */
+    public int getChunksOverlappingRect(float[] bmin, float[] bmax, int[] out) {
         // Traverse tree
-        List<ChunkyTriMeshNode> ids = new ArrayList<>();
+        int count = 0;
         int i = 0;
-        while (i < nodes.size()) {
-            ChunkyTriMeshNode node = nodes.get(i);
-            boolean overlap = checkOverlapRect(bmin, bmax, node.bmin, node.bmax);
-            boolean isLeafNode = node.i >= 0;
+        while (i < nodeCount) {
+            boolean overlap = checkOverlapRect(bmin, bmax, i);
+            boolean isLeafNode = nodeIndex[i] >= 0;
 
             if (isLeafNode && overlap) {
-                ids.add(node);
+                if (count < out.length) {
+                    out[count] = i;
+                }
+                count++;
             }
 
             if (overlap || isLeafNode) {
                 i++;
             } else {
-                i = -node.i;
+                i = -nodeIndex[i];
             }
         }
-        return ids;
+        return count;
     }
 
-    private boolean checkOverlapRect(float[] amin, float[] amax, float[] bmin, float[] bmax) {
-        boolean overlap = true;
-        overlap = (amin[0] > bmax[0] || amax[0] < bmin[0]) ? false : overlap;
-        overlap = (amin[1] > bmax[1] || amax[1] < bmin[1]) ? false : overlap;
-        return overlap;
+    private boolean checkOverlapRect(float[] amin, float[] amax, int node) {
+        int b = node * 4;
+        return !(amin[0] > nodeBounds[b + 2] || amax[0] < nodeBounds[b])
+                && !(amin[1] > nodeBounds[b + 3] || amax[1] < nodeBounds[b + 1]);
     }
 
     public List<ChunkyTriMeshNode> getChunksOverlappingSegment(float[] p, float[] q) {
-        // Traverse tree
         List<ChunkyTriMeshNode> ids = new ArrayList<>();
+        forEachChunkOverlappingSegment(p, q, node -> ids.add(view(node)));
+        return ids;
+    }
+
+    /**
+     * Visit every leaf whose xz bounds overlap a segment, in tree order.
+     *
+     * @param p the [x,z] start of the segment
+     * @param q the [x,z] end of the segment
+     */
+    public void forEachChunkOverlappingSegment(float[] p, float[] q, ChunkVisitor visitor) {
+        // Traverse tree
         int i = 0;
-        while (i < nodes.size()) {
-            ChunkyTriMeshNode node = nodes.get(i);
-            boolean overlap = checkOverlapSegment(p, q, node.bmin, node.bmax);
-            boolean isLeafNode = node.i >= 0;
+        while (i < nodeCount) {
+            boolean overlap = checkOverlapSegment(p, q, i);
+            boolean isLeafNode = nodeIndex[i] >= 0;
 
             if (isLeafNode && overlap) {
-                ids.add(node);
+                visitor.visit(i);
             }
 
             if (overlap || isLeafNode) {
                 i++;
             } else {
-                i = -node.i;
+                i = -nodeIndex[i];
             }
         }
-        return ids;
     }
 
-    private boolean checkOverlapSegment(float[] p, float[] q, float[] bmin, float[] bmax) {
+    /**
+     * Find the leaves whose xz bounds overlap a segment, in tree order.
+     *
+     * @param out receives the leaf node indices, as many as fit
+     * @return the number of overlapping leaves, larger than the length of out if not all of them fit
+     */
+    public int getChunksOverlappingSegment(float[] p, float[] q, int[] out) {
+        // Traverse tree
+        int count = 0;
+        int i = 0;
+        while (i < nodeCount) {
+            boolean overlap = checkOverlapSegment(p, q, i);
+            boolean isLeafNode = nodeIndex[i] >= 0;
+
+            if (isLeafNode && overlap) {
+                if (count < out.length) {
+                    out[count] = i;
+                }
+                count++;
+            }
+
+            if (overlap || isLeafNode) {
+                i++;
+            } else {
+                i = -nodeIndex[i];
+            }
+        }
+        return count;
+    }
+
+    private boolean checkOverlapSegment(float[] p, float[] q, int node) {
         float EPSILON = 1e-6f;
 
         float tmin = 0;
         float tmax = 1;
-        float[] d = new float[2];
-        d[0] = q[0] - p[0];
-        d[1] = q[1] - p[1];
+        int b = node * 4;
 
         for (int i = 0; i < 2; i++) {
-            if (Math.abs(d[i]) < EPSILON) {
+            float d = q[i] - p[i];
+            float bmin = nodeBounds[b + i];
+            float bmax = nodeBounds[b + 2 + i];
+            if (Math.abs(d) < EPSILON) {
                 // Ray is parallel to slab. No hit if origin not within slab
-                if (p[i] < bmin[i] || p[i] > bmax[i])
+                if (p[i] < bmin || p[i] > bmax)
                     return false;
             } else {
                 // Compute intersection t value of ray with near and far plane of slab
-                float ood = 1.0f / d[i];
-                float t1 = (bmin[i] - p[i]) * ood;
-                float t2 = (bmax[i] - p[i]) * ood;
+                float ood = 1.0f / d;
+                float t1 = (bmin - p[i]) * ood;
+                float t2 = (bmax - p[i]) * ood;
                 if (t1 > t2) {
                     float tmp = t1;
                     t1 = t2;
@@ -269,4 +468,71 @@ public class ChunkyTriMesh {
         return true;
     }
 
+    private synchronized ChunkyTriMeshNode view(int node) {
+        if (views == null) {
+            views = new ChunkyTriMeshNode[nodeCount];
+        }
+        ChunkyTriMeshNode view = views[node];
+        if (view == null) {
+            view = new ChunkyTriMeshNode();
+            int b = node * 4;
+            view.bmin[0] = nodeBounds[b];
+            view.bmin[1] = nodeBounds[b + 1];
+            view.bmax[0] = nodeBounds[b + 2];
+            view.bmax[1] = nodeBounds[b + 3];
+            view.i = nodeIndex[node];
+            view.tris = new int[nodeTriCount[node] * 3];
+            System.arraycopy(tris, nodeTriStart[node] * 3, view.tris, 0, view.tris.length);
+            views[node] = view;
+        }
+        return view;
+    }
+
+    public int getTriCount() {
+        return ntris;
+    }
+
+    /**
+     * @return the most triangles a leaf was allowed to hold when the tree was built
+     */
+    public int getTrisPerChunk() {
+        return trisPerChunk;
+    }
+
+    public int getMaxTrisPerChunk() {
+        return maxTrisPerChunk;
+    }
+
+    public int getNodeCount() {
+        return nodeCount;
+    }
+
+    /**
+     * @return the vertex indices of the triangles of every leaf, in leaf order
+     */
+    public int[] getTris() {
+        return tris;
+    }
+
+    public boolean isLeaf(int node) {
+        return nodeIndex[node] >= 0;
+    }
+
+    /**
+     * @return the first triangle of a node, the vertex indices of triangle t start at {@code getTris()[t * 3]}
+     */
+    public int getNodeTriStart(int node) {
+        return nodeTriStart[node];
+    }
+
+    public int getNodeTriCount(int node) {
+        return nodeTriCount[node];
+    }
+
+    /**
+     * @return the packed [minX, minZ, maxX, maxZ] bounds of every node, indexed by {@code node * 4}
+     */
+    public float[] getNodeBounds() {
+        return nodeBounds;
+    }
 }
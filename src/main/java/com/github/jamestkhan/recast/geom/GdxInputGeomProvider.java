@@ -19,6 +19,9 @@ freely, subject to the following restrictions:
 package com.github.jamestkhan.recast.geom;
 
 import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.FloatArray;
+import com.badlogic.gdx.utils.IntArray;
+import com.github.jamestkhan.recast.utils.BatchExecutor;
 import org.recast4j.recast.ConvexVolume;
 import org.recast4j.recast.RecastVectors;
 import org.recast4j.recast.geom.InputGeomProvider;
@@ -41,17 +44,33 @@ public class GdxInputGeomProvider implements InputGeomProvider {
     final List<ConvexVolume> convexVolumes = new ArrayList<>();
     final List<OffMeshConnection> offMeshConnections = new ArrayList<>();
     final ChunkyTriMesh chunkyTriMesh;
+    private List<TriMesh> meshes;
+
+    /** Triangles per leaf of the chunk tree, the same as Recast's own TriMesh uses. */
+    public static final int TRIS_PER_CHUNK = 32;
 
     /**
      * The vertices must only contain x,y,z position information, all other data (normals, uvs, etc) must
      * be stripped out prior to calling this constructor.
      * @param vertexPositions the positional xyz vertices of the mesh
      * @param meshFaces The indices of the vertices that make up each triangle
+     * @deprecated boxes every coordinate and index, use {@link #GdxInputGeomProvider(FloatArray, IntArray)}
      */
+    @Deprecated
     public GdxInputGeomProvider(Array<Float> vertexPositions, Array<Integer> meshFaces) {
         this(mapVertices(vertexPositions), mapFaces(meshFaces));
     }
 
+    /**
+     * The vertices must only contain x,y,z position information, all other data (normals, uvs, etc) must
+     * be stripped out prior to calling this constructor. The buffers are copied to arrays of their exact size.
+     * @param vertexPositions the positional xyz vertices of the mesh
+     * @param meshFaces The indices of the vertices that make up each triangle
+     */
+    public GdxInputGeomProvider(FloatArray vertexPositions, IntArray meshFaces) {
+        this(vertexPositions.toArray(), meshFaces.toArray());
+    }
+
     private static int[] mapFaces(Array<Integer> meshFaces) {
         int[] faces = new int[meshFaces.size];
         for (int i = 0; i < faces.length; i++) {
@@ -87,7 +106,20 @@ public class GdxInputGeomProvider implements InputGeomProvider {
             RecastVectors.min(bmin, vertices, i * 3);
             RecastVectors.max(bmax, vertices, i * 3);
         }
-        chunkyTriMesh = new ChunkyTriMesh(vertices, faces, faces.length / 3, 256);
+        chunkyTriMesh = new ChunkyTriMesh(vertices, faces, faces.length / 3, TRIS_PER_CHUNK, BatchExecutor.common());
+    }
+
+    /**
+     * Restore processed geometry, see {@link GeomSnapshot}.
+     */
+    GdxInputGeomProvider(float[] vertices, int[] faces, float[] normals, float[] bmin, float[] bmax,
+            ChunkyTriMesh chunkyTriMesh) {
+        this.vertices = vertices;
+        this.faces = faces;
+        this.normals = normals;
+        this.bmin = bmin;
+        this.bmax = bmax;
+        this.chunkyTriMesh = chunkyTriMesh;
     }
 
     @Override
@@ -100,42 +132,69 @@ public class GdxInputGeomProvider implements InputGeomProvider {
         return bmax;
     }
 
+    /**
+     * Compute the unit normal of every face into {@link #normals}, split over {@link BatchExecutor#common()} for large
+     * meshes.
+     */
     public void calculateNormals() {
-        for (int i = 0; i < faces.length; i += 3) {
+        final int ntris = faces.length / 3;
+        if (ntris < ChunkyTriMesh.PARALLEL_THRESHOLD) {
+            calculateNormals(vertices, faces, normals, 0, ntris);
+            return;
+        }
+        BatchExecutor executor = BatchExecutor.common();
+        executor.run(0, ntris, Math.max(ChunkyTriMesh.PARALLEL_THRESHOLD, ntris / (executor.getParallelism() * 4)),
+                (from, to) -> calculateNormals(vertices, faces, normals, from, to));
+    }
+
+    private static void calculateNormals(float[] vertices, int[] faces, float[] normals, int from, int to) {
+        for (int i = from * 3; i < to * 3; i += 3) {
             int v0 = faces[i] * 3;
             int v1 = faces[i + 1] * 3;
             int v2 = faces[i + 2] * 3;
-            float[] e0 = new float[3], e1 = new float[3];
-            try {
-                for (int j = 0; j < 3; ++j) {
-                    e0[j] = vertices[v1 + j] - vertices[v0 + j];
-                    e1[j] = vertices[v2 + j] - vertices[v0 + j];
-                }
-            } catch (IndexOutOfBoundsException ex) {
-                System.out.println(ex);
-            }
-            normals[i] = e0[1] * e1[2] - e0[2] * e1[1];
-            normals[i + 1] = e0[2] * e1[0] - e0[0] * e1[2];
-            normals[i + 2] = e0[0] * e1[1] - e0[1] * e1[0];
-            float d = (float) Math
-                    .sqrt(normals[i] * normals[i] + normals[i + 1] * normals[i + 1] + normals[i + 2] * normals[i + 2]);
+            float e0x = vertices[v1] - vertices[v0];
+            float e0y = vertices[v1 + 1] - vertices[v0 + 1];
+            float e0z = vertices[v1 + 2] - vertices[v0 + 2];
+            float e1x = vertices[v2] - vertices[v0];
+            float e1y = vertices[v2 + 1] - vertices[v0 + 1];
+            float e1z = vertices[v2 + 2] - vertices[v0 + 2];
+            float nx = e0y * e1z - e0z * e1y;
+            float ny = e0z * e1x - e0x * e1z;
+            float nz = e0x * e1y - e0y * e1x;
+            float d = (float) Math.sqrt(nx * nx + ny * ny + nz * nz);
             if (d > 0) {
                 d = 1.0f / d;
-                normals[i] *= d;
-                normals[i + 1] *= d;
-                normals[i + 2] *= d;
+                nx *= d;
+                ny *= d;
+                nz *= d;
             }
+            normals[i] = nx;
+            normals[i + 1] = ny;
+            normals[i + 2] = nz;
         }
     }
 
+    /**
+     * @return the chunk tree over the triangles of the mesh
+     */
+    public ChunkyTriMesh getChunkyTriMesh() {
+        return chunkyTriMesh;
+    }
+
     @Override
     public List<ConvexVolume> convexVolumes() {
         return convexVolumes;
     }
 
+    /**
+     * @return a single mesh backed by this provider's chunk tree, created once
+     */
     @Override
-    public Iterable<TriMesh> meshes() {
-        return Collections.singletonList(new TriMesh(vertices, faces));
+    public synchronized Iterable<TriMesh> meshes() {
+        if (meshes == null) {
+            meshes = Collections.singletonList(new ChunkedTriMesh(vertices, faces, chunkyTriMesh));
+        }
+        return meshes;
     }
 
     public List<OffMeshConnection> getOffMeshConnections() {
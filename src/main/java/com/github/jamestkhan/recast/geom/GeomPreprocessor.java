@@ -0,0 +1,348 @@
+package com.github.jamestkhan.recast.geom;
+
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.utils.FloatArray;
+import com.badlogic.gdx.utils.IntArray;
+import com.github.jamestkhan.recast.utils.BatchExecutor;
+
+import java.util.Arrays;
+
+/**
+ * Cleans up raw geometry before it is handed to a {@link GdxInputGeomProvider}, so Recast does not rasterize the same
+ * surface more than once.
+ * <p>
+ * Vertices whose positions fall in the same cell of a {@link #setWeldDistance weld distance} grid are welded into one,
+ * then triangles that have collapsed to a line or point are dropped, as are repeated copies of a triangle. A copy must
+ * use the same vertices in the same winding, a face and its back face are both kept since they may differ in
+ * walkability. Vertices no longer used by any triangle are dropped. Quantizing and testing triangles run in parallel
+ * over a {@link BatchExecutor}, welding and removing duplicates use primitive hash tables on the calling thread.
+ * </p>
+ * Ex.
+ * <pre>
+ * GeomPreprocessor preprocessor = new GeomPreprocessor();
+ * GdxInputGeomProvider geom = preprocessor.process(vertices, faces);
+ * Gdx.app.log("Nav", "Removed " + preprocessor.getRemovedTriangleCount() + " triangles");
+ * </pre>
+ * Not thread safe, the counts of the last run are kept in the instance.
+ *
+ * @author JamesTKhan
+ * @version October 18, 2026
+ */
+public class GeomPreprocessor {
+    /** Meshes with fewer vertices or triangles than this are processed on the calling thread. */
+    public static final int PARALLEL_THRESHOLD = 4096;
+
+    private final BatchExecutor executor;
+    private float weldDistance = 0.001f;
+    private boolean removeDegenerate = true;
+    private boolean removeDuplicates = true;
+
+    private int weldedVertexCount;
+    private int unusedVertexCount;
+    private int degenerateCount;
+    private int duplicateCount;
+
+    /**
+     * Process large meshes on {@link BatchExecutor#common()}.
+     */
+    public GeomPreprocessor() {
+        this(BatchExecutor.common());
+    }
+
+    /**
+     * @param executor the executor to process large meshes on, null to process on the calling thread
+     */
+    public GeomPreprocessor(BatchExecutor executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * Process geometry held in primitive buffers, see {@link #process(float[], int[])}.
+     */
+    public GdxInputGeomProvider process(FloatArray vertices, IntArray faces) {
+        return process(vertices.items, vertices.size / 3, faces.items, faces.size / 3);
+    }
+
+    /**
+     * Weld, remove degenerate and duplicate triangles and build a provider over the result. The arrays are not
+     * modified.
+     *
+     * @param vertices the positional xyz vertices of the mesh
+     * @param faces    the indices of the vertices that make up each triangle
+     * @return a provider over the cleaned geometry
+     */
+    public GdxInputGeomProvider process(float[] vertices, int[] faces) {
+        return process(vertices, vertices.length / 3, faces, faces.length / 3);
+    }
+
+    private GdxInputGeomProvider process(final float[] vertices, int nverts, final int[] faces, int ntris) {
+        final long[] cells = new long[nverts * 3];
+        final float invCell = weldDistance > 0 ? 1f / weldDistance : 0;
+        run(nverts, (from, to) -> quantize(vertices, invCell, cells, from, to));
+        final int[] weld = weld(cells, nverts);
+
+        // Below this a triangle's area is smaller than a weld cell, its normal is not to be trusted
+        final float minCross = removeDegenerate ? weldDistance * weldDistance * weldDistance * weldDistance : -1;
+        final int[] welded = new int[ntris * 3];
+        final boolean[] degenerate = new boolean[ntris];
+        run(ntris, (from, to) -> classify(vertices, faces, weld, minCross, welded, degenerate, from, to));
+
+        int[] kept = new int[ntris * 3];
+        int keptCount = 0;
+        int[] table = removeDuplicates ? newTable(ntris) : null;
+        degenerateCount = 0;
+        duplicateCount = 0;
+        for (int t = 0; t < ntris; t++) {
+            if (degenerate[t]) {
+                degenerateCount++;
+                continue;
+            }
+            int a = welded[t * 3];
+            int b = welded[t * 3 + 1];
+            int c = welded[t * 3 + 2];
+            kept[keptCount * 3] = a;
+            kept[keptCount * 3 + 1] = b;
+            kept[keptCount * 3 + 2] = c;
+            if (table != null && !insertTriangle(table, kept, keptCount)) {
+                duplicateCount++;
+                continue;
+            }
+            keptCount++;
+        }
+
+        // Number the vertices still in use in order of first use
+        int[] remap = new int[nverts];
+        Arrays.fill(remap, -1);
+        int[] outFaces = new int[keptCount * 3];
+        int vertexCount = 0;
+        for (int i = 0; i < outFaces.length; i++) {
+            int v = kept[i];
+            if (remap[v] < 0) {
+                remap[v] = vertexCount++;
+            }
+            outFaces[i] = remap[v];
+        }
+        float[] outVertices = new float[vertexCount * 3];
+        for (int v = 0; v < nverts; v++) {
+            if (remap[v] >= 0) {
+                System.arraycopy(vertices, v * 3, outVertices, remap[v] * 3, 3);
+            }
+        }
+
+        int weldedCount = 0;
+        for (int v = 0; v < nverts; v++) {
+            if (weld[v] != v) {
+                weldedCount++;
+            }
+        }
+        weldedVertexCount = weldedCount;
+        unusedVertexCount = nverts - weldedCount - vertexCount;
+        return new GdxInputGeomProvider(outVertices, outFaces);
+    }
+
+    private static void quantize(float[] vertices, float invCell, long[] cells, int from, int to) {
+        for (int i = from * 3; i < to * 3; i++) {
+            // Cells are 64 bit so a small weld distance does not overflow them far from the origin, adding zero turns
+            // -0 into 0 so both weld when matching exact positions
+            cells[i] = invCell > 0 ? (long) Math.floor((double) vertices[i] * invCell)
+                    : Float.floatToIntBits(vertices[i] + 0f);
+        }
+    }
+
+    /**
+     * @return for each vertex the first vertex in the same cell
+     */
+    private static int[] weld(long[] cells, int nverts) {
+        int[] weld = new int[nverts];
+        int[] table = newTable(nverts);
+        int mask = table.length - 1;
+        for (int v = 0; v < nverts; v++) {
+            long x = cells[v * 3];
+            long y = cells[v * 3 + 1];
+            long z = cells[v * 3 + 2];
+            int slot = hash(x, y, z) & mask;
+            while (true) {
+                int other = table[slot];
+                if (other < 0) {
+                    table[slot] = v;
+                    weld[v] = v;
+                    break;
+                }
+                if (cells[other * 3] == x && cells[other * 3 + 1] == y && cells[other * 3 + 2] == z) {
+                    weld[v] = other;
+                    break;
+                }
+                slot = (slot + 1) & mask;
+            }
+        }
+        return weld;
+    }
+
+    private static void classify(float[] vertices, int[] faces, int[] weld, float minCross, int[] welded,
+            boolean[] degenerate, int from, int to) {
+        for (int t = from; t < to; t++) {
+            int a = weld[faces[t * 3]];
+            int b = weld[faces[t * 3 + 1]];
+            int c = weld[faces[t * 3 + 2]];
+            welded[t * 3] = a;
+            welded[t * 3 + 1] = b;
+            welded[t * 3 + 2] = c;
+            if (minCross < 0) {
+                continue;
+            }
+            if (a == b || b == c || c == a) {
+                degenerate[t] = true;
+                continue;
+            }
+            a *= 3;
+            b *= 3;
+            c *= 3;
+            float e0x = vertices[b] - vertices[a];
+            float e0y = vertices[b + 1] - vertices[a + 1];
+            float e0z = vertices[b + 2] - vertices[a + 2];
+            float e1x = vertices[c] - vertices[a];
+            float e1y = vertices[c + 1] - vertices[a + 1];
+            float e1z = vertices[c + 2] - vertices[a + 2];
+            float nx = e0y * e1z - e0z * e1y;
+            float ny = e0z * e1x - e0x * e1z;
+            float nz = e0x * e1y - e0y * e1x;
+            degenerate[t] = nx * nx + ny * ny + nz * nz <= minCross;
+        }
+    }
+
+    /**
+     * Add a triangle of {@code tris} to the table unless a rotation of it is already there.
+     *
+     * @return false if the triangle is a duplicate
+     */
+    private static boolean insertTriangle(int[] table, int[] tris, int t) {
+        int mask = table.length - 1;
+        int a = tris[t * 3];
+        int b = tris[t * 3 + 1];
+        int c = tris[t * 3 + 2];
+        // Rotate the smallest index first so every rotation of a triangle hashes the same
+        if (b < a && b < c) {
+            int tmp = a;
+            a = b;
+            b = c;
+            c = tmp;
+        } else if (c < a && c < b) {
+            int tmp = c;
+            c = b;
+            b = a;
+            a = tmp;
+        }
+        int slot = hash(a, b, c) & mask;
+        while (true) {
+            int other = table[slot];
+            if (other < 0) {
+                table[slot] = t;
+                return true;
+            }
+            int oa = tris[other * 3];
+            int ob = tris[other * 3 + 1];
+            int oc = tris[other * 3 + 2];
+            if ((oa == a && ob == b && oc == c) || (ob == a && oc == b && oa == c) || (oc == a && oa == b && ob == c)) {
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    private static int[] newTable(int count) {
+        int[] table = new int[MathUtils.nextPowerOfTwo(Math.max(2, count * 2))];
+        Arrays.fill(table, -1);
+        return table;
+    }
+
+    private static int hash(int x, int y, int z) {
+        int h = x * 73856093 ^ y * 19349663 ^ z * 83492791;
+        return h ^ (h >>> 16);
+    }
+
+    private static int hash(long x, long y, long z) {
+        long h = x * 0x9e3779b97f4a7c15L ^ y * 0xc2b2ae3d27d4eb4fL ^ z * 0x165667b19e3779f9L;
+        h ^= h >>> 32;
+        return (int) (h ^ (h >>> 16));
+    }
+
+    private void run(int count, BatchExecutor.RangeTask task) {
+        if (executor == null || count < PARALLEL_THRESHOLD) {
+            task.run(0, count);
+        } else {
+            executor.run(0, count, Math.max(PARALLEL_THRESHOLD, count / (executor.getParallelism() * 4)), task);
+        }
+    }
+
+    /**
+     * @param weldDistance the size of the grid cells vertices are welded in, 0 to only weld equal positions
+     */
+    public void setWeldDistance(float weldDistance) {
+        this.weldDistance = Math.max(0, weldDistance);
+    }
+
+    public float getWeldDistance() {
+        return weldDistance;
+    }
+
+    /**
+     * @param removeDegenerate whether to remove triangles smaller than a weld cell or with repeated vertices
+     */
+    public void setRemoveDegenerate(boolean removeDegenerate) {
+        this.removeDegenerate = removeDegenerate;
+    }
+
+    public boolean isRemoveDegenerate() {
+        return removeDegenerate;
+    }
+
+    /**
+     * @param removeDuplicates whether to remove triangles repeating the vertices and winding of an earlier triangle
+     */
+    public void setRemoveDuplicates(boolean removeDuplicates) {
+        this.removeDuplicates = removeDuplicates;
+    }
+
+    public boolean isRemoveDuplicates() {
+        return removeDuplicates;
+    }
+
+    public BatchExecutor getExecutor() {
+        return executor;
+    }
+
+    /**
+     * @return the number of vertices welded into another vertex by the last run
+     */
+    public int getWeldedVertexCount() {
+        return weldedVertexCount;
+    }
+
+    /**
+     * @return the number of vertices dropped by the last run because no remaining triangle used them
+     */
+    public int getUnusedVertexCount() {
+        return unusedVertexCount;
+    }
+
+    /**
+     * @return the number of degenerate triangles removed by the last run
+     */
+    public int getDegenerateCount() {
+        return degenerateCount;
+    }
+
+    /**
+     * @return the number of duplicate triangles removed by the last run
+     */
+    public int getDuplicateCount() {
+        return duplicateCount;
+    }
+
+    /**
+     * @return the number of triangles removed by the last run
+     */
+    public int getRemovedTriangleCount() {
+        return degenerateCount + duplicateCount;
+    }
+}
@@ -0,0 +1,203 @@
+package com.github.jamestkhan.recast.geom;
+
+import com.badlogic.gdx.utils.GdxRuntimeException;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Binary snapshots of processed input geometry, to skip computing normals, bounds and the chunk tree on startup.
+ * <p>
+ * A snapshot holds the vertices, faces, normals, bounds and {@link ChunkyTriMesh} of a {@link GdxInputGeomProvider}
+ * as primitive arrays, read back with bulk buffer copies. Each snapshot is stored with a key, normally a
+ * {@link #hash} of the source the geometry was built from, and is reported stale when read with another key, or
+ * when its chunk tree was built with another chunk size than {@link GdxInputGeomProvider#TRIS_PER_CHUNK}.
+ * Off-mesh connections and convex volumes are not part of the snapshot, add them again after loading.
+ * </p>
+ *
+ * @author JamesTKhan
+ * @version October 18, 2026
+ */
+public class GeomSnapshot {
+    private static final int MAGIC = 'G' << 24 | 'E' << 16 | 'O' << 8 | 'M';
+    private static final int VERSION = 2;
+    private static final int HEADER_BYTES = 4 * 2 + 8 + 4 * 7 + 4 * 6;
+
+    private GeomSnapshot() {
+    }
+
+    /**
+     * Serialize processed geometry, big endian.
+     *
+     * @param key the key to store the snapshot under, see {@link #hash}
+     */
+    public static byte[] toBytes(GdxInputGeomProvider geom, long key) {
+        ChunkyTriMesh tree = geom.chunkyTriMesh;
+        int size = HEADER_BYTES + 4 * (geom.vertices.length + geom.faces.length + geom.normals.length
+                + tree.nodeBounds.length + tree.nodeCount * 3 + tree.tris.length);
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        buffer.order(ByteOrder.BIG_ENDIAN);
+        buffer.putInt(MAGIC);
+        buffer.putInt(VERSION);
+        buffer.putLong(key);
+        buffer.putInt(geom.vertices.length);
+        buffer.putInt(geom.faces.length);
+        buffer.putInt(geom.normals.length);
+        buffer.putInt(tree.ntris);
+        buffer.putInt(tree.trisPerChunk);
+        buffer.putInt(tree.nodeCount);
+        buffer.putInt(tree.tris.length);
+        for (int i = 0; i < 3; i++) {
+            buffer.putFloat(geom.bmin[i]);
+            buffer.putFloat(geom.bmax[i]);
+        }
+        putFloats(buffer, geom.vertices);
+        putInts(buffer, geom.faces);
+        putFloats(buffer, geom.normals);
+        putFloats(buffer, tree.nodeBounds);
+        putInts(buffer, tree.nodeIndex);
+        putInts(buffer, tree.nodeTriStart);
+        putInts(buffer, tree.nodeTriCount);
+        putInts(buffer, tree.tris);
+        return buffer.array();
+    }
+
+    /**
+     * Read a snapshot written by {@link #toBytes}. Truncated or otherwise damaged snapshots, as left by an interrupted
+     * write, are reported stale rather than failing.
+     *
+     * @param key the key the snapshot must have been stored under
+     * @return the geometry, or null if the snapshot is stale: stored under another key, by another version, with
+     * another chunk size, or damaged
+     * @throws GdxRuntimeException if the data is not a geometry snapshot
+     */
+    public static GdxInputGeomProvider fromBytes(byte[] bytes, long key) {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        buffer.order(ByteOrder.BIG_ENDIAN);
+        if (bytes.length >= 4 && buffer.getInt() != MAGIC) {
+            throw new GdxRuntimeException("Not a geometry snapshot.");
+        }
+        if (bytes.length < HEADER_BYTES || buffer.getInt() != VERSION || buffer.getLong() != key) {
+            return null;
+        }
+        int vertexCount = buffer.getInt();
+        int faceCount = buffer.getInt();
+        int normalCount = buffer.getInt();
+        int ntris = buffer.getInt();
+        int trisPerChunk = buffer.getInt();
+        int nodeCount = buffer.getInt();
+        int trisCount = buffer.getInt();
+        if (trisPerChunk != GdxInputGeomProvider.TRIS_PER_CHUNK) {
+            return null;
+        }
+        // Check the lengths against the data before allocating anything
+        if (vertexCount < 0 || vertexCount % 3 != 0 || faceCount < 0 || faceCount % 3 != 0
+                || normalCount != faceCount || ntris != faceCount / 3 || trisCount != faceCount || nodeCount < 0
+                || 4L * vertexCount + 4L * faceCount * 3 + 4L * nodeCount * 7 + 4 * 6 != buffer.remaining()) {
+            return null;
+        }
+        float[] bmin = new float[3];
+        float[] bmax = new float[3];
+        for (int i = 0; i < 3; i++) {
+            bmin[i] = buffer.getFloat();
+            bmax[i] = buffer.getFloat();
+        }
+        float[] vertices = new float[vertexCount];
+        int[] faces = new int[faceCount];
+        float[] normals = new float[normalCount];
+        int[] tris = new int[trisCount];
+        float[] nodeBounds = new float[nodeCount * 4];
+        int[] nodeIndex = new int[nodeCount];
+        int[] nodeTriStart = new int[nodeCount];
+        int[] nodeTriCount = new int[nodeCount];
+
+        getFloats(buffer, vertices);
+        getInts(buffer, faces);
+        getFloats(buffer, normals);
+        getFloats(buffer, nodeBounds);
+        getInts(buffer, nodeIndex);
+        getInts(buffer, nodeTriStart);
+        getInts(buffer, nodeTriCount);
+        getInts(buffer, tris);
+        if (!validIndices(faces, vertexCount / 3) || !validIndices(tris, vertexCount / 3)
+                || !validTree(nodeIndex, nodeTriStart, nodeTriCount, ntris)) {
+            return null;
+        }
+
+        ChunkyTriMesh tree = new ChunkyTriMesh(ntris, trisPerChunk, nodeBounds, nodeIndex, nodeTriStart,
+                nodeTriCount, tris);
+        return new GdxInputGeomProvider(vertices, faces, normals, bmin, bmax, tree);
+    }
+
+    private static boolean validIndices(int[] indices, int vertexCount) {
+        for (int index : indices) {
+            if (index < 0 || index >= vertexCount) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return true if every node's triangles are in range and every inner node skips to a node after it
+     */
+    private static boolean validTree(int[] nodeIndex, int[] nodeTriStart, int[] nodeTriCount, int ntris) {
+        int nodeCount = nodeIndex.length;
+        for (int n = 0; n < nodeCount; n++) {
+            if (nodeTriStart[n] < 0 || nodeTriCount[n] < 0 || nodeTriStart[n] > ntris - nodeTriCount[n]) {
+                return false;
+            }
+            if (nodeIndex[n] < 0 && (-nodeIndex[n] <= n || -nodeIndex[n] > nodeCount)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return a 64 bit hash of source data, such as the bytes of the model file the geometry was imported from
+     */
+    public static long hash(byte[] source) {
+        long h = 0xcbf29ce484222325L;
+        for (byte b : source) {
+            h = (h ^ (b & 0xff)) * 0x100000001b3L;
+        }
+        return h;
+    }
+
+    /**
+     * @return a 64 bit hash of unprocessed geometry
+     */
+    public static long hash(float[] vertices, int[] faces) {
+        long h = 0xcbf29ce484222325L;
+        for (float v : vertices) {
+            h = (h ^ Float.floatToIntBits(v)) * 0x100000001b3L;
+        }
+        for (int f : faces) {
+            h = (h ^ f) * 0x100000001b3L;
+        }
+        return h;
+    }
+
+    // Views share the parent's content but not its position, so the parent is advanced past each bulk copy
+
+    private static void putFloats(ByteBuffer buffer, float[] values) {
+        buffer.asFloatBuffer().put(values);
+        buffer.position(buffer.position() + values.length * 4);
+    }
+
+    private static void putInts(ByteBuffer buffer, int[] values) {
+        buffer.asIntBuffer().put(values);
+        buffer.position(buffer.position() + values.length * 4);
+    }
+
+    private static void getFloats(ByteBuffer buffer, float[] values) {
+        buffer.asFloatBuffer().get(values);
+        buffer.position(buffer.position() + values.length * 4);
+    }
+
+    private static void getInts(ByteBuffer buffer, int[] values) {
+        buffer.asIntBuffer().get(values);
+        buffer.position(buffer.position() + values.length * 4);
+    }
+}
@@ -18,80 +18,105 @@ freely, subject to the following restrictions:
 
 package com.github.jamestkhan.recast.geom;
 
-import com.badlogic.gdx.math.Vector3;
-
 import java.util.Optional;
 
 import static com.github.jamestkhan.recast.utils.RecastMath.vCross;
 import static com.github.jamestkhan.recast.utils.RecastMath.vDot;
-import static org.recast4j.detour.DetourCommon.vSub;
+import static com.github.jamestkhan.recast.utils.RecastMath.vSub;
 
 public class Intersections {
 
+    /** Number of floats of scratch space needed by {@link #intersectSegmentTriangle(float[], float[], float[], float[])}. */
+    public static final int SEGMENT_TRIANGLE_SCRATCH = 18;
+
+    private static final int AB = 0, AC = 3, QP = 6, NORM = 9, AP = 12, E = 15;
+
     public static Optional<Float> intersectSegmentTriangle(float[] sp, float[] sq, float[] a, float[] b, float[] c) {
+        float[] tri = new float[9];
+        System.arraycopy(a, 0, tri, 0, 3);
+        System.arraycopy(b, 0, tri, 3, 3);
+        System.arraycopy(c, 0, tri, 6, 3);
+        float t = intersectSegmentTriangle(sp, sq, tri, new float[SEGMENT_TRIANGLE_SCRATCH]);
+        return Float.isNaN(t) ? Optional.empty() : Optional.of(t);
+    }
+
+    /**
+     * Intersect a segment with the front face of a triangle without allocating.
+     *
+     * @param tri     the packed [x,y,z] vertices a, b and c of the triangle
+     * @param scratch at least {@link #SEGMENT_TRIANGLE_SCRATCH} floats of working space
+     * @return the position of the intersection along the segment from 0 to 1, NaN if there is none
+     */
+    public static float intersectSegmentTriangle(float[] sp, float[] sq, float[] tri, float[] scratch) {
         float v, w;
-        float[] ab = vSub(b, a);
-        float[] ac = vSub(c, a);
-        float[] qp = vSub(sp, sq);
+        vSub(scratch, AB, tri, 3, tri, 0);
+        vSub(scratch, AC, tri, 6, tri, 0);
+        vSub(scratch, QP, sp, 0, sq, 0);
 
         // Compute triangle normal. Can be precalculated or cached if
         // intersecting multiple segments against the same triangle
-        float[] norm = vCross(ab, ac);
+        vCross(scratch, NORM, scratch, AB, scratch, AC);
 
         // Compute denominator d. If d <= 0, segment is parallel to or points
         // away from triangle, so exit early
-        float d = vDot(qp, norm);
+        float d = vDot(scratch, QP, scratch, NORM);
         if (d <= 0.0f) {
-            return Optional.empty();
+            return Float.NaN;
         }
 
         // Compute intersection t value of pq with plane of triangle. A ray
         // intersects iff 0 <= t. Segment intersects iff 0 <= t <= 1. Delay
         // dividing by d until intersection has been found to pierce triangle
-        float[] ap = vSub(sp, a);
-        float t = vDot(ap, norm);
+        vSub(scratch, AP, sp, 0, tri, 0);
+        float t = vDot(scratch, AP, scratch, NORM);
         if (t < 0.0f) {
-            return Optional.empty();
+            return Float.NaN;
         }
         if (t > d) {
-            return Optional.empty(); // For segment; exclude this code line for a ray test
+            return Float.NaN; // For segment; exclude this code line for a ray test
         }
 
         // Compute barycentric coordinate components and test if within bounds
-        float[] e = vCross(qp, ap);
-        v = vDot(ac, e);
+        vCross(scratch, E, scratch, QP, scratch, AP);
+        v = vDot(scratch, AC, scratch, E);
         if (v < 0.0f || v > d) {
-            return Optional.empty();
+            return Float.NaN;
         }
-        w = -vDot(ab, e);
+        w = -vDot(scratch, AB, scratch, E);
         if (w < 0.0f || v + w > d) {
-            return Optional.empty();
+            return Float.NaN;
         }
 
         // Segment/ray intersects triangle. Perform delayed division
-        t /= d;
-
-        return Optional.of(t);
+        return t / d;
     }
 
     public static Optional<float[]> intersectSegmentAABB(float[] sp, float[] sq, float[] amin, float[] amax) {
+        float[] t = new float[2];
+        return intersectSegmentAABB(sp, sq, amin, amax, t) ? Optional.of(t) : Optional.empty();
+    }
+
+    /**
+     * Intersect a segment with an axis aligned box without allocating.
+     *
+     * @param tOut receives the positions [tmin, tmax] along the segment where it enters and leaves the box, may be null
+     * @return true if the segment overlaps the box
+     */
+    public static boolean intersectSegmentAABB(float[] sp, float[] sq, float[] amin, float[] amax, float[] tOut) {
 
         float EPS = 1e-6f;
 
-        float[] d = new float[3];
-        d[0] = sq[0] - sp[0];
-        d[1] = sq[1] - sp[1];
-        d[2] = sq[2] - sp[2];
         float tmin = 0.0f;
         float tmax = 1.0f;
 
         for (int i = 0; i < 3; i++) {
-            if (Math.abs(d[i]) < EPS) {
+            float d = sq[i] - sp[i];
+            if (Math.abs(d) < EPS) {
                 if (sp[i] < amin[i] || sp[i] > amax[i]) {
-                    return Optional.empty();
+                    return false;
                 }
             } else {
-                float ood = 1.0f / d[i];
+                float ood = 1.0f / d;
                 float t1 = (amin[i] - sp[i]) * ood;
                 float t2 = (amax[i] - sp[i]) * ood;
                 if (t1 > t2) {
@@ -106,12 +131,16 @@ public class Intersections {
                     tmax = t2;
                 }
                 if (tmin > tmax) {
-                    return Optional.empty();
+                    return false;
                 }
             }
         }
 
-        return Optional.of(new float[] { tmin, tmax });
+        if (tOut != null) {
+            tOut[0] = tmin;
+            tOut[1] = tmax;
+        }
+        return true;
     }
 
 }
@@ -0,0 +1,116 @@
+package com.github.jamestkhan.recast.geom;
+
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.github.jamestkhan.recast.utils.BatchExecutor;
+import org.recast4j.detour.NavMesh;
+import org.recast4j.detour.NavMeshParams;
+
+import java.util.Arrays;
+
+/**
+ * Casts many segments against a navmesh at once, for line of sight checks.
+ * <p>
+ * Rays are sorted by the tile their origin lies in before being cast, so consecutive rays mostly walk the same tiles
+ * and bounding volume trees while they are still in cache. With a {@link BatchExecutor} the sorted batch is split
+ * across its threads, each thread casting a contiguous run of tiles. Each ray is cast with
+ * {@link NavMeshRaycast#raycast(NavMesh, float[], float[], NavMeshRaycast.RaycastHit)}, so the results equal
+ * casting the rays one by one.
+ * </p>
+ * Ex.
+ * <pre>
+ * NavMeshBatchRaycast batch = new NavMeshBatchRaycast(BatchExecutor.common());
+ * int hits = batch.raycast(navMesh, eyes, targets, count, hitT, hitRefs);
+ * </pre>
+ * Not thread safe, the sort buffer is reused between batches.
+ *
+ * @author JamesTKhan
+ * @version October 18, 2026
+ */
+public class NavMeshBatchRaycast {
+    private final BatchExecutor executor;
+    /** Tile cell of each ray's origin in the high bits and the ray index in the low bits. */
+    private long[] order = new long[0];
+
+    /**
+     * Cast batches on the calling thread.
+     */
+    public NavMeshBatchRaycast() {
+        this(null);
+    }
+
+    /**
+     * @param executor the executor to split batches over, null to cast on the calling thread
+     */
+    public NavMeshBatchRaycast(BatchExecutor executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * Cast a batch of segments.
+     *
+     * @param origins      packed [x,y,z] segment starts, at least {@code count * 3} floats
+     * @param destinations packed [x,y,z] segment ends, at least {@code count * 3} floats
+     * @param count        number of segments
+     * @param tOut         receives the position of the nearest hit of each segment from 0 to 1, NaN on a miss
+     * @param refOut       receives the polygon hit by each segment, 0 on a miss, may be null
+     * @return the number of segments that hit the navmesh
+     */
+    public int raycast(final NavMesh mesh, final float[] origins, final float[] destinations, int count,
+            final float[] tOut, final long[] refOut) {
+        if (origins.length < count * 3 || destinations.length < count * 3 || tOut.length < count
+                || (refOut != null && refOut.length < count)) {
+            throw new GdxRuntimeException("Batch of " + count + " rays needs " + count * 3
+                    + " origin and destination coordinates and " + count + " results.");
+        }
+        if (order.length < count) {
+            order = new long[count];
+        }
+        final long[] order = this.order;
+
+        NavMeshParams params = mesh.getParams();
+        for (int i = 0; i < count; i++) {
+            int tx = (int) Math.floor((origins[i * 3] - params.orig[0]) / params.tileWidth);
+            int ty = (int) Math.floor((origins[i * 3 + 2] - params.orig[2]) / params.tileHeight);
+            long cell = ((long) (ty & 0xffff) << 16) | (tx & 0xffff);
+            order[i] = cell << 32 | i;
+        }
+        Arrays.sort(order, 0, count);
+
+        if (executor == null) {
+            cast(mesh, origins, destinations, order, 0, count, tOut, refOut);
+        } else {
+            int grainSize = Math.max(64, count / (executor.getParallelism() * 4));
+            executor.run(0, count, grainSize,
+                    (from, to) -> cast(mesh, origins, destinations, order, from, to, tOut, refOut));
+        }
+
+        int hits = 0;
+        for (int i = 0; i < count; i++) {
+            if (!Float.isNaN(tOut[i])) {
+                hits++;
+            }
+        }
+        return hits;
+    }
+
+    private static void cast(NavMesh mesh, float[] origins, float[] destinations, long[] order, int from, int to,
+            float[] tOut, long[] refOut) {
+        NavMeshRaycast.RaycastHit hit = new NavMeshRaycast.RaycastHit();
+        float[] src = new float[3];
+        float[] dst = new float[3];
+        for (int k = from; k < to; k++) {
+            int i = (int) order[k];
+            System.arraycopy(origins, i * 3, src, 0, 3);
+            System.arraycopy(destinations, i * 3, dst, 0, 3);
+            boolean found = NavMeshRaycast.raycast(mesh, src, dst, hit);
+            tOut[i] = found ? hit.t : Float.NaN;
+            if (refOut != null) {
+                refOut[i] = hit.polyRef;
+            }
+        }
+    }
+
+    public BatchExecutor getExecutor() {
+        return executor;
+    }
+}
@@ -18,64 +18,212 @@ freely, subject to the following restrictions:
 
 package com.github.jamestkhan.recast.geom;
 
+import org.recast4j.detour.BVNode;
+import org.recast4j.detour.MeshData;
 import org.recast4j.detour.MeshTile;
 import org.recast4j.detour.NavMesh;
+import org.recast4j.detour.NavMeshParams;
 import org.recast4j.detour.Poly;
 import org.recast4j.detour.PolyDetail;
 
+import java.util.List;
 import java.util.Optional;
 
 /**
  * Simple helper to find an intersection between a ray and a nav mesh
+ * <p>
+ * {@link #raycast(NavMesh, float[], float[], RaycastHit)} walks only the tiles the segment crosses, in order along
+ * the segment, and uses each tile's bounding volume tree to skip polygons the segment misses, so picking costs about
+ * the same on large tiled meshes as on small ones.
+ * </p>
  */
 public class NavMeshRaycast {
 
-    public static Optional<Float> raycast(NavMesh mesh, float[] src, float[]dst) {
-        for (int t = 0; t < mesh.getMaxTiles(); ++t) {
-            MeshTile tile = mesh.getTile(t);
-            if (tile != null && tile.data != null) {
-                Optional<Float> intersection = raycast(tile, src, dst);
-                if (intersection.isPresent()) {
-                    return intersection;
+    /**
+     * The nearest intersection found by a raycast.
+     */
+    public static class RaycastHit {
+        /** The polygon hit, 0 if nothing was hit. */
+        public long polyRef;
+        /** Position of the hit along the segment, from 0 at the start to 1 at the end. */
+        public float t = Float.POSITIVE_INFINITY;
+        /** The world position of the hit. */
+        public final float[] position = new float[3];
+
+        // Scratch space, so reusing a hit makes raycasts allocation free
+        final float[] tri = new float[9];
+        final float[] scratch = new float[Intersections.SEGMENT_TRIANGLE_SCRATCH];
+        final float[] bmin = new float[3];
+        final float[] bmax = new float[3];
+
+        public void reset() {
+            polyRef = 0;
+            t = Float.POSITIVE_INFINITY;
+        }
+    }
+
+    /**
+     * @return the position of the nearest hit along the segment from 0 to 1, empty if nothing was hit
+     */
+    public static Optional<Float> raycast(NavMesh mesh, float[] src, float[] dst) {
+        RaycastHit hit = new RaycastHit();
+        return raycast(mesh, src, dst, hit) ? Optional.of(hit.t) : Optional.empty();
+    }
+
+    /**
+     * Find the nearest intersection between the segment from src to dst and the detail surface of the navmesh.
+     * Apart from looking up the tiles of each grid cell crossed, this does not allocate.
+     *
+     * @param hit receives the nearest hit, and holds the scratch space of the search
+     * @return true if anything was hit
+     */
+    public static boolean raycast(NavMesh mesh, float[] src, float[] dst, RaycastHit hit) {
+        hit.reset();
+        NavMeshParams params = mesh.getParams();
+
+        // Walk the tile grid cells crossed by the segment on the xz plane, 2D DDA
+        float dx = dst[0] - src[0];
+        float dz = dst[2] - src[2];
+        int tx = (int) Math.floor((src[0] - params.orig[0]) / params.tileWidth);
+        int ty = (int) Math.floor((src[2] - params.orig[2]) / params.tileHeight);
+        int endX = (int) Math.floor((dst[0] - params.orig[0]) / params.tileWidth);
+        int endY = (int) Math.floor((dst[2] - params.orig[2]) / params.tileHeight);
+        int stepX = dx > 0 ? 1 : -1;
+        int stepY = dz > 0 ? 1 : -1;
+        float deltaX = dx != 0 ? Math.abs(params.tileWidth / dx) : Float.POSITIVE_INFINITY;
+        float deltaY = dz != 0 ? Math.abs(params.tileHeight / dz) : Float.POSITIVE_INFINITY;
+        float nextX = dx != 0 ? (params.orig[0] + (tx + (stepX > 0 ? 1 : 0)) * params.tileWidth - src[0]) / dx
+                : Float.POSITIVE_INFINITY;
+        float nextY = dz != 0 ? (params.orig[2] + (ty + (stepY > 0 ? 1 : 0)) * params.tileHeight - src[2]) / dz
+                : Float.POSITIVE_INFINITY;
+        int cells = Math.abs(endX - tx) + Math.abs(endY - ty) + 1;
+
+        for (int c = 0; c < cells; c++) {
+            List<MeshTile> tiles = mesh.getTilesAt(tx, ty);
+            for (MeshTile tile : tiles) {
+                if (tile.data != null && tile.data.header != null) {
+                    raycastTile(mesh, tile, src, dst, hit);
                 }
             }
+            // The cells ahead are further along the segment than anything hit so far
+            float cellExit = Math.min(nextX, nextY);
+            if (hit.polyRef != 0 && hit.t <= cellExit) {
+                break;
+            }
+            if (nextX < nextY) {
+                nextX += deltaX;
+                tx += stepX;
+            } else {
+                nextY += deltaY;
+                ty += stepY;
+            }
+        }
+
+        if (hit.polyRef == 0) {
+            return false;
         }
-        return Optional.empty();
+        for (int i = 0; i < 3; i++) {
+            hit.position[i] = src[i] + (dst[i] - src[i]) * hit.t;
+        }
+        return true;
     }
 
-    private static Optional<Float> raycast(MeshTile tile, float[] sp, float[]sq) {
-        for (int i = 0; i < tile.data.header.polyCount; ++i) {
-            Poly p = tile.data.polys[i];
-            if (p.getType() == Poly.DT_POLYTYPE_OFFMESH_CONNECTION) {
-                continue;
+    private static void raycastTile(NavMesh mesh, MeshTile tile, float[] sp, float[] sq, RaycastHit hit) {
+        MeshData data = tile.data;
+        long base = mesh.getPolyRefBase(tile);
+        float[] tbmin = data.header.bmin;
+        float[] tbmax = data.header.bmax;
+        if (!Intersections.intersectSegmentAABB(sp, sq, tbmin, tbmax, null)) {
+            return;
+        }
+
+        if (data.bvTree == null || data.header.bvNodeCount == 0) {
+            for (int i = 0; i < data.header.polyCount; ++i) {
+                raycastPoly(tile, i, base, sp, sq, hit);
             }
-            PolyDetail pd = tile.data.detailMeshes[i];
-
-            if (pd != null) {
-                float verts[][] = new float[3][3];
-                for (int j = 0; j < pd.triCount; ++j) {
-                    int t = (pd.triBase + j) * 4;
-                    for (int k = 0; k < 3; ++k) {
-                        int v = tile.data.detailTris[t + k];
-                        if (v < p.vertCount) {
-                            verts[k][0] = tile.data.verts[p.verts[v] * 3];
-                            verts[k][1] = tile.data.verts[p.verts[v] * 3 + 1];
-                            verts[k][2] = tile.data.verts[p.verts[v] * 3 + 2];
-                        } else {
-                            verts[k][0] = tile.data.detailVerts[(pd.vertBase + v - p.vertCount) * 3];
-                            verts[k][1] = tile.data.detailVerts[(pd.vertBase + v - p.vertCount) * 3 + 1];
-                            verts[k][2] = tile.data.detailVerts[(pd.vertBase + v - p.vertCount) * 3 + 2];
-                        }
-                    }
-                    Optional<Float> intersection = Intersections.intersectSegmentTriangle(sp, sq, verts[0], verts[1], verts[2]);
-                    if (intersection.isPresent()) {
-                        return intersection;
+            return;
+        }
+
+        // Bounding volume tree nodes are stored depth first, a negative index on a node skips its subtree
+        float invQuant = 1.0f / data.header.bvQuantFactor;
+        float[] bmin = hit.bmin;
+        float[] bmax = hit.bmax;
+        int n = 0;
+        while (n < data.header.bvNodeCount) {
+            BVNode node = data.bvTree[n];
+            for (int i = 0; i < 3; i++) {
+                bmin[i] = tbmin[i] + node.bmin[i] * invQuant;
+                bmax[i] = tbmin[i] + (node.bmax[i] + 1) * invQuant;
+            }
+            boolean overlap = Intersections.intersectSegmentAABB(sp, sq, bmin, bmax, null);
+            boolean isLeaf = node.i >= 0;
+            if (isLeaf && overlap) {
+                raycastPoly(tile, node.i, base, sp, sq, hit);
+            }
+            if (overlap || isLeaf) {
+                n++;
+            } else {
+                n += -node.i;
+            }
+        }
+    }
+
+    private static void raycastPoly(MeshTile tile, int i, long base, float[] sp, float[] sq, RaycastHit hit) {
+        Poly p = tile.data.polys[i];
+        float[] tri = hit.tri;
+        if (p.getType() == Poly.DT_POLYTYPE_OFFMESH_CONNECTION) {
+            return;
+        }
+        PolyDetail pd = tile.data.detailMeshes != null ? tile.data.detailMeshes[i] : null;
+        if (pd != null) {
+            for (int j = 0; j < pd.triCount; ++j) {
+                int t = (pd.triBase + j) * 4;
+                for (int k = 0; k < 3; ++k) {
+                    int v = tile.data.detailTris[t + k];
+                    if (v < p.vertCount) {
+                        System.arraycopy(tile.data.verts, p.verts[v] * 3, tri, k * 3, 3);
+                    } else {
+                        System.arraycopy(tile.data.detailVerts, (pd.vertBase + v - p.vertCount) * 3, tri, k * 3, 3);
                     }
                 }
-            } else {
-                // FIXME: Use Poly if PolyDetail is unavailable
+                intersect(base | i, sp, sq, hit);
+            }
+        } else {
+            // No detail mesh, use a triangle fan of the polygon itself
+            System.arraycopy(tile.data.verts, p.verts[0] * 3, tri, 0, 3);
+            for (int j = 2; j < p.vertCount; ++j) {
+                System.arraycopy(tile.data.verts, p.verts[j - 1] * 3, tri, 3, 3);
+                System.arraycopy(tile.data.verts, p.verts[j] * 3, tri, 6, 3);
+                intersect(base | i, sp, sq, hit);
+            }
+        }
+    }
+
+    private static void intersect(long ref, float[] sp, float[] sq, RaycastHit hit) {
+        float t = Intersections.intersectSegmentTriangle(sp, sq, hit.tri, hit.scratch);
+        // NaN compares false, so misses never replace the nearest hit
+        if (t < hit.t) {
+            hit.t = t;
+            hit.polyRef = ref;
+        }
+    }
+
+    /**
+     * Test every polygon of every tile, kept as a reference for {@link #raycast(NavMesh, float[], float[], RaycastHit)}.
+     *
+     * @return the position of the nearest hit along the segment from 0 to 1, empty if nothing was hit
+     */
+    public static Optional<Float> raycastBruteForce(NavMesh mesh, float[] src, float[] dst) {
+        RaycastHit hit = new RaycastHit();
+        for (int t = 0; t < mesh.getMaxTiles(); ++t) {
+            MeshTile tile = mesh.getTile(t);
+            if (tile != null && tile.data != null && tile.data.header != null) {
+                long base = mesh.getPolyRefBase(tile);
+                for (int i = 0; i < tile.data.header.polyCount; ++i) {
+                    raycastPoly(tile, i, base, src, dst, hit);
+                }
             }
         }
-        return Optional.empty();
+        return hit.polyRef != 0 ? Optional.of(hit.t) : Optional.empty();
     }
 }
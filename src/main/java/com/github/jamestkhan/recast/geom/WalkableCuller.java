@@ -0,0 +1,224 @@
+package com.github.jamestkhan.recast.geom;
+
+import com.github.jamestkhan.recast.NavMeshGenSettings;
+import com.github.jamestkhan.recast.utils.BatchExecutor;
+
+/**
+ * Removes input triangles that can not change the navmesh before they are rasterized.
+ * <p>
+ * Recast marks a triangle walkable when its normal is within {@link NavMeshGenSettings#agentMaxSlope} of up. Walls,
+ * ceilings and undersides that fail the test are still rasterized, but only matter where they meet walkable spans:
+ * as clearance above a floor, as ledges and steps next to it, or as obstacles within the agent radius of it. A steep
+ * triangle is kept when its bounds, grown by the agent radius and two cells, overlap a walkable triangle's bounds
+ * between {@link NavMeshGenSettings#agentMaxClimb} below and {@link NavMeshGenSettings#agentHeight} above it, and
+ * dropped otherwise. The mesh bounds are kept, so the grid and tiles of the build do not move.
+ * </p>
+ * Ex.
+ * <pre>
+ * WalkableCuller culler = new WalkableCuller();
+ * GdxInputGeomProvider culled = culler.cull(geom, settings);
+ * Gdx.app.log("Nav", "Culled " + culler.getCulledCount() + " triangles");
+ * </pre>
+ * Not thread safe, the counts of the last run are kept in the instance.
+ *
+ * @author JamesTKhan
+ * @version October 18, 2026
+ */
+public class WalkableCuller {
+    private final BatchExecutor executor;
+    private int walkableCount;
+    private int culledCount;
+
+    /**
+     * Cull large meshes on {@link BatchExecutor#common()}.
+     */
+    public WalkableCuller() {
+        this(BatchExecutor.common());
+    }
+
+    /**
+     * @param executor the executor to cull large meshes on, null to cull on the calling thread
+     */
+    public WalkableCuller(BatchExecutor executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * Cull the steep triangles of a mesh that are out of reach of its walkable triangles.
+     *
+     * @param geom     the geometry to cull, it is not modified
+     * @param settings the settings the navmesh will be built with
+     * @return a provider over the remaining triangles with the same vertices, bounds, convex volumes and off-mesh
+     * connections, or the given provider if there is nothing to cull
+     */
+    public GdxInputGeomProvider cull(GdxInputGeomProvider geom, NavMeshGenSettings settings) {
+        final float[] vertices = geom.vertices;
+        final int[] faces = geom.faces;
+        final float[] normals = geom.normals;
+        int ntris = faces.length / 3;
+        float walkableThr = (float) Math.cos(Math.toRadians(settings.agentMaxSlope));
+
+        // Same test as Recast's rcMarkWalkableTriangles
+        final boolean[] keep = new boolean[ntris];
+        int walkable = 0;
+        for (int t = 0; t < ntris; t++) {
+            if (normals[t * 3 + 1] > walkableThr) {
+                keep[t] = true;
+                walkable++;
+            }
+        }
+        walkableCount = walkable;
+        culledCount = 0;
+        if (walkable == 0 || walkable == ntris) {
+            return geom;
+        }
+
+        int[] walkableFaces = new int[walkable * 3];
+        for (int t = 0, w = 0; t < ntris; t++) {
+            if (keep[t]) {
+                System.arraycopy(faces, t * 3, walkableFaces, w * 3, 3);
+                w++;
+            }
+        }
+        final ChunkyTriMesh walkableTree = new ChunkyTriMesh(vertices, walkableFaces, walkable,
+                GdxInputGeomProvider.TRIS_PER_CHUNK, executor);
+
+        final float margin = settings.agentRadius + settings.cellSize * 2;
+        final float below = settings.agentMaxClimb + settings.cellHeight;
+        final float above = settings.agentHeight + settings.cellHeight;
+        BatchExecutor.RangeTask task = (from, to) -> {
+            Query query = new Query(vertices, walkableTree, below, above);
+            for (int t = from; t < to; t++) {
+                if (!keep[t]) {
+                    keep[t] = query.reaches(faces, t, margin);
+                }
+            }
+        };
+        if (executor == null || ntris < ChunkyTriMesh.PARALLEL_THRESHOLD) {
+            task.run(0, ntris);
+        } else {
+            executor.run(0, ntris, Math.max(ChunkyTriMesh.PARALLEL_THRESHOLD, ntris / (executor.getParallelism() * 4)),
+                    task);
+        }
+
+        int kept = 0;
+        for (int t = 0; t < ntris; t++) {
+            if (keep[t]) {
+                kept++;
+            }
+        }
+        culledCount = ntris - kept;
+        if (culledCount == 0) {
+            return geom;
+        }
+
+        int[] keptFaces = new int[kept * 3];
+        float[] keptNormals = new float[kept * 3];
+        for (int t = 0, k = 0; t < ntris; t++) {
+            if (keep[t]) {
+                System.arraycopy(faces, t * 3, keptFaces, k * 3, 3);
+                System.arraycopy(normals, t * 3, keptNormals, k * 3, 3);
+                k++;
+            }
+        }
+        ChunkyTriMesh tree = new ChunkyTriMesh(vertices, keptFaces, kept, GdxInputGeomProvider.TRIS_PER_CHUNK,
+                executor);
+        GdxInputGeomProvider culled = new GdxInputGeomProvider(vertices, keptFaces, keptNormals,
+                geom.getMeshBoundsMin(), geom.getMeshBoundsMax(), tree);
+        culled.convexVolumes.addAll(geom.convexVolumes);
+        culled.offMeshConnections.addAll(geom.offMeshConnections);
+        return culled;
+    }
+
+    /**
+     * Looks for a walkable triangle within reach of a steep one, visiting the walkable chunks its bounds overlap.
+     */
+    private static final class Query implements ChunkyTriMesh.ChunkVisitor {
+        private final float[] vertices;
+        private final ChunkyTriMesh walkableTree;
+        private final float below;
+        private final float above;
+        private final float[] bmin = new float[3];
+        private final float[] bmax = new float[3];
+        private final float[] rectMin = new float[2];
+        private final float[] rectMax = new float[2];
+        private boolean found;
+
+        Query(float[] vertices, ChunkyTriMesh walkableTree, float below, float above) {
+            this.vertices = vertices;
+            this.walkableTree = walkableTree;
+            this.below = below;
+            this.above = above;
+        }
+
+        boolean reaches(int[] faces, int t, float margin) {
+            bounds(faces, t * 3, bmin, bmax);
+            rectMin[0] = bmin[0] - margin;
+            rectMin[1] = bmin[2] - margin;
+            rectMax[0] = bmax[0] + margin;
+            rectMax[1] = bmax[2] + margin;
+            found = false;
+            walkableTree.forEachChunkOverlappingRect(rectMin, rectMax, this);
+            return found;
+        }
+
+        @Override
+        public void visit(int node) {
+            if (found) {
+                return;
+            }
+            int[] tris = walkableTree.getTris();
+            int start = walkableTree.getNodeTriStart(node);
+            int end = start + walkableTree.getNodeTriCount(node);
+            for (int i = start; i < end; i++) {
+                int v0 = tris[i * 3] * 3;
+                int v1 = tris[i * 3 + 1] * 3;
+                int v2 = tris[i * 3 + 2] * 3;
+                float minX = Math.min(vertices[v0], Math.min(vertices[v1], vertices[v2]));
+                float maxX = Math.max(vertices[v0], Math.max(vertices[v1], vertices[v2]));
+                float minY = Math.min(vertices[v0 + 1], Math.min(vertices[v1 + 1], vertices[v2 + 1]));
+                float maxY = Math.max(vertices[v0 + 1], Math.max(vertices[v1 + 1], vertices[v2 + 1]));
+                float minZ = Math.min(vertices[v0 + 2], Math.min(vertices[v1 + 2], vertices[v2 + 2]));
+                float maxZ = Math.max(vertices[v0 + 2], Math.max(vertices[v1 + 2], vertices[v2 + 2]));
+                if (maxX >= rectMin[0] && minX <= rectMax[0] && maxZ >= rectMin[1] && minZ <= rectMax[1]
+                        && bmax[1] >= minY - below && bmin[1] <= maxY + above) {
+                    found = true;
+                    return;
+                }
+            }
+        }
+
+        private void bounds(int[] faces, int i, float[] bmin, float[] bmax) {
+            int v = faces[i] * 3;
+            for (int k = 0; k < 3; k++) {
+                bmin[k] = vertices[v + k];
+                bmax[k] = vertices[v + k];
+            }
+            for (int j = 1; j < 3; j++) {
+                v = faces[i + j] * 3;
+                for (int k = 0; k < 3; k++) {
+                    bmin[k] = Math.min(bmin[k], vertices[v + k]);
+                    bmax[k] = Math.max(bmax[k], vertices[v + k]);
+                }
+            }
+        }
+    }
+
+    public BatchExecutor getExecutor() {
+        return executor;
+    }
+
+    /**
+     * @return the number of triangles the last run found walkable
+     */
+    public int getWalkableCount() {
+        return walkableCount;
+    }
+
+    /**
+     * @return the number of triangles removed by the last run
+     */
+    public int getCulledCount() {
+        return culledCount;
+    }
+}
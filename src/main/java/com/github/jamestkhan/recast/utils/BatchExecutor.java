@@ -0,0 +1,133 @@
+package com.github.jamestkhan.recast.utils;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Splits index ranges of batched work over a {@link ForkJoinPool}.
+ * <p>
+ * The range is halved recursively until a chunk is at most {@code grainSize} long, each chunk is then handed to the
+ * task as a whole so it can set up its own scratch state once per chunk. Calls block until the whole range is done.
+ * </p>
+ * A GWT version of this class runs the work serially on the calling thread.
+ *
+ * @author JamesTKhan
+ * @version October 18, 2026
+ */
+public class BatchExecutor {
+
+    /**
+     * Work on a contiguous part of a batch.
+     */
+    public interface RangeTask {
+        /**
+         * @param from first index, inclusive
+         * @param to   last index, exclusive
+         */
+        void run(int from, int to);
+    }
+
+    private static BatchExecutor common;
+
+    private final ForkJoinPool pool;
+
+    /**
+     * @param pool the pool to run batches on
+     */
+    public BatchExecutor(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * @return an executor backed by the common ForkJoinPool
+     */
+    public static synchronized BatchExecutor common() {
+        if (common == null) {
+            common = new BatchExecutor(ForkJoinPool.commonPool());
+        }
+        return common;
+    }
+
+    /**
+     * @return the number of threads work is spread over
+     */
+    public int getParallelism() {
+        return pool.getParallelism();
+    }
+
+    /**
+     * Run the task over the range [start, end), blocking until every chunk is done.
+     *
+     * @param start     first index, inclusive
+     * @param end       last index, exclusive
+     * @param grainSize the maximum number of indices handed to the task at once
+     * @param task      the work to do
+     */
+    public void run(int start, int end, int grainSize, RangeTask task) {
+        if (end <= start) {
+            return;
+        }
+        RangeAction action = new RangeAction(start, end, Math.max(1, grainSize), task);
+        if (ForkJoinTask.getPool() == pool) {
+            // Already on one of our workers, fork from here instead of blocking a worker on a new submission
+            action.invoke();
+        } else {
+            pool.invoke(action);
+        }
+    }
+
+    /**
+     * Run two pieces of work in parallel, blocking until both are done. May be called from within the work itself to
+     * fork recursively, the calling worker then helps run the forked work instead of blocking.
+     */
+    public void invokeAll(Runnable first, Runnable second) {
+        PairAction action = new PairAction(first, second);
+        if (ForkJoinTask.getPool() == pool) {
+            action.invoke();
+        } else {
+            pool.invoke(action);
+        }
+    }
+
+    private static class PairAction extends RecursiveAction {
+        private final Runnable first;
+        private final Runnable second;
+
+        PairAction(Runnable first, Runnable second) {
+            this.first = first;
+            this.second = second;
+        }
+
+        @Override
+        protected void compute() {
+            ForkJoinTask<?> forked = ForkJoinTask.adapt(first).fork();
+            second.run();
+            forked.join();
+        }
+    }
+
+    private static class RangeAction extends RecursiveAction {
+        private final int from;
+        private final int to;
+        private final int grainSize;
+        private final RangeTask task;
+
+        RangeAction(int from, int to, int grainSize, RangeTask task) {
+            this.from = from;
+            this.to = to;
+            this.grainSize = grainSize;
+            this.task = task;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= grainSize) {
+                task.run(from, to);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new RangeAction(from, mid, grainSize, task), new RangeAction(mid, to, grainSize, task));
+        }
+    }
+}
@@ -6,11 +6,15 @@ import com.badlogic.gdx.graphics.VertexAttributes;
 import com.badlogic.gdx.graphics.g3d.ModelInstance;
 import com.badlogic.gdx.math.Vector3;
 import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.FloatArray;
+import com.badlogic.gdx.utils.IntArray;
 import com.github.jamestkhan.recast.NavMeshData;
 import com.github.jamestkhan.recast.NavMeshGenSettings;
 import com.github.jamestkhan.recast.builders.SoloNavMeshBuilder;
 import com.github.jamestkhan.recast.builders.TileNavMeshBuilder;
 import com.github.jamestkhan.recast.geom.GdxInputGeomProvider;
+import com.github.jamestkhan.recast.geom.GeomPreprocessor;
+import com.github.jamestkhan.recast.geom.WalkableCuller;
 import org.recast4j.detour.NavMesh;
 import org.recast4j.detour.Tupple2;
 import org.recast4j.recast.RecastBuilder;
@@ -50,9 +54,18 @@ public class NavMeshGenerator {
      * @param staticInstances the list of models to build the navmesh from
      */
     public NavMeshGenerator(Array<ModelInstance> staticInstances) {
+        this(staticInstances, null);
+    }
+
+    /**
+     * Build a navigation mesh from a list of ModelInstances, cleaning up their geometry first.
+     * @param staticInstances the list of models to build the navmesh from
+     * @param preprocessor welds and removes redundant triangles from the merged geometry, null to use it as is
+     */
+    public NavMeshGenerator(Array<ModelInstance> staticInstances, GeomPreprocessor preprocessor) {
         // Build lists for Recast
-        Array<Float> vertexList = new Array<>();
-        Array<Integer> indexList = new Array<>();
+        FloatArray vertexList = new FloatArray();
+        IntArray indexList = new IntArray();
 
         // for merging models/meshes, we must track the offset of indices per each model parsed
         int indicesOffset = 0;
@@ -61,7 +74,7 @@ public class NavMeshGenerator {
             indicesOffset = getVerticesIndicesFromModel(modelInstance, vertexList, indexList, indicesOffset);
         }
 
-        geom = new GdxInputGeomProvider(vertexList, indexList);
+        geom = createGeom(vertexList, indexList, preprocessor);
     }
 
     /**
@@ -69,13 +82,22 @@ public class NavMeshGenerator {
      * @param modelInstance the model to build the navmesh from
      */
     public NavMeshGenerator(ModelInstance modelInstance) {
+        this(modelInstance, null);
+    }
+
+    /**
+     * Build a navigation mesh from a ModelInstance, cleaning up its geometry first.
+     * @param modelInstance the model to build the navmesh from
+     * @param preprocessor welds and removes redundant triangles from the geometry, null to use it as is
+     */
+    public NavMeshGenerator(ModelInstance modelInstance, GeomPreprocessor preprocessor) {
         // Build lists for Recast
-        Array<Float> vertexList = new Array<>();
-        Array<Integer> indexList = new Array<>();
+        FloatArray vertexList = new FloatArray();
+        IntArray indexList = new IntArray();
 
         getVerticesIndicesFromModel(modelInstance, vertexList, indexList, 0);
 
-        geom = new GdxInputGeomProvider(vertexList, indexList);
+        geom = createGeom(vertexList, indexList, preprocessor);
     }
 
     /**
@@ -103,6 +125,10 @@ public class NavMeshGenerator {
      * @return the navmesh data, contains the input geometry, build results, and navmesh
      */
     public static NavMeshData buildNavMesh(NavMeshGenSettings settings, GdxInputGeomProvider geom) {
+        if (settings.cullUnwalkableTriangles) {
+            geom = new WalkableCuller().cull(geom, settings);
+        }
+
         // build nav mesh
         Tupple2<List<RecastBuilder.RecastBuilderResult>, NavMesh> buildResult;
 
@@ -117,7 +143,15 @@ public class NavMeshGenerator {
         return new NavMeshData(buildResult.second);
     }
 
-    private static int getVerticesIndicesFromModel(ModelInstance modelInstance, Array<Float> vertOut, Array<Integer> indexOut, int indicesOffset) {
+    private static GdxInputGeomProvider createGeom(FloatArray vertexList, IntArray indexList,
+            GeomPreprocessor preprocessor) {
+        if (preprocessor == null) {
+            return new GdxInputGeomProvider(vertexList, indexList);
+        }
+        return preprocessor.process(vertexList, indexList);
+    }
+
+    private static int getVerticesIndicesFromModel(ModelInstance modelInstance, FloatArray vertOut, IntArray indexOut, int indicesOffset) {
         for (Mesh mesh : modelInstance.model.meshes) {
             VertexAttributes vertexAttributes = mesh.getVertexAttributes();
             int offset = vertexAttributes.getOffset(VertexAttributes.Usage.Position);
@@ -130,6 +164,8 @@ public class NavMeshGenerator {
 
             mesh.getVertices(vertices);
             mesh.getIndices(indices);
+            vertOut.ensureCapacity(mesh.getNumVertices() * 3);
+            indexOut.ensureCapacity(indices.length);
 
             // Get XYZ vertices position data
             for (int i = 0; i < vertices.length; i+=vertexSize) {
@@ -141,14 +177,10 @@ public class NavMeshGenerator {
                 tmpVec.set(x,y,z);
                 tmpVec.mul(modelInstance.transform);
 
-                vertOut.add(tmpVec.x);
-                vertOut.add(tmpVec.y);
-                vertOut.add(tmpVec.z);
+                vertOut.add(tmpVec.x, tmpVec.y, tmpVec.z);
             }
 
-            for (short index : indices) {
-                indexOut.add((int) index + indicesOffset);
-            }
+            addIndices(indices, indicesOffset, indexOut);
 
             indicesOffset += vertices.length / vertexSize;
         }
@@ -156,4 +188,14 @@ public class NavMeshGenerator {
         return indicesOffset;
     }
 
+    /**
+     * Append mesh indices offset by the number of vertices already collected. Indices are read as unsigned shorts so
+     * meshes with more than 32767 vertices are not wrapped to negative indices.
+     */
+    static void addIndices(short[] indices, int indicesOffset, IntArray indexOut) {
+        for (short index : indices) {
+            indexOut.add((index & 0xffff) + indicesOffset);
+        }
+    }
+
 }
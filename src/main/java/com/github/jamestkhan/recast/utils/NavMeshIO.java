@@ -1,10 +1,16 @@
 package com.github.jamestkhan.recast.utils;
 
 import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.utils.GdxRuntimeException;
 
+import com.github.jamestkhan.recast.detour.LandmarkTable;
+import com.github.jamestkhan.recast.detour.PolyGraph;
+import com.github.jamestkhan.recast.geom.GdxInputGeomProvider;
+import com.github.jamestkhan.recast.geom.GeomSnapshot;
 import org.recast4j.detour.NavMesh;
 import org.recast4j.detour.io.MeshSetReader;
 import org.recast4j.detour.io.MeshSetWriter;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.nio.ByteOrder;
 
@@ -36,4 +42,84 @@ public class NavMeshIO {
         MeshSetWriter writer = new MeshSetWriter();
         writer.write(file.write(false), navMesh, ByteOrder.BIG_ENDIAN, false);
     }
+
+    /**
+     * Save landmark tables next to the navmesh file, with the same name and the .alt extension.
+     *
+     * @param landmarks the tables to save
+     * @param navFile   the navmesh file the tables belong to
+     */
+    public static void saveLandmarks(LandmarkTable landmarks, FileHandle navFile) {
+        landmarksFile(navFile).writeBytes(landmarks.toBytes(), false);
+    }
+
+    /**
+     * Load the landmark tables saved next to a navmesh file.
+     *
+     * @param navFile the navmesh file the tables belong to
+     * @param graph   the polygon graph of the loaded navmesh
+     * @return the tables, or null if none were saved
+     */
+    public static LandmarkTable loadLandmarks(FileHandle navFile, PolyGraph graph) {
+        FileHandle file = landmarksFile(navFile);
+        if (!file.exists()) {
+            return null;
+        }
+        return LandmarkTable.fromBytes(file.readBytes(), graph);
+    }
+
+    public static FileHandle landmarksFile(FileHandle navFile) {
+        return navFile.sibling(navFile.nameWithoutExtension() + ".alt");
+    }
+
+    /**
+     * Save a snapshot of processed geometry. The snapshot is written to a temporary sibling first and then moved over
+     * the file, so an interrupted write does not leave a damaged snapshot behind.
+     *
+     * @param key the key to store the snapshot under, a {@link GeomSnapshot#hash} of the geometry's source
+     */
+    public static void saveGeometry(GdxInputGeomProvider geom, long key, FileHandle file) {
+        FileHandle tmp = file.sibling(file.name() + ".tmp");
+        tmp.writeBytes(GeomSnapshot.toBytes(geom, key), false);
+        tmp.moveTo(file);
+    }
+
+    /**
+     * Load a snapshot of processed geometry.
+     *
+     * @param key the key the snapshot must have been stored under
+     * @return the geometry, or null if the file does not exist, is stale or damaged
+     */
+    public static GdxInputGeomProvider loadGeometry(FileHandle file, long key) {
+        if (!file.exists()) {
+            return null;
+        }
+        return GeomSnapshot.fromBytes(file.readBytes(), key);
+    }
+
+    /**
+     * Import an obj model through a snapshot cache: the snapshot is loaded if it was made from the same model file,
+     * otherwise the model is imported and the snapshot rewritten. A cache file that can not be read as a snapshot is
+     * rewritten too.
+     *
+     * @param objFile   the obj model
+     * @param cacheFile the snapshot file, created or replaced as needed
+     * @return the processed geometry
+     */
+    public static GdxInputGeomProvider loadObjCached(FileHandle objFile, FileHandle cacheFile) {
+        byte[] source = objFile.readBytes();
+        long key = GeomSnapshot.hash(source);
+        GdxInputGeomProvider geom;
+        try {
+            geom = loadGeometry(cacheFile, key);
+        } catch (GdxRuntimeException e) {
+            // Not a snapshot or not readable, replace it
+            geom = null;
+        }
+        if (geom == null) {
+            geom = new ObjImporter().load(new ByteArrayInputStream(source));
+            saveGeometry(geom, key, cacheFile);
+        }
+        return geom;
+    }
 }
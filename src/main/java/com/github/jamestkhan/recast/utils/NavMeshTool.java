@@ -1,33 +1,28 @@
 package com.github.jamestkhan.recast.utils;
 
-import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.math.Vector3;
 import com.badlogic.gdx.utils.Array;
 import com.badlogic.gdx.utils.GdxRuntimeException;
 import com.github.jamestkhan.recast.NavMeshData;
+import com.github.jamestkhan.recast.PathCache;
 import com.github.jamestkhan.recast.PathFinderSettings;
-import com.github.jamestkhan.recast.builders.SampleAreaModifications;
-import org.recast4j.detour.DefaultQueryFilter;
-import org.recast4j.detour.DetourCommon;
-import org.recast4j.detour.MoveAlongSurfaceResult;
+import com.github.jamestkhan.recast.PathResult;
+import com.github.jamestkhan.recast.detour.LandmarkTable;
+import com.github.jamestkhan.recast.detour.PolyAStar;
+import com.github.jamestkhan.recast.detour.TileHierarchy;
+import org.recast4j.detour.FindNearestPolyResult;
 import org.recast4j.detour.NavMesh;
 import org.recast4j.detour.NavMeshQuery;
+import org.recast4j.detour.QueryFilter;
 import org.recast4j.detour.Result;
-import org.recast4j.detour.Tupple2;
 
-import java.util.ArrayList;
 import java.util.List;
-import java.util.Optional;
-
-import static org.recast4j.detour.DetourCommon.vCopy;
-import static org.recast4j.detour.DetourCommon.vMad;
 
 /**
  * @author James Pooley
  * @version June 20, 2022
  */
 public class NavMeshTool implements Tool {
-    private final DefaultQueryFilter queryFilter;
     private final NavMeshData navMeshData;
     private final PathFinderSettings settings;
 
@@ -36,20 +31,58 @@ public class NavMeshTool implements Tool {
     private final float[] startPos = new float[3];
     private final float[] endPos = new float[3];
 
-    private final float[] m_polyPickExt = new float[] { 2, 4, 2 };
     private boolean enableRaycast = true;
+    private PathCache pathCache;
+    private TileHierarchy.CorridorSearch corridorSearch;
+    private final TileHierarchy.CorridorFilter corridorFilter = new TileHierarchy.CorridorFilter();
+    private LandmarkTable landmarks;
+    private PolyAStar landmarkSearch;
+    private long[] corridorRefs = new long[0];
+
+    // Scratch state reused by every query so that path smoothing does not allocate per step
+    private final PolyCorridor corridor = new PolyCorridor();
+    private final PathSmoother smoother;
+    private final PathResult scratchResult = new PathResult();
+    private final float[] tmpPos = new float[3];
+    private final float[] tmpExt = new float[3];
 
     public NavMeshTool(PathFinderSettings settings, NavMeshData sample) {
         this.navMeshData = sample;
         this.settings = settings;
-        queryFilter = new DefaultQueryFilter(SampleAreaModifications.SAMPLE_POLYFLAGS_ALL,
-                SampleAreaModifications.SAMPLE_POLYFLAGS_DISABLED, new float[] { 1f, 1f, 1f, 1f, 2f, 1.5f });
+        this.smoother = new PathSmoother(settings);
     }
 
     public PathFinderSettings getSettings() {
         return settings;
     }
 
+    /**
+     * @param tileHierarchy abstract tile graph used to restrict long searches to a corridor of tiles, null to disable
+     */
+    public void setTileHierarchy(TileHierarchy tileHierarchy) {
+        if (corridorSearch == null ? tileHierarchy != null : corridorSearch.getHierarchy() != tileHierarchy) {
+            corridorSearch = tileHierarchy != null ? new TileHierarchy.CorridorSearch(tileHierarchy) : null;
+        }
+    }
+
+    /**
+     * @param landmarks landmark tables to search with instead of Detour's findPath while they match the navmesh,
+     *                  null to disable
+     */
+    public void setLandmarks(LandmarkTable landmarks) {
+        if (landmarks != this.landmarks) {
+            this.landmarks = landmarks;
+            landmarkSearch = landmarks != null ? new PolyAStar(landmarks.getGraph(), landmarks) : null;
+        }
+    }
+
+    /**
+     * @param pathCache cache consulted before searching and filled after smoothing, null to disable caching
+     */
+    public void setPathCache(PathCache pathCache) {
+        this.pathCache = pathCache;
+    }
+
     public void setPositions(Vector3 start, Vector3 end) {
             startPosSet = true;
             startPos[0] = start.x;
@@ -62,126 +95,150 @@ public class NavMeshTool implements Tool {
             endPos[2] = end.z;
     }
 
+    /**
+     * Set the positions from packed [x,y,z] arrays.
+     *
+     * @param starts      array holding the start position
+     * @param startOffset index of the start x coordinate
+     * @param ends        array holding the end position
+     * @param endOffset   index of the end x coordinate
+     */
+    public void setPositions(float[] starts, int startOffset, float[] ends, int endOffset) {
+        startPosSet = true;
+        startPos[0] = starts[startOffset];
+        startPos[1] = starts[startOffset + 1];
+        startPos[2] = starts[startOffset + 2];
+
+        endPosSet = true;
+        endPos[0] = ends[endOffset];
+        endPos[1] = ends[endOffset + 1];
+        endPos[2] = ends[endOffset + 2];
+    }
+
+    /**
+     * Calculate the path between the positions set with {@link #setPositions(Vector3, Vector3)}.
+     * Allocates a new array for every point of the path, prefer {@link #recalculate(PathResult)} for
+     * frequently repathing agents.
+     *
+     * @param pathOut list of floats [x,y,z] that will be populated
+     */
     public void recalculate(Array<float[]> pathOut) {
-        if (!startPosSet || !endPosSet) throw new GdxRuntimeException("Start and end positions must be set.");
+        recalculate(scratchResult);
+        for (int i = 0; i < scratchResult.size; i++) {
+            pathOut.add(scratchResult.get(i, new float[3]));
+        }
+    }
 
-        NavMesh m_navMesh = navMeshData.getNavMesh();
-        NavMeshQuery m_navQuery = navMeshData.getNavMeshQuery();
+    /**
+     * Calculate the path between the positions set with {@link #setPositions(Vector3, Vector3)}, writing the
+     * smoothed points into a reusable result. The smoothing loop only works on preallocated scratch state.
+     *
+     * @param out the result to populate, it is cleared first
+     */
+    public void recalculate(PathResult out) {
+        out.clear();
+        if (!startPosSet || !endPosSet) throw new GdxRuntimeException("Start and end positions must be set.");
 
-        long startPolygonRef = m_navQuery.findNearestPoly(startPos, m_polyPickExt, queryFilter).result.getNearestRef();
-        long endPolygonRef = m_navQuery.findNearestPoly(endPos, m_polyPickExt, queryFilter).result.getNearestRef();
+        QueryFilter queryFilter = settings.getQueryFilter();
+        float[] m_polyPickExt = settings.getPolyPickExtents();
+        NavMeshQuery m_navQuery = navMeshData.obtainQuery();
+        try {
+            NearestPolyCache nearestPolyCache = navMeshData.getNearestPolyCache();
+            long startPolygonRef = nearestPolyCache.findNearestPoly(m_navQuery, startPos, m_polyPickExt, queryFilter, null);
+            long endPolygonRef = nearestPolyCache.findNearestPoly(m_navQuery, endPos, m_polyPickExt, queryFilter, null);
+
+            if (settings.isRejectUnreachable()
+                    && !navMeshData.getIslandIndex().isReachable(startPolygonRef, endPolygonRef, queryFilter)) {
+                out.flags = PathResult.FLAG_UNREACHABLE;
+                return;
+            }
 
-        List<Long> polys1 = m_navQuery.findPath(startPolygonRef, endPolygonRef, startPos, endPos, queryFilter,
-                enableRaycast ? NavMeshQuery.DT_FINDPATH_ANY_ANGLE : 0, Float.MAX_VALUE).result;
+            if (pathCache != null && pathCache.get(startPolygonRef, endPolygonRef, queryFilter, startPos, endPos, out))
+                return;
 
-        if (polys1 == null)
-            return;
+            if (!searchWithLandmarks(startPolygonRef, endPolygonRef, queryFilter)) {
+                List<Long> polys = findPath(m_navQuery, startPolygonRef, endPolygonRef, queryFilter);
+                if (polys == null || polys.isEmpty())
+                    return;
+                corridor.set(polys);
+            }
+            out.flags = corridor.last() == endPolygonRef ? PathResult.FLAG_COMPLETE : PathResult.FLAG_PARTIAL;
+
+            // Partial paths are not cached, a tile added elsewhere may complete them
+            boolean cache = pathCache != null && !out.hasFlag(PathResult.FLAG_PARTIAL);
+            int corridorCount = 0;
+            if (cache) {
+                if (corridorRefs.length < corridor.size())
+                    corridorRefs = new long[corridor.size()];
+                corridorCount = corridor.toArray(corridorRefs);
+            }
 
-        if (!polys1.isEmpty()) {
-            List<Long> polys = new ArrayList<>(polys1);
             // Iterate over the path to find smooth path on the detail mesh surface.
-            float[] iterPos = m_navQuery.closestPointOnPoly(startPolygonRef, startPos).result.getClosest();
-            float[] targetPos = m_navQuery.closestPointOnPoly(polys.get(polys.size() - 1), endPos).result
-                    .getClosest();
-
-            int maxIterations = settings.getMaxIterations();
-            float stepSize = settings.getStepSize();
-            float SLOP = 0.1f;
-
-            pathOut.add(iterPos);
-
-            // Move towards target a small advancement at a time until target reached or
-            // when ran out of memory to store the path.
-            while (!polys.isEmpty() && pathOut.size < maxIterations) {
-                // Find location to steer towards.
-                Optional<PathUtils.SteerTarget> steerTarget = PathUtils.getSteerTarget(m_navQuery, iterPos, targetPos,
-                        SLOP, polys);
-                if (!steerTarget.isPresent()) {
-                    break;
-                }
-                boolean endOfPath = (steerTarget.get().steerPosFlag & NavMeshQuery.DT_STRAIGHTPATH_END) != 0;
-                boolean offMeshConnection = (steerTarget.get().steerPosFlag
-                        & NavMeshQuery.DT_STRAIGHTPATH_OFFMESH_CONNECTION) != 0;
-
-                // Find movement delta.
-                float[] delta = DetourCommon.vSub(steerTarget.get().steerPos, iterPos);
-                float len = (float) Math.sqrt(RecastMath.vDot(delta, delta));
-                // If the steer target is end of path or off-mesh link, do not move past the location.
-                if ((endOfPath || offMeshConnection) && len < stepSize) {
-                    len = 1;
-                } else {
-                    len = stepSize / len;
-                }
-                float[] moveTgt = vMad(iterPos, delta, len);
-                // Move
-                Result<MoveAlongSurfaceResult> result = m_navQuery.moveAlongSurface(polys.get(0), iterPos,
-                        moveTgt, queryFilter);
-                MoveAlongSurfaceResult moveAlongSurface = result.result;
-
-                iterPos = new float[3];
-                iterPos[0] = moveAlongSurface.getResultPos()[0];
-                iterPos[1] = moveAlongSurface.getResultPos()[1];
-                iterPos[2] = moveAlongSurface.getResultPos()[2];
-
-                List<Long> visited = result.result.getVisited();
-                polys = PathUtils.fixupCorridor(polys, visited);
-                polys = PathUtils.fixupShortcuts(polys, m_navQuery);
-
-                Result<Float> polyHeight = m_navQuery.getPolyHeight(polys.get(0), moveAlongSurface.getResultPos());
-                if (polyHeight.succeeded()) {
-                    iterPos[1] = polyHeight.result;
-                }
-
-                // Handle end of path and off-mesh links when close enough.
-                if (endOfPath && PathUtils.inRange(iterPos, steerTarget.get().steerPos, SLOP, 1.0f)) {
-                    // Reached end of path.
-                    vCopy(iterPos, targetPos);
-                    if (pathOut.size < maxIterations) {
-                        pathOut.add(iterPos);
-                    }
-                    break;
-                } else if (offMeshConnection
-                        && PathUtils.inRange(iterPos, steerTarget.get().steerPos, SLOP, 1.0f)) {
-                    // Reached off-mesh connection.
-                    // Advance the path up to and over the off-mesh connection.
-                    long prevRef = 0;
-                    long polyRef = polys.get(0);
-                    int npos = 0;
-                    while (npos < polys.size() && polyRef != steerTarget.get().steerPosRef) {
-                        prevRef = polyRef;
-                        polyRef = polys.get(npos);
-                        npos++;
-                    }
-                    polys = polys.subList(npos, polys.size());
-
-                    // Handle the connection.
-                    Result<Tupple2<float[], float[]>> offMeshCon = m_navMesh
-                            .getOffMeshConnectionPolyEndPoints(prevRef, polyRef);
-                    if (offMeshCon.succeeded()) {
-                        float[] startPos = offMeshCon.result.first;
-                        float[] endPos = offMeshCon.result.second;
-                        if (pathOut.size < maxIterations) {
-                            pathOut.add(startPos);
-                            // Hack to make the dotted path not visible during off-mesh connection.
-                            if ((pathOut.size & 1) != 0) {
-                                pathOut.add(startPos);
-                            }
-                        }
-                        // Move position at the other side of the off-mesh link.
-                        vCopy(iterPos, endPos);
-                        iterPos[1] = m_navQuery.getPolyHeight(polys.get(0), iterPos).result;
-                    }
-                }
-
-                // Store results.
-                if (pathOut.size < maxIterations) {
-                    pathOut.add(iterPos);
-                }
-            }
+            smoother.begin(m_navQuery, queryFilter, corridor, startPolygonRef, startPos, endPos, out);
+            smoother.update(Integer.MAX_VALUE);
+
+            if (cache)
+                pathCache.put(startPolygonRef, endPolygonRef, queryFilter, startPos, endPos, corridorRefs,
+                        corridorCount, out);
+        } finally {
+            smoother.cancel();
+            navMeshData.freeQuery(m_navQuery);
+        }
+    }
 
-            if (pathOut.size >= maxIterations) {
-                Gdx.app.debug(this.getClass().getSimpleName(), "Max path iterations reached.");
-            }
+    /**
+     * Search the corridor with the landmark heuristic, if landmarks are set and still match the navmesh. An
+     * unreachable end polygon yields the partial corridor, so Detour's search only runs when landmarks do not apply.
+     *
+     * @return true if a complete or partial corridor was written to {@link #corridor}
+     */
+    private boolean searchWithLandmarks(long startRef, long endRef, QueryFilter filter) {
+        if (landmarkSearch == null || landmarks.getGraph() != navMeshData.getIslandIndex().getGraph()
+                || !landmarkSearch.setFilter(filter)) {
+            return false;
+        }
+        corridor.clear();
+        landmarkSearch.findPath(startRef, endRef, corridor);
+        return !corridor.isEmpty();
+    }
+
+    /**
+     * Run Detour's search, restricted to a corridor of tiles when the tile hierarchy applies.
+     */
+    private List<Long> findPath(NavMeshQuery m_navQuery, long startPolygonRef, long endPolygonRef,
+            QueryFilter queryFilter) {
+        List<Long> polys = null;
+        if (corridorSearch != null && corridorSearch.getHierarchy().getFilter() == queryFilter
+                && corridorSearch.findCorridorTiles(startPolygonRef, endPolygonRef, endPos, corridorFilter.getTiles())) {
+            corridorFilter.setDelegate(queryFilter);
+            polys = searchPath(m_navQuery, startPolygonRef, endPolygonRef, corridorFilter);
+            // The corridor is a heuristic, search the whole navmesh if it does not lead to the end polygon
+            if (polys != null && !polys.isEmpty() && polys.get(polys.size() - 1) != endPolygonRef)
+                polys = null;
+        }
+        if (polys == null || polys.isEmpty())
+            polys = searchPath(m_navQuery, startPolygonRef, endPolygonRef, queryFilter);
+        return polys;
+    }
+
+    private List<Long> searchPath(NavMeshQuery m_navQuery, long startRef, long endRef, QueryFilter filter) {
+        return m_navQuery.findPath(startRef, endRef, startPos, endPos, filter,
+                enableRaycast ? NavMeshQuery.DT_FINDPATH_ANY_ANGLE : 0, Float.MAX_VALUE).result;
+    }
+
+    /**
+     * Finds the nearest polygon using a query leased from the navmesh data and this tool's scratch arrays.
+     *
+     * @see com.github.jamestkhan.recast.Pathfinder#findNearestPoly(Vector3, Vector3, QueryFilter)
+     */
+    public Result<FindNearestPolyResult> findNearestPoly(Vector3 center, Vector3 halfExtents, QueryFilter filter) {
+        PathUtils.vectorToFloatArray(center, tmpPos);
+        PathUtils.vectorToFloatArray(halfExtents, tmpExt);
+        NavMeshQuery m_navQuery = navMeshData.obtainQuery();
+        try {
+            return m_navQuery.findNearestPoly(tmpPos, tmpExt, filter);
+        } finally {
+            navMeshData.freeQuery(m_navQuery);
         }
     }
 
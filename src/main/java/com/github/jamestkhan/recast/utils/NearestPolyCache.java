@@ -0,0 +1,223 @@
+package com.github.jamestkhan.recast.utils;
+
+import com.github.jamestkhan.recast.NavMeshData;
+import org.recast4j.detour.FindNearestPolyResult;
+import org.recast4j.detour.MeshTile;
+import org.recast4j.detour.NavMeshQuery;
+import org.recast4j.detour.Poly;
+import org.recast4j.detour.QueryFilter;
+import org.recast4j.detour.Result;
+import org.recast4j.detour.Tupple2;
+
+import java.util.Arrays;
+
+/**
+ * Caches the polygon found for a position, for entities that query the navmesh from nearly the same place over and
+ * over.
+ * <p>
+ * Positions are snapped to cells of {@link #getCellSize()} units which map to the slots of a direct mapped table,
+ * each slot remembering the last polygon found in its cell. A lookup first revalidates that polygon with a point in
+ * polygon test and a height check, and only falls back to {@link NavMeshQuery#findNearestPoly} when it fails.
+ * Optionally, when that finds nothing the search extents are doubled up to {@link #setMaxWidenings(int)} times before
+ * giving up. The cache is cleared whenever the navmesh or one of its tiles changes.
+ * </p>
+ * Thread safe without locking: each slot holds an immutable entry that lookups read and misses replace as a whole. A
+ * thread may miss an entry another thread just published, and the hit and miss counts are approximate when several
+ * threads share the cache, but a cached polygon is always revalidated before it is returned.
+ *
+ * @author JamesTKhan
+ * @version October 18, 2026
+ */
+public class NearestPolyCache implements NavMeshData.Listener {
+    private final NavMeshData navMeshData;
+    private final float cellSize;
+    private final int mask;
+    private final Entry[] entries;
+
+    private int maxWidenings = 0;
+    private long hits;
+    private long misses;
+
+    /**
+     * A cell and the last polygon found in it. The fields are final so a racy read never sees half an entry.
+     */
+    private static final class Entry {
+        final long cell;
+        final long ref;
+
+        Entry(long cell, long ref) {
+            this.cell = cell;
+            this.ref = ref;
+        }
+    }
+
+    /**
+     * @param navMeshData the navmesh data to find polygons on
+     * @param size        the number of slots in the table, rounded up to a power of two
+     * @param cellSize    the size of the cells positions are snapped to
+     */
+    public NearestPolyCache(NavMeshData navMeshData, int size, float cellSize) {
+        this.navMeshData = navMeshData;
+        this.cellSize = cellSize;
+        int capacity = Integer.highestOneBit(Math.max(1, size - 1)) << 1;
+        this.mask = capacity - 1;
+        this.entries = new Entry[capacity];
+        navMeshData.addListener(this);
+    }
+
+    /**
+     * Find the polygon nearest to a position.
+     *
+     * @param query       the query to search with on a miss
+     * @param pos         the position [x,y,z]
+     * @param halfExtents the search distance along each axis
+     * @param filter      the polygon filter to apply
+     * @param nearestPos  receives the nearest point on the polygon, may be null
+     * @return the nearest polygon ref, 0 if there is none within the extents, widened if enabled
+     */
+    public long findNearestPoly(NavMeshQuery query, float[] pos, float[] halfExtents, QueryFilter filter,
+            float[] nearestPos) {
+        int x = cell(pos[0]);
+        int y = cell(pos[1]);
+        int z = cell(pos[2]);
+        long cell = pack(x, y, z);
+        int slot = hash(x, y, z) & mask;
+
+        Entry entry = entries[slot];
+        if (entry != null && entry.cell == cell
+                && revalidate(query, entry.ref, pos, halfExtents[1], filter, nearestPos)) {
+            hits++;
+            return entry.ref;
+        }
+
+        long ref = search(query, pos, halfExtents, filter, nearestPos);
+        misses++;
+        if (ref != 0) {
+            entries[slot] = new Entry(cell, ref);
+        }
+        return ref;
+    }
+
+    private long search(NavMeshQuery query, float[] pos, float[] halfExtents, QueryFilter filter, float[] nearestPos) {
+        float[] extents = halfExtents;
+        for (int i = 0; i <= maxWidenings; i++) {
+            Result<FindNearestPolyResult> result = query.findNearestPoly(pos, extents, filter);
+            if (result.succeeded() && result.result.getNearestRef() != 0) {
+                if (nearestPos != null) {
+                    float[] p = result.result.getNearestPos();
+                    nearestPos[0] = p[0];
+                    nearestPos[1] = p[1];
+                    nearestPos[2] = p[2];
+                }
+                return result.result.getNearestRef();
+            }
+            // Widening is the rare case, keep the caller's extents untouched
+            extents = new float[] { extents[0] * 2, extents[1] * 2, extents[2] * 2 };
+        }
+        return 0;
+    }
+
+    /**
+     * @return true if the position lies over the polygon, within the vertical search distance of its surface
+     */
+    private boolean revalidate(NavMeshQuery query, long ref, float[] pos, float maxHeightDiff, QueryFilter filter,
+            float[] nearestPos) {
+        Result<Tupple2<MeshTile, Poly>> tileAndPoly = query.getAttachedNavMesh().getTileAndPolyByRef(ref);
+        if (tileAndPoly.failed()) {
+            return false;
+        }
+        MeshTile tile = tileAndPoly.result.first;
+        Poly poly = tileAndPoly.result.second;
+        if (poly.getType() == Poly.DT_POLYTYPE_OFFMESH_CONNECTION || !filter.passFilter(ref, tile, poly)
+                || !containsXZ(tile.data.verts, poly, pos[0], pos[2])) {
+            return false;
+        }
+
+        Result<Float> height = query.getPolyHeight(ref, pos);
+        if (height.failed() || Math.abs(height.result - pos[1]) > maxHeightDiff) {
+            return false;
+        }
+        if (nearestPos != null) {
+            nearestPos[0] = pos[0];
+            nearestPos[1] = height.result;
+            nearestPos[2] = pos[2];
+        }
+        return true;
+    }
+
+    /**
+     * Crossing number test of a point against the polygon outline, projected on the xz plane.
+     */
+    private static boolean containsXZ(float[] verts, Poly poly, float px, float pz) {
+        boolean inside = false;
+        for (int i = 0, j = poly.vertCount - 1; i < poly.vertCount; j = i++) {
+            int vi = poly.verts[i] * 3;
+            int vj = poly.verts[j] * 3;
+            float xi = verts[vi], zi = verts[vi + 2];
+            float xj = verts[vj], zj = verts[vj + 2];
+            if (((zi > pz) != (zj > pz)) && (px < (xj - xi) * (pz - zi) / (zj - zi) + xi)) {
+                inside = !inside;
+            }
+        }
+        return inside;
+    }
+
+    private int cell(float value) {
+        return (int) Math.floor(value / cellSize);
+    }
+
+    private static long pack(int x, int y, int z) {
+        return ((long) (x & 0x1FFFFF) << 42) | ((long) (y & 0x1FFFFF) << 21) | (z & 0x1FFFFF);
+    }
+
+    private static int hash(int x, int y, int z) {
+        int h = x * 73856093 ^ y * 19349663 ^ z * 83492791;
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Stop listening to the navmesh data, the cache must no longer be used afterwards.
+     */
+    public void dispose() {
+        navMeshData.removeListener(this);
+        clear();
+    }
+
+    public void clear() {
+        Arrays.fill(entries, null);
+    }
+
+    @Override
+    public void navMeshChanged(NavMeshData navMeshData) {
+        clear();
+    }
+
+    @Override
+    public void tileChanged(NavMeshData navMeshData, int tileIndex) {
+        clear();
+    }
+
+    public float getCellSize() {
+        return cellSize;
+    }
+
+    public int getMaxWidenings() {
+        return maxWidenings;
+    }
+
+    /**
+     * @param maxWidenings how many times the search extents are doubled when nothing is found, 0 to never widen. Off
+     *                     by default, a widened search may return a polygon far outside the requested extents
+     */
+    public void setMaxWidenings(int maxWidenings) {
+        this.maxWidenings = maxWidenings;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+}
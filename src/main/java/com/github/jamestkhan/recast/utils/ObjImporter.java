@@ -17,7 +17,8 @@ freely, subject to the following restrictions:
 */
 package com.github.jamestkhan.recast.utils;
 
-import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.FloatArray;
+import com.badlogic.gdx.utils.IntArray;
 import com.github.jamestkhan.recast.geom.GdxInputGeomProvider;
 
 import java.io.BufferedReader;
@@ -28,8 +29,8 @@ import java.io.InputStreamReader;
 public class ObjImporter {
 
     private class ObjImporterContext {
-        Array<Float> vertexPositions = new Array<>();
-        Array<Integer> meshFaces = new Array<>();
+        FloatArray vertexPositions = new FloatArray();
+        IntArray meshFaces = new IntArray();
     }
 
     public GdxInputGeomProvider load(InputStream is) {
@@ -67,21 +68,14 @@ public class ObjImporter {
 
     private void readVertex(String line, ObjImporterContext context) {
         if (line.startsWith("v ")) {
-            float[] vert = readVector3f(line);
-            for (float vp : vert) {
-                context.vertexPositions.add(vp);
+            String[] v = line.split("\\s+");
+            if (v.length < 4) {
+                throw new RuntimeException("Invalid vector, expected 3 coordinates, found " + (v.length - 1));
             }
+            context.vertexPositions.add(Float.parseFloat(v[1]), Float.parseFloat(v[2]), Float.parseFloat(v[3]));
         }
     }
 
-    private float[] readVector3f(String line) {
-        String[] v = line.split("\\s+");
-        if (v.length < 4) {
-            throw new RuntimeException("Invalid vector, expected 3 coordinates, found " + (v.length - 1));
-        }
-        return new float[] { Float.parseFloat(v[1]), Float.parseFloat(v[2]), Float.parseFloat(v[3]) };
-    }
-
     private void readFace(String line, ObjImporterContext context) {
         String[] v = line.split("\\s+");
         if (v.length < 4) {
@@ -97,7 +91,7 @@ public class ObjImporter {
 
     private int readFaceVertex(String face, ObjImporterContext context) {
         String[] v = face.split("/");
-        return getIndex(Integer.parseInt(v[0]), context.vertexPositions.size);
+        return getIndex(Integer.parseInt(v[0]), context.vertexPositions.size / 3);
     }
 
     private int getIndex(int posi, int size) {
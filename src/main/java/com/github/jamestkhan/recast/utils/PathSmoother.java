@@ -0,0 +1,338 @@
+/*
+Copyright (c) 2009-2010 Mikko Mononen memon@inside.org
+recast4j copyright (c) 2015-2019 Piotr Piastucki piotr@jtilia.org
+
+This software is provided 'as-is', without any express or implied
+warranty.  In no event will the authors be held liable for any damages
+arising from the use of this software.
+Permission is granted to anyone to use this software for any purpose,
+including commercial applications, and to alter it and redistribute it
+freely, subject to the following restrictions:
+1. The origin of this software must not be misrepresented; you must not
+ claim that you wrote the original software. If you use this software
+ in a product, an acknowledgment in the product documentation would be
+ appreciated but is not required.
+2. Altered source versions must be plainly marked as such, and must not be
+ misrepresented as being the original software.
+3. This notice may not be removed or altered from any source distribution.
+*/
+package com.github.jamestkhan.recast.utils;
+
+import com.badlogic.gdx.Gdx;
+import com.github.jamestkhan.recast.PathFinderSettings;
+import com.github.jamestkhan.recast.PathResult;
+import org.recast4j.detour.MoveAlongSurfaceResult;
+import org.recast4j.detour.NavMeshQuery;
+import org.recast4j.detour.QueryFilter;
+import org.recast4j.detour.Result;
+import org.recast4j.detour.StraightPathItem;
+import org.recast4j.detour.Tupple2;
+
+import java.util.List;
+
+import static org.recast4j.detour.DetourCommon.vCopy;
+
+/**
+ * Turns a polygon corridor into a path that follows the detail mesh surface, a small step at a time.
+ * <p>
+ * The smoother is resumable: {@link #begin} sets it up and {@link #update(int)} advances it by a bounded number of
+ * steps, so the work can be spread over several frames. How the next point to steer towards is found depends on
+ * {@link PathFinderSettings.SmoothingMode}.
+ * </p>
+ *
+ * @author JamesTKhan
+ * @version October 18, 2026
+ */
+public class PathSmoother {
+    private static final float SLOP = 0.1f;
+    /** Squared xz distance under which a step is considered to have made no progress. */
+    private static final float STALL_DIST_SQR = 1e-6f;
+    /** Corridor polygons searched past the number of polygons a step visited, in the LINEAR mode. */
+    private static final int FIXUP_SEARCH_MARGIN = 8;
+
+    private final PathFinderSettings settings;
+
+    private NavMeshQuery query;
+    private QueryFilter filter;
+    private PolyCorridor corridor;
+    private PathResult out;
+    private PathFinderSettings.SmoothingMode mode;
+    private int maxIterations;
+    private float stepSize;
+    private boolean done = true;
+    private int lastSteps;
+
+    private final float[] iterPos = new float[3];
+    private final float[] prevPos = new float[3];
+    private final float[] targetPos = new float[3];
+    private final float[] moveTgt = new float[3];
+    private final PathUtils.SteerTarget steerTarget = new PathUtils.SteerTarget();
+
+    // String-pulled corners of the corridor, used by the LINEAR mode
+    private float[] corners = new float[64 * 3];
+    private int[] cornerFlags = new int[64];
+    private long[] cornerRefs = new long[64];
+    private int cornerCount;
+    private int cornerIndex;
+
+    public PathSmoother(PathFinderSettings settings) {
+        this.settings = settings;
+    }
+
+    /**
+     * Start smoothing a corridor. Writes the first point of the path into the result.
+     *
+     * @param query    the query to use, it must stay valid until the smoother is done
+     * @param filter   the filter to use for surface moves
+     * @param corridor the corridor to follow, it is consumed while smoothing
+     * @param startRef the polygon the path starts on
+     * @param startPos the requested start position
+     * @param endPos   the requested end position
+     * @param out      the result to append the points to
+     */
+    public void begin(NavMeshQuery query, QueryFilter filter, PolyCorridor corridor, long startRef, float[] startPos,
+            float[] endPos, PathResult out) {
+        this.query = query;
+        this.filter = filter;
+        this.corridor = corridor;
+        this.out = out;
+        this.mode = settings.getSmoothingMode();
+        this.maxIterations = settings.getMaxIterations();
+        this.stepSize = settings.getStepSize();
+
+        vCopy(iterPos, query.closestPointOnPoly(startRef, startPos).result.getClosest());
+        vCopy(targetPos, query.closestPointOnPoly(corridor.last(), endPos).result.getClosest());
+
+        out.add(iterPos);
+        done = false;
+
+        if (mode == PathFinderSettings.SmoothingMode.LINEAR) {
+            pullStraightPath();
+        }
+    }
+
+    /**
+     * Advance the smoothing.
+     *
+     * @param maxSteps the maximum number of steps to take during this call
+     * @return true if the path is complete
+     */
+    public boolean update(int maxSteps) {
+        lastSteps = 0;
+        while (!done && lastSteps < maxSteps) {
+            lastSteps++;
+            // Move towards target a small advancement at a time until target reached or
+            // when ran out of memory to store the path.
+            if (corridor.isEmpty() || out.size >= maxIterations || !step()) {
+                finish();
+            }
+        }
+        return done;
+    }
+
+    /**
+     * @return the number of steps taken by the last call to {@link #update(int)}
+     */
+    public int getLastSteps() {
+        return lastSteps;
+    }
+
+    public boolean isDone() {
+        return done;
+    }
+
+    /**
+     * Stop smoothing and release the references to the query and the result.
+     */
+    public void cancel() {
+        done = true;
+        query = null;
+        filter = null;
+        corridor = null;
+        out = null;
+    }
+
+    private void finish() {
+        if (out.size >= maxIterations) {
+            out.flags |= PathResult.FLAG_TRUNCATED;
+            Gdx.app.debug(this.getClass().getSimpleName(), "Max path iterations reached.");
+        }
+        cancel();
+    }
+
+    /**
+     * Takes a single step along the corridor.
+     *
+     * @return false once the end of the path is reached or no point to steer to can be found
+     */
+    private boolean step() {
+        // Find location to steer towards.
+        boolean found = mode == PathFinderSettings.SmoothingMode.LINEAR
+                ? nextCorner()
+                : PathUtils.getSteerTarget(query, iterPos, targetPos, SLOP, corridor, steerTarget);
+        if (!found) {
+            return false;
+        }
+        boolean endOfPath = (steerTarget.steerPosFlag & NavMeshQuery.DT_STRAIGHTPATH_END) != 0;
+        boolean offMeshConnection = (steerTarget.steerPosFlag
+                & NavMeshQuery.DT_STRAIGHTPATH_OFFMESH_CONNECTION) != 0;
+
+        // Find movement delta.
+        float dx = steerTarget.steerPos[0] - iterPos[0];
+        float dy = steerTarget.steerPos[1] - iterPos[1];
+        float dz = steerTarget.steerPos[2] - iterPos[2];
+        float len = (float) Math.sqrt(dx * dx + dy * dy + dz * dz);
+        // If the steer target is end of path or off-mesh link, do not move past the location.
+        if ((endOfPath || offMeshConnection) && len < stepSize) {
+            len = 1;
+        } else {
+            len = stepSize / len;
+        }
+        moveTgt[0] = iterPos[0] + dx * len;
+        moveTgt[1] = iterPos[1] + dy * len;
+        moveTgt[2] = iterPos[2] + dz * len;
+
+        // Move
+        Result<MoveAlongSurfaceResult> result = query.moveAlongSurface(corridor.first(), iterPos, moveTgt, filter);
+        MoveAlongSurfaceResult moveAlongSurface = result.result;
+
+        vCopy(prevPos, iterPos);
+        vCopy(iterPos, moveAlongSurface.getResultPos());
+
+        List<Long> visited = moveAlongSurface.getVisited();
+        if (mode == PathFinderSettings.SmoothingMode.LINEAR) {
+            corridor.fixupCorridor(visited, visited.size() + FIXUP_SEARCH_MARGIN);
+        } else {
+            corridor.fixupCorridor(visited);
+        }
+        corridor.fixupShortcuts(query);
+
+        Result<Float> polyHeight = query.getPolyHeight(corridor.first(), moveAlongSurface.getResultPos());
+        if (polyHeight.succeeded()) {
+            iterPos[1] = polyHeight.result;
+        }
+
+        // Handle end of path and off-mesh links when close enough.
+        if (endOfPath && PathUtils.inRange(iterPos, steerTarget.steerPos, SLOP, 1.0f)) {
+            // Reached end of path.
+            vCopy(iterPos, targetPos);
+            if (out.size < maxIterations) {
+                out.add(iterPos);
+            }
+            return false;
+        } else if (offMeshConnection && PathUtils.inRange(iterPos, steerTarget.steerPos, SLOP, 1.0f)) {
+            // Reached off-mesh connection.
+            // Advance the path up to and over the off-mesh connection.
+            long prevRef = 0;
+            long polyRef = corridor.first();
+            int npos = 0;
+            while (npos < corridor.size() && polyRef != steerTarget.steerPosRef) {
+                prevRef = polyRef;
+                polyRef = corridor.get(npos);
+                npos++;
+            }
+            corridor.removeFirst(npos);
+
+            // Handle the connection.
+            Result<Tupple2<float[], float[]>> offMeshCon = query.getAttachedNavMesh()
+                    .getOffMeshConnectionPolyEndPoints(prevRef, polyRef);
+            if (offMeshCon.succeeded()) {
+                float[] conStart = offMeshCon.result.first;
+                float[] conEnd = offMeshCon.result.second;
+                if (out.size < maxIterations) {
+                    out.add(conStart);
+                    // Hack to make the dotted path not visible during off-mesh connection.
+                    if ((out.size & 1) != 0) {
+                        out.add(conStart);
+                    }
+                }
+                out.flags |= PathResult.FLAG_OFFMESH;
+                // Move position at the other side of the off-mesh link.
+                vCopy(iterPos, conEnd);
+                iterPos[1] = query.getPolyHeight(corridor.first(), iterPos).result;
+            }
+            // The connection corner has been traversed
+            cornerIndex++;
+        } else if (mode == PathFinderSettings.SmoothingMode.LINEAR && isStalled()) {
+            // Blocked on the way to the corner, string-pull again from where we are
+            pullStraightPath();
+        }
+
+        // Store results.
+        if (out.size < maxIterations) {
+            out.add(iterPos);
+        }
+        return true;
+    }
+
+    private boolean isStalled() {
+        float dx = iterPos[0] - prevPos[0];
+        float dz = iterPos[2] - prevPos[2];
+        return dx * dx + dz * dz < STALL_DIST_SQR;
+    }
+
+    /**
+     * Find the next corner of the precomputed straight path to steer to, skipping the ones already reached.
+     * Equivalent to {@link PathUtils#getSteerTarget} but advances along the corners instead of recomputing them.
+     */
+    private boolean nextCorner() {
+        while (cornerIndex < cornerCount) {
+            // Stop at Off-Mesh link or when point is further than slop away.
+            if ((cornerFlags[cornerIndex] & NavMeshQuery.DT_STRAIGHTPATH_OFFMESH_CONNECTION) != 0) {
+                break;
+            }
+            int c = cornerIndex * 3;
+            float dx = corners[c] - iterPos[0];
+            float dy = corners[c + 1] - iterPos[1];
+            float dz = corners[c + 2] - iterPos[2];
+            if ((dx * dx + dz * dz) >= SLOP * SLOP || Math.abs(dy) >= 1000.0f) {
+                break;
+            }
+            cornerIndex++;
+        }
+        // Failed to find good point to steer to.
+        if (cornerIndex >= cornerCount) {
+            return false;
+        }
+
+        int c = cornerIndex * 3;
+        steerTarget.steerPos[0] = corners[c];
+        steerTarget.steerPos[1] = iterPos[1];
+        steerTarget.steerPos[2] = corners[c + 2];
+        steerTarget.steerPosFlag = cornerFlags[cornerIndex];
+        steerTarget.steerPosRef = cornerRefs[cornerIndex];
+        return true;
+    }
+
+    /**
+     * String-pull the remaining corridor from the current position, once.
+     */
+    private void pullStraightPath() {
+        cornerCount = 0;
+        cornerIndex = 0;
+
+        Result<List<StraightPathItem>> result = query.findStraightPath(iterPos, targetPos, corridor.asList(),
+                corridor.size() * 2 + 2, 0);
+        if (result.failed()) {
+            return;
+        }
+        List<StraightPathItem> straightPath = result.result;
+        int count = straightPath.size();
+        if (cornerFlags.length < count) {
+            int capacity = Math.max(count, cornerFlags.length * 2);
+            corners = new float[capacity * 3];
+            cornerFlags = new int[capacity];
+            cornerRefs = new long[capacity];
+        }
+        for (int i = 0; i < count; i++) {
+            StraightPathItem item = straightPath.get(i);
+            float[] pos = item.getPos();
+            corners[i * 3] = pos[0];
+            corners[i * 3 + 1] = pos[1];
+            corners[i * 3 + 2] = pos[2];
+            cornerFlags[i] = item.getFlags();
+            cornerRefs[i] = item.getRef();
+        }
+        cornerCount = count;
+    }
+}
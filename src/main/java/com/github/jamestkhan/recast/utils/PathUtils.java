@@ -19,16 +19,11 @@ freely, subject to the following restrictions:
 package com.github.jamestkhan.recast.utils;
 
 import com.badlogic.gdx.math.Vector3;
-import org.recast4j.detour.Link;
-import org.recast4j.detour.MeshTile;
-import org.recast4j.detour.NavMesh;
 import org.recast4j.detour.NavMeshQuery;
-import org.recast4j.detour.Poly;
 import org.recast4j.detour.Result;
 import org.recast4j.detour.StraightPathItem;
-import org.recast4j.detour.Tupple2;
 
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
 
@@ -38,33 +33,65 @@ public class PathUtils {
 
     public static class SteerTarget {
         public final float[] steerPos;
-        public final int steerPosFlag;
-        public final long steerPosRef;
-        public final float[] steerPoints;
+        public int steerPosFlag;
+        public long steerPosRef;
+        public float[] steerPoints;
+        public int steerPointCount;
+
+        /**
+         * Creates an empty, reusable steer target to be filled by
+         * {@link #getSteerTarget(NavMeshQuery, float[], float[], float, List, SteerTarget)}.
+         */
+        public SteerTarget() {
+            this.steerPos = new float[3];
+            this.steerPoints = new float[MAX_STEER_POINTS * 3];
+        }
 
         public SteerTarget(float[] steerPos, int steerPosFlag, long steerPosRef, float[] steerPoints) {
             this.steerPos = steerPos;
             this.steerPosFlag = steerPosFlag;
             this.steerPosRef = steerPosRef;
             this.steerPoints = steerPoints;
+            this.steerPointCount = steerPoints.length / 3;
         }
 
     }
 
     public static Optional<SteerTarget> getSteerTarget(NavMeshQuery navQuery, float[] startPos, float[] endPos,
             float minTargetDist, List<Long> path) {
+        SteerTarget target = new SteerTarget();
+        if (!getSteerTarget(navQuery, startPos, endPos, minTargetDist, path, target)) {
+            return Optional.empty();
+        }
+        // Trim the steer points to the amount found, as callers of this variant expect
+        target.steerPoints = Arrays.copyOf(target.steerPoints, target.steerPointCount * 3);
+        return Optional.of(target);
+    }
+
+    /**
+     * Same as {@link #getSteerTarget(NavMeshQuery, float[], float[], float, List)} but writes into a caller
+     * owned SteerTarget instead of allocating a new one.
+     *
+     * @return false if no good point to steer to was found, in which case the target contents are undefined
+     */
+    public static boolean getSteerTarget(NavMeshQuery navQuery, float[] startPos, float[] endPos,
+            float minTargetDist, List<Long> path, SteerTarget target) {
         // Find steer target.
         Result<List<StraightPathItem>> result = navQuery.findStraightPath(startPos, endPos, path, MAX_STEER_POINTS, 0);
         if (result.failed()) {
-            return Optional.empty();
+            return false;
         }
         List<StraightPathItem> straightPath = result.result;
-        float[] steerPoints = new float[straightPath.size() * 3];
+        if (target.steerPoints.length < straightPath.size() * 3) {
+            target.steerPoints = new float[straightPath.size() * 3];
+        }
         for (int i = 0; i < straightPath.size(); i++) {
-            steerPoints[i * 3] = straightPath.get(i).getPos()[0];
-            steerPoints[i * 3 + 1] = straightPath.get(i).getPos()[1];
-            steerPoints[i * 3 + 2] = straightPath.get(i).getPos()[2];
+            float[] pos = straightPath.get(i).getPos();
+            target.steerPoints[i * 3] = pos[0];
+            target.steerPoints[i * 3 + 1] = pos[1];
+            target.steerPoints[i * 3 + 2] = pos[2];
         }
+        target.steerPointCount = straightPath.size();
 
         // Find vertex far enough to steer to.
         int ns = 0;
@@ -77,16 +104,24 @@ public class PathUtils {
         }
         // Failed to find good point to steer to.
         if (ns >= straightPath.size())
-            return Optional.empty();
-
-        float[] steerPos = new float[] { straightPath.get(ns).getPos()[0], startPos[1],
-                straightPath.get(ns).getPos()[2] };
-        int steerPosFlag = straightPath.get(ns).getFlags();
-        long steerPosRef = straightPath.get(ns).getRef();
-
-        SteerTarget target = new SteerTarget(steerPos, steerPosFlag, steerPosRef, steerPoints);
-        return Optional.of(target);
+            return false;
+
+        StraightPathItem item = straightPath.get(ns);
+        target.steerPos[0] = item.getPos()[0];
+        target.steerPos[1] = startPos[1];
+        target.steerPos[2] = item.getPos()[2];
+        target.steerPosFlag = item.getFlags();
+        target.steerPosRef = item.getRef();
+        return true;
+    }
 
+    /**
+     * Same as {@link #getSteerTarget(NavMeshQuery, float[], float[], float, List, SteerTarget)} using a
+     * primitive corridor, the corridor is passed to Detour as a live view and is not copied.
+     */
+    public static boolean getSteerTarget(NavMeshQuery navQuery, float[] startPos, float[] endPos,
+            float minTargetDist, PolyCorridor corridor, SteerTarget target) {
+        return getSteerTarget(navQuery, startPos, endPos, minTargetDist, corridor.asList(), target);
     }
 
     public static boolean inRange(float[] v1, float[] v2, float r, float h) {
@@ -96,100 +131,6 @@ public class PathUtils {
         return (dx * dx + dz * dz) < r * r && Math.abs(dy) < h;
     }
 
-    static List<Long> fixupCorridor(List<Long> path, List<Long> visited) {
-        int furthestPath = -1;
-        int furthestVisited = -1;
-
-        // Find furthest common polygon.
-        for (int i = path.size() - 1; i >= 0; --i) {
-            boolean found = false;
-            for (int j = visited.size() - 1; j >= 0; --j) {
-                if (path.get(i).longValue() == visited.get(j).longValue()) {
-                    furthestPath = i;
-                    furthestVisited = j;
-                    found = true;
-                }
-            }
-            if (found)
-                break;
-        }
-
-        // If no intersection found just return current path.
-        if (furthestPath == -1 || furthestVisited == -1)
-            return path;
-
-        // Concatenate paths.
-
-        // Adjust beginning of the buffer to include the visited.
-        int req = visited.size() - furthestVisited;
-        int orig = Math.min(furthestPath + 1, path.size());
-        int size = Math.max(0, path.size() - orig);
-        List<Long> fixupPath = new ArrayList<>();
-        // Store visited
-        for (int i = 0; i < req; ++i) {
-            fixupPath.add(visited.get((visited.size() - 1) - i));
-        }
-        for (int i = 0; i < size; i++) {
-            fixupPath.add(path.get(orig + i));
-        }
-
-        return fixupPath;
-    }
-
-    // This function checks if the path has a small U-turn, that is,
-    // a polygon further in the path is adjacent to the first polygon
-    // in the path. If that happens, a shortcut is taken.
-    // This can happen if the target (T) location is at tile boundary,
-    // and we're (S) approaching it parallel to the tile edge.
-    // The choice at the vertex can be arbitrary,
-    // +---+---+
-    // |:::|:::|
-    // +-S-+-T-+
-    // |:::| | <-- the step can end up in here, resulting U-turn path.
-    // +---+---+
-    static List<Long> fixupShortcuts(List<Long> path, NavMeshQuery navQuery) {
-        if (path.size() < 3) {
-            return path;
-        }
-
-        // Get connected polygons
-        List<Long> neis = new ArrayList<>();
-
-        Result<Tupple2<MeshTile, Poly>> tileAndPoly = navQuery.getAttachedNavMesh().getTileAndPolyByRef(path.get(0));
-        if (tileAndPoly.failed()) {
-            return path;
-        }
-        MeshTile tile = tileAndPoly.result.first;
-        Poly poly = tileAndPoly.result.second;
-
-        for (int k = tile.polyLinks[poly.index]; k != NavMesh.DT_NULL_LINK; k = tile.links.get(k).next) {
-            Link link = tile.links.get(k);
-            if (link.ref != 0) {
-                neis.add(link.ref);
-            }
-        }
-
-        // If any of the neighbour polygons is within the next few polygons
-        // in the path, short cut to that polygon directly.
-        int maxLookAhead = 6;
-        int cut = 0;
-        for (int i = Math.min(maxLookAhead, path.size()) - 1; i > 1 && cut == 0; i--) {
-            for (Long nei : neis) {
-                if (path.get(i).longValue() == nei.longValue()) {
-                    cut = i;
-                    break;
-                }
-            }
-        }
-        if (cut > 1) {
-            List<Long> shortcut = new ArrayList<>();
-            shortcut.add(path.get(0));
-            shortcut.addAll(path.subList(cut, path.size()));
-            return shortcut;
-        }
-        return path;
-    }
-
     /**
      * Copy the values from the vector to the array
      */
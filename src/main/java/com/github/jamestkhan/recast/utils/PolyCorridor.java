@@ -0,0 +1,280 @@
+/*
+Copyright (c) 2009-2010 Mikko Mononen memon@inside.org
+recast4j copyright (c) 2015-2019 Piotr Piastucki piotr@jtilia.org
+
+This software is provided 'as-is', without any express or implied
+warranty.  In no event will the authors be held liable for any damages
+arising from the use of this software.
+Permission is granted to anyone to use this software for any purpose,
+including commercial applications, and to alter it and redistribute it
+freely, subject to the following restrictions:
+1. The origin of this software must not be misrepresented; you must not
+ claim that you wrote the original software. If you use this software
+ in a product, an acknowledgment in the product documentation would be
+ appreciated but is not required.
+2. Altered source versions must be plainly marked as such, and must not be
+ misrepresented as being the original software.
+3. This notice may not be removed or altered from any source distribution.
+*/
+package com.github.jamestkhan.recast.utils;
+
+import org.recast4j.detour.Link;
+import org.recast4j.detour.MeshTile;
+import org.recast4j.detour.NavMesh;
+import org.recast4j.detour.NavMeshQuery;
+import org.recast4j.detour.Poly;
+import org.recast4j.detour.Result;
+import org.recast4j.detour.Tupple2;
+
+import java.util.AbstractList;
+import java.util.List;
+
+/**
+ * A reusable corridor of polygon refs backed by a primitive long buffer.
+ * <p>
+ * The live part of the corridor starts at a movable head offset. Consuming polygons from the front only moves the
+ * head, and the few polygons prepended by {@link #fixupCorridor(List)} are written into the free space in front of
+ * it, so corridor maintenance does not box refs or copy the whole corridor on every step.
+ * </p>
+ *
+ * @author JamesTKhan
+ * @version October 18, 2026
+ */
+public class PolyCorridor {
+    /** Free space kept in front of the head whenever the corridor has to be compacted. */
+    private static final int HEAD_ROOM = 16;
+
+    private long[] refs;
+    private int head;
+    private int size;
+    private final RefList view = new RefList();
+
+    public PolyCorridor() {
+        this(256);
+    }
+
+    /**
+     * @param capacity the number of polygons the corridor can hold before growing
+     */
+    public PolyCorridor(int capacity) {
+        refs = new long[capacity + HEAD_ROOM];
+        head = HEAD_ROOM;
+    }
+
+    /**
+     * Replace the corridor with the given path.
+     */
+    public void set(List<Long> path) {
+        clear();
+        ensureCapacity(path.size());
+        for (int i = 0; i < path.size(); i++) {
+            refs[head + i] = path.get(i);
+        }
+        size = path.size();
+    }
+
+    /**
+     * Replace the corridor with the given refs.
+     */
+    public void set(long[] path, int count) {
+        clear();
+        ensureCapacity(count);
+        System.arraycopy(path, 0, refs, head, count);
+        size = count;
+    }
+
+    /**
+     * Append a single polygon ref to the end of the corridor.
+     */
+    public void add(long ref) {
+        ensureCapacity(size + 1);
+        refs[head + size] = ref;
+        size++;
+    }
+
+    public void clear() {
+        head = HEAD_ROOM;
+        size = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public long get(int index) {
+        return refs[head + index];
+    }
+
+    public long first() {
+        return refs[head];
+    }
+
+    public long last() {
+        return refs[head + size - 1];
+    }
+
+    /**
+     * Drop the given number of polygons from the front of the corridor. Does not copy.
+     */
+    public void removeFirst(int count) {
+        count = Math.min(count, size);
+        head += count;
+        size -= count;
+    }
+
+    /**
+     * Copy the corridor refs into the given array.
+     * @return the number of refs copied
+     */
+    public int toArray(long[] out) {
+        int count = Math.min(out.length, size);
+        System.arraycopy(refs, head, out, 0, count);
+        return count;
+    }
+
+    /**
+     * A read only {@link List} view over the corridor, for passing it to Detour queries that expect a list.
+     * The view is live and is not copied, refs are boxed only when read.
+     */
+    public List<Long> asList() {
+        return view;
+    }
+
+    /**
+     * Merges the polygons visited by a surface move into the corridor, in place.
+     *
+     * @param visited the visited polygons, as returned by moveAlongSurface
+     */
+    public void fixupCorridor(List<Long> visited) {
+        fixupCorridor(visited, size);
+    }
+
+    /**
+     * Merges the polygons visited by a surface move into the corridor, only looking for the furthest common polygon
+     * among the first {@code maxSearch} polygons of the corridor. A short move starting on the first polygon can only
+     * reach polygons near the head, bounding the search keeps the cost of a step independent of the corridor length.
+     *
+     * @param visited   the visited polygons, as returned by moveAlongSurface
+     * @param maxSearch the number of polygons at the head of the corridor to search
+     */
+    public void fixupCorridor(List<Long> visited, int maxSearch) {
+        int furthestPath = -1;
+        int furthestVisited = -1;
+
+        // Find furthest common polygon.
+        for (int i = Math.min(maxSearch, size) - 1; i >= 0; --i) {
+            boolean found = false;
+            long ref = refs[head + i];
+            for (int j = visited.size() - 1; j >= 0; --j) {
+                if (ref == visited.get(j)) {
+                    furthestPath = i;
+                    furthestVisited = j;
+                    found = true;
+                }
+            }
+            if (found)
+                break;
+        }
+
+        // If no intersection found just keep the current path.
+        if (furthestPath == -1 || furthestVisited == -1)
+            return;
+
+        // Drop the part of the path up to and including the furthest common polygon,
+        // then prepend the visited polygons in reverse order in its place.
+        int req = visited.size() - furthestVisited;
+        int orig = Math.min(furthestPath + 1, size);
+        removeFirst(orig);
+        ensureHeadRoom(req);
+        head -= req;
+        size += req;
+        for (int i = 0; i < req; ++i) {
+            refs[head + i] = visited.get((visited.size() - 1) - i);
+        }
+    }
+
+    // This function checks if the path has a small U-turn, that is,
+    // a polygon further in the path is adjacent to the first polygon
+    // in the path. If that happens, a shortcut is taken.
+    // This can happen if the target (T) location is at tile boundary,
+    // and we're (S) approaching it parallel to the tile edge.
+    // The choice at the vertex can be arbitrary,
+    // +---+---+
+    // |:::|:::|
+    // +-S-+-T-+
+    // |:::| | <-- the step can end up in here, resulting U-turn path.
+    // +---+---+
+    public void fixupShortcuts(NavMeshQuery navQuery) {
+        if (size < 3) {
+            return;
+        }
+
+        Result<Tupple2<MeshTile, Poly>> tileAndPoly = navQuery.getAttachedNavMesh().getTileAndPolyByRef(first());
+        if (tileAndPoly.failed()) {
+            return;
+        }
+        MeshTile tile = tileAndPoly.result.first;
+        Poly poly = tileAndPoly.result.second;
+
+        // If any of the neighbour polygons is within the next few polygons
+        // in the path, short cut to that polygon directly.
+        int maxLookAhead = 6;
+        int cut = 0;
+        for (int i = Math.min(maxLookAhead, size) - 1; i > 1 && cut == 0; i--) {
+            long ref = refs[head + i];
+            for (int k = tile.polyLinks[poly.index]; k != NavMesh.DT_NULL_LINK; k = tile.links.get(k).next) {
+                Link link = tile.links.get(k);
+                if (link.ref != 0 && link.ref == ref) {
+                    cut = i;
+                    break;
+                }
+            }
+        }
+        if (cut > 1) {
+            // Keep the first polygon and continue from the shortcut.
+            refs[head + cut - 1] = refs[head];
+            removeFirst(cut - 1);
+        }
+    }
+
+    private void ensureCapacity(int count) {
+        if (head + count > refs.length) {
+            long[] newRefs = new long[Math.max(refs.length * 2, head + count)];
+            System.arraycopy(refs, head, newRefs, head, size);
+            refs = newRefs;
+        }
+    }
+
+    private void ensureHeadRoom(int count) {
+        if (head >= count) {
+            return;
+        }
+        int newHead = count + HEAD_ROOM;
+        long[] dst = refs;
+        if (newHead + size > refs.length) {
+            dst = new long[Math.max(refs.length * 2, newHead + size)];
+        }
+        System.arraycopy(refs, head, dst, newHead, size);
+        refs = dst;
+        head = newHead;
+    }
+
+    private class RefList extends AbstractList<Long> {
+        @Override
+        public Long get(int index) {
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException("index: " + index + ", size: " + size);
+            }
+            return refs[head + index];
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+}
@@ -21,14 +21,45 @@ package com.github.jamestkhan.recast.utils;
 public class RecastMath {
 
     public static float[] vCross(float[] v1, float[] v2) {
-        float[] dest = new float[3];
-        dest[0] = v1[1] * v2[2] - v1[2] * v2[1];
-        dest[1] = v1[2] * v2[0] - v1[0] * v2[2];
-        dest[2] = v1[0] * v2[1] - v1[1] * v2[0];
+        return vCross(new float[3], v1, v2);
+    }
+
+    /**
+     * Cross product into an existing array.
+     *
+     * @return dest
+     */
+    public static float[] vCross(float[] dest, float[] v1, float[] v2) {
+        vCross(dest, 0, v1, 0, v2, 0);
         return dest;
     }
 
+    /**
+     * Cross product of vectors stored at offsets of packed arrays, dest may not overlap the operands.
+     */
+    public static void vCross(float[] dest, int d, float[] v1, int i, float[] v2, int j) {
+        dest[d] = v1[i + 1] * v2[j + 2] - v1[i + 2] * v2[j + 1];
+        dest[d + 1] = v1[i + 2] * v2[j] - v1[i] * v2[j + 2];
+        dest[d + 2] = v1[i] * v2[j + 1] - v1[i + 1] * v2[j];
+    }
+
+    /**
+     * v1 - v2 of vectors stored at offsets of packed arrays.
+     */
+    public static void vSub(float[] dest, int d, float[] v1, int i, float[] v2, int j) {
+        dest[d] = v1[i] - v2[j];
+        dest[d + 1] = v1[i + 1] - v2[j + 1];
+        dest[d + 2] = v1[i + 2] - v2[j + 2];
+    }
+
     public static float vDot(float[] v1, float[] v2) {
         return v1[0] * v2[0] + v1[1] * v2[1] + v1[2] * v2[2];
     }
+
+    /**
+     * Dot product of vectors stored at offsets of packed arrays.
+     */
+    public static float vDot(float[] v1, int i, float[] v2, int j) {
+        return v1[i] * v2[j] + v1[i + 1] * v2[j + 1] + v1[i + 2] * v2[j + 2];
+    }
 }
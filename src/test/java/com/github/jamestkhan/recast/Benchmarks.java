@@ -0,0 +1,135 @@
+package com.github.jamestkhan.recast;
+
+import com.badlogic.gdx.math.Vector3;
+import com.github.jamestkhan.recast.geom.NavMeshRaycast;
+import com.github.jamestkhan.recast.geom.NavMeshUtils;
+import com.github.jamestkhan.recast.utils.BatchExecutor;
+import org.recast4j.detour.NavMesh;
+
+import java.util.Optional;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Timings of the batch path API against serial queries, and of the indexed raycast against the brute-force scan,
+ * on the test model. Not run with the tests, start it with the test classpath:
+ * <pre>
+ * java -cp &lt;test classpath&gt; com.github.jamestkhan.recast.Benchmarks [rounds]
+ * </pre>
+ * Each benchmark runs a warm up round first and prints the mean time per round of the others.
+ *
+ * @author JamesTKhan
+ * @version October 18, 2026
+ */
+public final class Benchmarks {
+    private static float sink;
+
+    private Benchmarks() {
+    }
+
+    public static void main(String[] args) {
+        int rounds = args.length > 0 ? Integer.parseInt(args[0]) : 10;
+        batchPaths(rounds);
+        raycasts(rounds);
+        System.out.println("(" + sink + ")");
+    }
+
+    /**
+     * Serial getPath calls against getPaths on one thread and on every core.
+     */
+    private static void batchPaths(int rounds) {
+        NavMeshData data = TestNavMeshes.buildTiledTestNavMesh();
+        Pathfinder pathfinder = new Pathfinder(data);
+        int count = 500;
+        float[] starts = TestNavMeshes.polygonPositions(data, count, 1);
+        float[] ends = TestNavMeshes.polygonPositions(data, count, 2);
+        PathResult[] results = new PathResult[count];
+        for (int i = 0; i < count; i++) {
+            results[i] = new PathResult();
+        }
+        Vector3 start = new Vector3();
+        Vector3 end = new Vector3();
+
+        double serial = time(rounds, () -> {
+            for (int i = 0; i < count; i++) {
+                start.set(starts[i * 3], starts[i * 3 + 1], starts[i * 3 + 2]);
+                end.set(ends[i * 3], ends[i * 3 + 1], ends[i * 3 + 2]);
+                pathfinder.getPath(start, end, results[i]);
+                sink += results[i].size;
+            }
+        });
+        report("getPath x " + count, serial, serial);
+
+        int cores = Runtime.getRuntime().availableProcessors();
+        for (int threads : new int[] { 1, cores }) {
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            try {
+                pathfinder.setBatchExecutor(new BatchExecutor(pool));
+                double batch = time(rounds, () -> {
+                    pathfinder.getPaths(starts, ends, results, count);
+                    sink += results[count - 1].size;
+                });
+                report("getPaths x " + count + ", " + threads + " threads", batch, serial);
+            } finally {
+                pool.shutdown();
+            }
+        }
+    }
+
+    /**
+     * Downward rays like mouse picks from above the level, through the brute-force scan and the tile and BV tree
+     * walk.
+     */
+    private static void raycasts(int rounds) {
+        NavMeshData data = TestNavMeshes.buildTiledTestNavMesh();
+        NavMesh navMesh = data.getNavMesh();
+        float[][] bounds = NavMeshUtils.getNavMeshBounds(navMesh);
+        int count = 2000;
+        float[] points = TestNavMeshes.randomPositions(data, count * 2, 3);
+        for (int i = 0; i < count; i++) {
+            points[i * 6 + 1] = bounds[1][1] + 5;
+            points[i * 6 + 4] = bounds[0][1] - 5;
+        }
+        float[] src = new float[3];
+        float[] dst = new float[3];
+        NavMeshRaycast.RaycastHit hit = new NavMeshRaycast.RaycastHit();
+
+        double bruteForce = time(rounds, () -> {
+            for (int i = 0; i < count; i++) {
+                System.arraycopy(points, i * 6, src, 0, 3);
+                System.arraycopy(points, i * 6 + 3, dst, 0, 3);
+                Optional<Float> t = NavMeshRaycast.raycastBruteForce(navMesh, src, dst);
+                if (t.isPresent()) {
+                    sink += t.get();
+                }
+            }
+        });
+        report("raycastBruteForce x " + count, bruteForce, bruteForce);
+
+        double indexed = time(rounds, () -> {
+            for (int i = 0; i < count; i++) {
+                System.arraycopy(points, i * 6, src, 0, 3);
+                System.arraycopy(points, i * 6 + 3, dst, 0, 3);
+                if (NavMeshRaycast.raycast(navMesh, src, dst, hit)) {
+                    sink += hit.t;
+                }
+            }
+        });
+        report("raycast x " + count, indexed, bruteForce);
+    }
+
+    /**
+     * @return the mean milliseconds per round, after a warm up round
+     */
+    private static double time(int rounds, Runnable round) {
+        round.run();
+        long start = System.nanoTime();
+        for (int i = 0; i < rounds; i++) {
+            round.run();
+        }
+        return (System.nanoTime() - start) / 1e6 / rounds;
+    }
+
+    private static void report(String name, double millis, double baselineMillis) {
+        System.out.println(String.format("%-36s %10.3f ms %8.2fx", name, millis, baselineMillis / millis));
+    }
+}
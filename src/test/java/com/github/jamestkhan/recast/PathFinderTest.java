@@ -2,9 +2,29 @@ package com.github.jamestkhan.recast;
 
 import com.badlogic.gdx.math.Vector3;
 import com.badlogic.gdx.utils.Array;
+import com.github.jamestkhan.recast.detour.LandmarkTable;
+import com.github.jamestkhan.recast.detour.PathCostSearch;
+import com.github.jamestkhan.recast.detour.PolyAStar;
+import com.github.jamestkhan.recast.detour.PolyGraph;
+import com.github.jamestkhan.recast.detour.TileHierarchy;
 import com.github.jamestkhan.recast.utils.NavMeshGenerator;
+import com.github.jamestkhan.recast.utils.PolyCorridor;
 import org.junit.Assert;
+import org.junit.Assume;
 import org.junit.Test;
+import org.recast4j.detour.MeshData;
+import org.recast4j.detour.MeshTile;
+import org.recast4j.detour.NavMesh;
+import org.recast4j.detour.QueryFilter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 /**
  * @author JamesTKhan
@@ -12,6 +32,9 @@ import org.junit.Test;
  */
 public class PathFinderTest {
 
+    private static final Vector3 START = new Vector3(-0.99f, 15.24f, 11.98f);
+    private static final Vector3 END = new Vector3(17.63f, -2.37f, -21.86f);
+
     @Test
     public void findPath() {
         NavMeshGenSettings settings = NavMeshGenSettings.Builder.SettingsBuilder()
@@ -30,4 +53,500 @@ public class PathFinderTest {
 
         Assert.assertFalse(paths.isEmpty());
     }
+
+    @Test
+    public void reusableResultMatchesArrayPath() {
+        Pathfinder pathfinder = new Pathfinder(TestNavMeshes.buildTestNavMesh());
+
+        Array<float[]> paths = new Array<>();
+        pathfinder.getPath(START, END, paths);
+
+        PathResult result = new PathResult();
+        pathfinder.getPath(START, END, result);
+
+        Assert.assertTrue(result.hasFlag(PathResult.FLAG_COMPLETE));
+        Assert.assertEquals(paths.size, result.size);
+        for (int i = 0; i < paths.size; i++) {
+            Assert.assertEquals(paths.get(i)[0], result.getX(i), 0f);
+            Assert.assertEquals(paths.get(i)[1], result.getY(i), 0f);
+            Assert.assertEquals(paths.get(i)[2], result.getZ(i), 0f);
+        }
+    }
+
+    @Test
+    public void steadyStateReusableResultDoesNotGrow() {
+        Pathfinder pathfinder = new Pathfinder(TestNavMeshes.buildTestNavMesh());
+        PathResult result = new PathResult();
+
+        pathfinder.getPath(START, END, result);
+        float[] buffer = result.points;
+        for (int i = 0; i < 100; i++) {
+            pathfinder.getPath(START, END, result);
+        }
+        Assert.assertSame(buffer, result.points);
+    }
+
+    @Test
+    public void linearSmoothingFollowsSameRoute() {
+        NavMeshData data = TestNavMeshes.buildTestNavMesh();
+
+        PathResult iterative = new PathResult();
+        new Pathfinder(data).getPath(START, END, iterative);
+
+        PathFinderSettings settings = new PathFinderSettings();
+        settings.setSmoothingMode(PathFinderSettings.SmoothingMode.LINEAR);
+        PathResult linear = new PathResult();
+        new Pathfinder(settings, data).getPath(START, END, linear);
+
+        Assert.assertTrue(linear.hasFlag(PathResult.FLAG_COMPLETE));
+        Assert.assertEquals(iterative.getX(0), linear.getX(0), 0.001f);
+        Assert.assertEquals(iterative.getZ(0), linear.getZ(0), 0.001f);
+        Assert.assertEquals(iterative.getX(iterative.size - 1), linear.getX(linear.size - 1), 0.001f);
+        Assert.assertEquals(iterative.getY(iterative.size - 1), linear.getY(linear.size - 1), 0.001f);
+        Assert.assertEquals(iterative.getZ(iterative.size - 1), linear.getZ(linear.size - 1), 0.001f);
+
+        float iterativeLength = TestNavMeshes.pathLength(iterative);
+        Assert.assertEquals(iterativeLength, TestNavMeshes.pathLength(linear), iterativeLength * 0.05f);
+    }
+
+    @Test
+    public void concurrentGetPathMatchesSerial() throws Exception {
+        final Pathfinder pathfinder = new Pathfinder(TestNavMeshes.buildTestNavMesh());
+        final PathResult expected = new PathResult();
+        pathfinder.getPath(START, END, expected);
+
+        int threads = 8;
+        final int iterations = 50;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<Boolean>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(new Callable<Boolean>() {
+                    @Override
+                    public Boolean call() {
+                        PathResult result = new PathResult();
+                        for (int i = 0; i < iterations; i++) {
+                            pathfinder.getPath(START, END, result);
+                            if (!TestNavMeshes.samePath(expected, result)) {
+                                return false;
+                            }
+                        }
+                        return true;
+                    }
+                }));
+            }
+            for (Future<Boolean> future : futures) {
+                Assert.assertTrue(future.get(60, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void batchMatchesSerial() {
+        NavMeshData data = TestNavMeshes.buildTestNavMesh();
+        Pathfinder pathfinder = new Pathfinder(data);
+
+        int count = 500;
+        float[] starts = TestNavMeshes.polygonPositions(data, count, 1);
+        float[] ends = TestNavMeshes.polygonPositions(data, count, 2);
+
+        PathResult[] serial = newResults(count);
+        PathResult[] batch = newResults(count);
+
+        Vector3 start = new Vector3();
+        Vector3 end = new Vector3();
+        for (int i = 0; i < count; i++) {
+            start.set(starts[i * 3], starts[i * 3 + 1], starts[i * 3 + 2]);
+            end.set(ends[i * 3], ends[i * 3 + 1], ends[i * 3 + 2]);
+            pathfinder.getPath(start, end, serial[i]);
+        }
+        pathfinder.getPaths(starts, ends, batch);
+
+        int found = 0;
+        for (int i = 0; i < count; i++) {
+            Assert.assertTrue("Path " + i + " differs from serial result", TestNavMeshes.samePath(serial[i], batch[i]));
+            if (batch[i].size > 0) {
+                found++;
+            }
+        }
+        // Every position is on a polygon, pairs on different islands still get Detour's partial path
+        Assert.assertTrue("Only " + found + " of " + count + " paths found", found >= count * 9 / 10);
+    }
+
+    @Test
+    public void slicedRequestHonoursBudget() {
+        Pathfinder pathfinder = new Pathfinder(TestNavMeshes.buildTestNavMesh());
+        PathResult expected = new PathResult();
+        pathfinder.getPath(START, END, expected);
+
+        SlicedPathRequest request = pathfinder.createSlicedRequest();
+        PathResult result = new PathResult();
+        Assert.assertEquals(SlicedPathRequest.State.IN_PROGRESS, request.start(START, END, result));
+
+        int updates = 0;
+        while (!request.isDone()) {
+            request.update(2);
+            updates++;
+            Assert.assertTrue("Sliced request did not finish", updates < 10000);
+        }
+
+        Assert.assertEquals(SlicedPathRequest.State.COMPLETE, request.getState());
+        Assert.assertTrue(updates > 1);
+        int last = expected.size - 1;
+        Assert.assertEquals(expected.getX(last), result.getX(result.size - 1), 0.001f);
+        Assert.assertEquals(expected.getY(last), result.getY(result.size - 1), 0.001f);
+        Assert.assertEquals(expected.getZ(last), result.getZ(result.size - 1), 0.001f);
+    }
+
+    @Test
+    public void schedulerServesByPriorityAndSupersedes() {
+        Pathfinder pathfinder = new Pathfinder(TestNavMeshes.buildTestNavMesh());
+        PathRequestScheduler scheduler = new PathRequestScheduler(pathfinder);
+        scheduler.setAgingRate(0);
+        scheduler.setMaxActive(1);
+
+        final List<String> finished = new ArrayList<>();
+        PathRequestScheduler.Listener listener = (agent, result, state) -> {
+            Assert.assertEquals(SlicedPathRequest.State.COMPLETE, state);
+            finished.add((String) agent);
+        };
+
+        scheduler.submit("low", START, END, 1, new PathResult(), listener);
+        scheduler.submit("high", START, END, 5, new PathResult(), listener);
+        scheduler.submit("low", END, START, 2, new PathResult(), listener);
+        Assert.assertEquals(2, scheduler.getQueueDepth());
+        Assert.assertEquals(1, scheduler.getSupersededCount());
+
+        for (int updates = 0; scheduler.getQueueDepth() > 0; updates++) {
+            Assert.assertTrue("Scheduler did not finish", updates < 10000);
+            scheduler.update(10);
+        }
+
+        Assert.assertEquals(2, scheduler.getCompletedCount());
+        Assert.assertEquals("high", finished.get(0));
+        Assert.assertEquals("low", finished.get(1));
+        Assert.assertEquals(0, scheduler.getDroppedCount());
+    }
+
+    @Test
+    public void pathCacheHitsAndInvalidates() {
+        NavMeshData data = TestNavMeshes.buildTestNavMesh();
+        Pathfinder pathfinder = new Pathfinder(data);
+        PathCache cache = new PathCache(data, 16, 0.5f);
+        pathfinder.setPathCache(cache);
+
+        PathResult first = new PathResult();
+        pathfinder.getPath(START, END, first);
+        PathResult second = new PathResult();
+        pathfinder.getPath(START, END, second);
+
+        Assert.assertEquals(1, cache.getHits());
+        Assert.assertEquals(1, cache.getMisses());
+        Assert.assertTrue(TestNavMeshes.samePath(first, second));
+
+        data.update(data.getNavMesh());
+        Assert.assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void pathCacheEvictsOnlyPathsCrossingAReplacedTile() {
+        NavMeshData data = TestNavMeshes.buildTiledTestNavMesh();
+        NavMesh navMesh = data.getNavMesh();
+        List<MeshTile> tiles = TestNavMeshes.tilesWithPolys(navMesh);
+        Assert.assertTrue(tiles.size() > 1);
+        MeshTile replaced = tiles.get(0);
+        MeshTile kept = tiles.get(1);
+        long replacedRef = navMesh.getPolyRefBase(replaced);
+        long keptRef = navMesh.getPolyRefBase(kept);
+
+        PathCache cache = new PathCache(data, 16, 0.5f);
+        QueryFilter filter = new PathFinderSettings().getQueryFilter();
+        PathResult path = new PathResult();
+        path.add(1, 2, 3);
+        float[] start = {0, 0, 0};
+        float[] inside = {1, 0, 0};
+        float[] outside = {2, 0, 0};
+        float[] across = {3, 0, 0};
+        cache.put(replacedRef, replacedRef, filter, start, inside, new long[]{replacedRef}, 1, path);
+        cache.put(keptRef, keptRef, filter, start, outside, new long[]{keptRef}, 1, path);
+        cache.put(replacedRef, keptRef, filter, start, across, new long[]{replacedRef, keptRef}, 2, path);
+        Assert.assertEquals(3, cache.size());
+
+        data.replaceTile(replaced.data);
+
+        PathResult out = new PathResult();
+        Assert.assertEquals(1, cache.size());
+        Assert.assertTrue(cache.get(keptRef, keptRef, filter, start, outside, out));
+        Assert.assertTrue(TestNavMeshes.samePath(path, out));
+        Assert.assertFalse(cache.get(replacedRef, replacedRef, filter, start, inside, out));
+        Assert.assertFalse(cache.get(replacedRef, keptRef, filter, start, across, out));
+    }
+
+    @Test
+    public void pathCacheSkipsPartialPaths() {
+        NavMeshData data = TestNavMeshes.buildTiledTestNavMesh();
+        NavMesh navMesh = data.getNavMesh();
+        Pathfinder pathfinder = new Pathfinder(data);
+        PathCache cache = new PathCache(data, 16, 0.5f);
+        pathfinder.setPathCache(cache);
+
+        // Find a route and a tile along it whose removal cuts the route
+        int count = 100;
+        float[] starts = TestNavMeshes.polygonPositions(data, count, 41);
+        float[] ends = TestNavMeshes.polygonPositions(data, count, 42);
+        PathResult path = new PathResult();
+        for (int i = 0; i < count; i++) {
+            Vector3 start = new Vector3(starts[i * 3], starts[i * 3 + 1], starts[i * 3 + 2]);
+            Vector3 end = new Vector3(ends[i * 3], ends[i * 3 + 1], ends[i * 3 + 2]);
+            pathfinder.getPath(start, end, path);
+            if (!path.hasFlag(PathResult.FLAG_COMPLETE)) {
+                continue;
+            }
+            MeshTile startTile = tileAt(data, starts, i * 3);
+            MeshTile endTile = tileAt(data, ends, i * 3);
+            float[] point = new float[3];
+            for (int p = 1; p < path.size - 1; p++) {
+                MeshTile tile = tileAt(data, path.get(p, point), 0);
+                if (tile == null || tile == startTile || tile == endTile) {
+                    continue;
+                }
+                MeshData bridge = data.removeTile(tile.data.header.x, tile.data.header.y, tile.data.header.layer);
+                int cached = cache.size();
+                pathfinder.getPath(start, end, path);
+                if (!path.hasFlag(PathResult.FLAG_PARTIAL)) {
+                    data.addTile(bridge);
+                    continue;
+                }
+                Assert.assertEquals(cached, cache.size());
+
+                // Adding the bridging tile back completes the path
+                Assert.assertNotEquals(0, data.addTile(bridge));
+                long hits = cache.getHits();
+                pathfinder.getPath(start, end, path);
+                Assert.assertTrue(path.hasFlag(PathResult.FLAG_COMPLETE));
+                Assert.assertEquals(hits, cache.getHits());
+                return;
+            }
+        }
+        Assert.fail("No route in the test navmesh is cut by removing a single tile");
+    }
+
+    private static MeshTile tileAt(NavMeshData data, float[] positions, int offset) {
+        QueryFilter filter = new PathFinderSettings().getQueryFilter();
+        float[] position = Arrays.copyOfRange(positions, offset, offset + 3);
+        long ref = data.getNavMeshQuery().findNearestPoly(position, new float[]{0.5f, 1f, 0.5f}, filter).result
+                .getNearestRef();
+        return ref != 0 ? data.getNavMesh().getTileAndPolyByRef(ref).result.first : null;
+    }
+
+    @Test
+    public void nearestPolyCacheRevalidatesRepeatedLookups() {
+        NavMeshData data = TestNavMeshes.buildTestNavMesh();
+        Pathfinder pathfinder = new Pathfinder(data);
+        PathResult uncached = new PathResult();
+        pathfinder.getPath(START, END, uncached);
+        Assert.assertEquals(0, data.getNearestPolyCache().getHits());
+
+        PathResult cached = new PathResult();
+        pathfinder.getPath(START, END, cached);
+        Assert.assertEquals(2, data.getNearestPolyCache().getHits());
+        Assert.assertTrue(TestNavMeshes.samePath(uncached, cached));
+    }
+
+    @Test
+    public void islandIndexNeverRejectsReachablePaths() {
+        NavMeshData data = TestNavMeshes.buildTestNavMesh();
+        Pathfinder searching = new Pathfinder(data);
+        PathFinderSettings settings = new PathFinderSettings();
+        settings.setRejectUnreachable(true);
+        Pathfinder rejecting = new Pathfinder(settings, data);
+
+        int count = 200;
+        float[] starts = TestNavMeshes.randomPositions(data, count, 3);
+        float[] ends = TestNavMeshes.randomPositions(data, count, 4);
+        Vector3 start = new Vector3();
+        Vector3 end = new Vector3();
+        PathResult searched = new PathResult();
+        PathResult rejected = new PathResult();
+        for (int i = 0; i < count; i++) {
+            start.set(starts[i * 3], starts[i * 3 + 1], starts[i * 3 + 2]);
+            end.set(ends[i * 3], ends[i * 3 + 1], ends[i * 3 + 2]);
+            searching.getPath(start, end, searched);
+            rejecting.getPath(start, end, rejected);
+            if (rejected.hasFlag(PathResult.FLAG_UNREACHABLE)) {
+                Assert.assertFalse("Rejected a reachable path " + i, searched.hasFlag(PathResult.FLAG_COMPLETE));
+            } else {
+                Assert.assertTrue(TestNavMeshes.samePath(searched, rejected));
+            }
+        }
+        Assert.assertTrue(data.getIslandIndex().getIslandCount(0xffff, 0) > 0);
+        // The flags of other filters are unknown, so they are never rejected
+        Assert.assertFalse(data.getIslandIndex().isReachable(0, 0, settings.getQueryFilter()));
+        Assert.assertTrue(data.getIslandIndex().isReachable(0, 0, new TileHierarchy.CorridorFilter()));
+    }
+
+    @Test
+    public void landmarkPathsArePartialLikeDetourPaths() {
+        NavMeshData data = TestNavMeshes.buildTestNavMesh();
+        Pathfinder plain = new Pathfinder(data);
+        Pathfinder guided = new Pathfinder(data);
+        guided.setLandmarks(LandmarkTable.build(data.getIslandIndex().getGraph(), 4));
+        int count = 200;
+        float[] starts = TestNavMeshes.randomPositions(data, count, 9);
+        float[] ends = TestNavMeshes.randomPositions(data, count, 10);
+        Vector3 startPos = new Vector3();
+        Vector3 endPos = new Vector3();
+        PathResult plainPath = new PathResult();
+        PathResult guidedPath = new PathResult();
+        for (int i = 0; i < count; i++) {
+            startPos.set(starts[i * 3], starts[i * 3 + 1], starts[i * 3 + 2]);
+            endPos.set(ends[i * 3], ends[i * 3 + 1], ends[i * 3 + 2]);
+            plain.getPath(startPos, endPos, plainPath);
+            guided.getPath(startPos, endPos, guidedPath);
+            Assert.assertEquals(plainPath.flags, guidedPath.flags);
+        }
+    }
+
+    @Test
+    public void tileChangesInvalidateLandmarks() {
+        NavMeshData data = TestNavMeshes.buildTiledTestNavMesh();
+        Pathfinder pathfinder = new Pathfinder(data);
+        LandmarkTable landmarks = LandmarkTable.build(data.getIslandIndex().getGraph(), 4);
+        pathfinder.setLandmarks(landmarks);
+        Assert.assertSame(landmarks, pathfinder.getLandmarks());
+
+        data.replaceTile(TestNavMeshes.tilesWithPolys(data.getNavMesh()).get(0).data);
+        Assert.assertNull(pathfinder.getLandmarks());
+        try {
+            pathfinder.setLandmarks(landmarks);
+            Assert.fail("Landmarks of the old graph were accepted");
+        } catch (IllegalArgumentException expected) {
+            // The tables must be rebuilt for the new graph
+        }
+
+        LandmarkTable rebuilt = LandmarkTable.build(data.getIslandIndex().getGraph(), 4);
+        pathfinder.setLandmarks(rebuilt);
+        Assert.assertSame(rebuilt, pathfinder.getLandmarks());
+        PathResult result = new PathResult();
+        pathfinder.getPath(START, END, result);
+        Assert.assertTrue(result.size > 0);
+    }
+
+    @Test
+    public void costMatrixMatchesPairwiseSearches() {
+        NavMeshData data = TestNavMeshes.buildTestNavMesh();
+        PolyGraph graph = data.getIslandIndex().getGraph();
+        QueryFilter filter = new PathFinderSettings().getQueryFilter();
+        PolyAStar pairwise = new PolyAStar(graph, null);
+        PathCostSearch search = new PathCostSearch(graph);
+        Assert.assertTrue(pairwise.setFilter(filter));
+        Assert.assertTrue(search.setFilter(filter));
+
+        // Every entry matches a pairwise search plus the legs between the snapped positions and the polygon centers
+        PolyCorridor corridor = new PolyCorridor();
+        Pathfinder pathfinder = new Pathfinder(data);
+        int count = 50;
+        float[] sources = TestNavMeshes.polygonPositions(data, count, 3);
+        float[] ends = TestNavMeshes.polygonPositions(data, count, 4);
+        float[] matrix = new float[count * count];
+        pathfinder.getPathCosts(sources, count, ends, count, matrix);
+
+        float[] centers = graph.getCenters();
+        float[] extents = pathfinder.getSettings().getPolyPickExtents();
+        QueryFilter pathfinderFilter = pathfinder.getSettings().getQueryFilter();
+        float[] sourcePoint = new float[3];
+        float[] targetPoint = new float[3];
+        int reached = 0;
+        for (int i = 0; i < count; i += 7) {
+            long sourceRef = data.getNearestPolyCache().findNearestPoly(data.getNavMeshQuery(),
+                    Arrays.copyOfRange(sources, i * 3, i * 3 + 3), extents, pathfinderFilter, sourcePoint);
+            int source = graph.node(sourceRef);
+            for (int j = 0; j < count; j += 5) {
+                long targetRef = data.getNearestPolyCache().findNearestPoly(data.getNavMeshQuery(),
+                        Arrays.copyOfRange(ends, j * 3, j * 3 + 3), extents, pathfinderFilter, targetPoint);
+                int target = graph.node(targetRef);
+                float expected;
+                if (source == target) {
+                    expected = distance(sourcePoint, 0, targetPoint, 0) * search.getAreaCost(source);
+                } else if (pairwise.findPath(sourceRef, targetRef, corridor)) {
+                    expected = distance(sourcePoint, 0, centers, source * 3) * search.getAreaCost(source)
+                            + pairwise.getLastCost()
+                            + distance(centers, target * 3, targetPoint, 0) * search.getAreaCost(target);
+                } else {
+                    expected = Float.POSITIVE_INFINITY;
+                }
+                Assert.assertEquals(expected, matrix[i * count + j], Math.max(1e-3f, expected * 1e-4f));
+                if (expected != Float.POSITIVE_INFINITY) {
+                    reached++;
+                }
+            }
+        }
+        Assert.assertTrue(reached > 0);
+    }
+
+    static PathResult[] newResults(int count) {
+        PathResult[] results = new PathResult[count];
+        for (int i = 0; i < count; i++) {
+            results[i] = new PathResult();
+        }
+        return results;
+    }
+
+    static float distance(float[] a, int ai, float[] b, int bi) {
+        float dx = a[ai] - b[bi];
+        float dy = a[ai + 1] - b[bi + 1];
+        float dz = a[ai + 2] - b[bi + 2];
+        return (float) Math.sqrt(dx * dx + dy * dy + dz * dz);
+    }
+
+    /**
+     * gdx-recast's own steady state does not allocate: the result buffer, the corridor, the smoother state and the
+     * nearest polygon cache are all reused. What remains comes from recast4j, whose queries return new wrappers on
+     * every call:
+     * <ul>
+     * <li>findPath: the node pool entries and open list of the search, and the returned list of boxed refs</li>
+     * <li>closestPointOnPoly, twice per query: a Result and the closest point</li>
+     * <li>every smoothing step: moveAlongSurface's Result, position and visited list, getTileAndPolyByRef's Result
+     * and Tupple2 in fixupShortcuts, getPolyHeight's Result and boxed Float, and in the ITERATIVE mode
+     * findStraightPath's list of StraightPathItems</li>
+     * <li>nearest polygon lookups: getTileAndPolyByRef and getPolyHeight wrappers on a cache hit, findNearestPoly's
+     * Result and polygon lists on a miss</li>
+     * </ul>
+     * The array mode makes the same Detour calls, so the reusable mode must save at least the {@code float[3]} the
+     * array mode allocates per point, an object of 16 bytes or more.
+     */
+    @Test
+    public void reusableResultOnlyLeavesDetourAllocations() {
+        Assume.assumeTrue(TestNavMeshes.allocatedBytes() >= 0);
+
+        Pathfinder pathfinder = new Pathfinder(TestNavMeshes.buildTestNavMesh());
+        PathResult result = new PathResult();
+        Array<float[]> paths = new Array<>();
+
+        for (int i = 0; i < 50; i++) {
+            pathfinder.getPath(START, END, result);
+            pathfinder.getPath(START, END, paths);
+        }
+
+        int runs = 200;
+        long before = TestNavMeshes.allocatedBytes();
+        for (int i = 0; i < runs; i++) {
+            pathfinder.getPath(START, END, paths);
+        }
+        long arrayBytes = TestNavMeshes.allocatedBytes() - before;
+
+        before = TestNavMeshes.allocatedBytes();
+        for (int i = 0; i < runs; i++) {
+            pathfinder.getPath(START, END, result);
+        }
+        long reusableBytes = TestNavMeshes.allocatedBytes() - before;
+
+        Assert.assertTrue(result.size > 1);
+        long pointArrayBytes = (long) runs * result.size * 16;
+        Assert.assertTrue("Reusable path allocated " + reusableBytes + " bytes, array path " + arrayBytes,
+                arrayBytes - reusableBytes >= pointArrayBytes);
+    }
+
 }
@@ -0,0 +1,120 @@
+package com.github.jamestkhan.recast;
+
+import com.github.jamestkhan.recast.detour.PolyGraph;
+import com.github.jamestkhan.recast.geom.NavMeshUtils;
+import com.github.jamestkhan.recast.utils.NavMeshGenerator;
+import org.recast4j.detour.MeshTile;
+import org.recast4j.detour.NavMesh;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Navmeshes built from the test model, and helpers to pick positions on them and compare the paths found.
+ *
+ * @author JamesTKhan
+ * @version October 18, 2026
+ */
+public final class TestNavMeshes {
+
+    private TestNavMeshes() {
+    }
+
+    public static NavMeshData buildTestNavMesh() {
+        NavMeshGenSettings settings = NavMeshGenSettings.Builder.SettingsBuilder()
+                .agentRadius(1.0f)
+                .agentHeight(2.0f)
+                .agentMaxClimb(2.50f)
+                .build();
+
+        NavMeshGenerator builder = new NavMeshGenerator(TestNavMeshes.class.getClassLoader().getResourceAsStream("nav_test.obj"));
+        return builder.build(settings);
+    }
+
+    public static NavMeshData buildTiledTestNavMesh() {
+        NavMeshGenSettings settings = NavMeshGenSettings.Builder.SettingsBuilder()
+                .agentRadius(1.0f)
+                .agentHeight(2.0f)
+                .agentMaxClimb(2.50f)
+                .useTiles(true)
+                .tileSizeX(32)
+                .tileSizeZ(32)
+                .build();
+
+        NavMeshGenerator builder = new NavMeshGenerator(TestNavMeshes.class.getClassLoader().getResourceAsStream("nav_test.obj"));
+        return builder.build(settings);
+    }
+
+    /**
+     * @return the tiles of the navmesh that have polygons
+     */
+    public static List<MeshTile> tilesWithPolys(NavMesh navMesh) {
+        List<MeshTile> tiles = new ArrayList<>();
+        for (int t = 0; t < navMesh.getMaxTiles(); t++) {
+            MeshTile tile = navMesh.getTile(t);
+            if (tile.data != null && tile.data.header.polyCount > 0) {
+                tiles.add(tile);
+            }
+        }
+        return tiles;
+    }
+
+    public static float[] randomPositions(NavMeshData data, int count, long seed) {
+        float[][] bounds = NavMeshUtils.getNavMeshBounds(data.getNavMesh());
+        Random random = new Random(seed);
+        float[] positions = new float[count * 3];
+        for (int i = 0; i < positions.length; i++) {
+            int axis = i % 3;
+            positions[i] = bounds[0][axis] + random.nextFloat() * (bounds[1][axis] - bounds[0][axis]);
+        }
+        return positions;
+    }
+
+    /**
+     * @return positions at the centers of random polygons, so every position snaps to the navmesh
+     */
+    public static float[] polygonPositions(NavMeshData data, int count, long seed) {
+        PolyGraph graph = data.getIslandIndex().getGraph();
+        float[] centers = graph.getCenters();
+        Random random = new Random(seed);
+        float[] positions = new float[count * 3];
+        for (int i = 0; i < count; i++) {
+            System.arraycopy(centers, random.nextInt(graph.getNodeCount()) * 3, positions, i * 3, 3);
+        }
+        return positions;
+    }
+
+    public static boolean samePath(PathResult a, PathResult b) {
+        if (a.size != b.size || a.flags != b.flags) {
+            return false;
+        }
+        for (int i = 0; i < a.size * 3; i++) {
+            if (a.points[i] != b.points[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public static float pathLength(PathResult path) {
+        float length = 0;
+        for (int i = 1; i < path.size; i++) {
+            float dx = path.getX(i) - path.getX(i - 1);
+            float dy = path.getY(i) - path.getY(i - 1);
+            float dz = path.getZ(i) - path.getZ(i - 1);
+            length += (float) Math.sqrt(dx * dx + dy * dy + dz * dz);
+        }
+        return length;
+    }
+
+    public static long allocatedBytes() {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return -1;
+    }
+}
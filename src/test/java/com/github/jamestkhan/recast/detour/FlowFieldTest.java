@@ -0,0 +1,45 @@
+package com.github.jamestkhan.recast.detour;
+
+import com.github.jamestkhan.recast.NavMeshData;
+import com.github.jamestkhan.recast.PathFinderSettings;
+import com.github.jamestkhan.recast.TestNavMeshes;
+import com.github.jamestkhan.recast.utils.PolyCorridor;
+import org.junit.Assert;
+import org.junit.Test;
+import org.recast4j.detour.QueryFilter;
+
+import java.util.Random;
+
+public class FlowFieldTest {
+
+    @Test
+    public void distancesMatchPerAgentSearch() {
+        NavMeshData data = TestNavMeshes.buildTestNavMesh();
+        PolyGraph graph = data.getIslandIndex().getGraph();
+        QueryFilter filter = new PathFinderSettings().getQueryFilter();
+        PolyAStar search = new PolyAStar(graph, null);
+        Assert.assertTrue(search.setFilter(filter));
+
+        Random random = new Random(7);
+        long goalRef = graph.ref(random.nextInt(graph.getNodeCount()));
+        FlowField field = new FlowField(graph);
+        Assert.assertTrue(field.build(goalRef, new float[3], filter));
+
+        PolyCorridor corridor = new PolyCorridor();
+        for (int i = 0; i < 200; i++) {
+            long ref = graph.ref(random.nextInt(graph.getNodeCount()));
+            boolean found = search.findPath(ref, goalRef, corridor);
+            Assert.assertEquals(found, field.isReachable(ref));
+            if (!found) {
+                continue;
+            }
+            Assert.assertEquals(search.getLastCost(), field.getDistance(ref), search.getLastCost() * 1e-4f);
+
+            // Following the next hops reaches the goal without revisiting a polygon
+            int hops = 0;
+            for (long r = ref; r != goalRef; r = field.getNextHop(r)) {
+                Assert.assertTrue(++hops <= graph.getNodeCount());
+            }
+        }
+    }
+}
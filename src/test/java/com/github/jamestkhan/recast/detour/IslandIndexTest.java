@@ -0,0 +1,110 @@
+package com.github.jamestkhan.recast.detour;
+
+import com.github.jamestkhan.recast.NavMeshData;
+import com.github.jamestkhan.recast.TestNavMeshes;
+import com.github.jamestkhan.recast.builders.SampleAreaModifications;
+import org.junit.Assert;
+import org.junit.Test;
+import org.recast4j.detour.MeshData;
+import org.recast4j.detour.MeshTile;
+import org.recast4j.detour.NavMesh;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+public class IslandIndexTest {
+    private static final int INCLUDE = SampleAreaModifications.SAMPLE_POLYFLAGS_ALL;
+    private static final int EXCLUDE = SampleAreaModifications.SAMPLE_POLYFLAGS_DISABLED;
+
+    @Test
+    public void tileChangesUpdateTheGraphInPlace() {
+        NavMeshData data = TestNavMeshes.buildTiledTestNavMesh();
+        IslandIndex index = data.getIslandIndex();
+        PolyGraph before = index.getGraph();
+        NavMesh navMesh = data.getNavMesh();
+        List<MeshTile> tiles = TestNavMeshes.tilesWithPolys(navMesh);
+        Random random = new Random(31);
+
+        // Remove some tiles, replace others and add back one of the removed
+        List<MeshData> removed = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            MeshData tile = tiles.remove(random.nextInt(tiles.size())).data;
+            removed.add(data.removeTile(tile.header.x, tile.header.y, tile.header.layer));
+        }
+        for (int i = 0; i < 3; i++) {
+            MeshData tile = tiles.get(random.nextInt(tiles.size())).data;
+            data.removeTile(tile.header.x, tile.header.y, tile.header.layer);
+            data.addTile(tile);
+        }
+        Assert.assertNotEquals(0, data.addTile(removed.get(0)));
+
+        PolyGraph updated = index.getGraph();
+        Assert.assertNotSame(before, updated);
+        assertSameGraph(new PolyGraph(navMesh), updated);
+
+        IslandIndex fresh = new IslandIndex(data);
+        for (int n = 0; n < updated.getNodeCount(); n += 3) {
+            if (!updated.isUsed(n)) {
+                continue;
+            }
+            for (int m = 0; m < updated.getNodeCount(); m += 17) {
+                if (updated.isUsed(m)) {
+                    Assert.assertEquals(fresh.isReachable(updated.ref(n), updated.ref(m), INCLUDE, EXCLUDE),
+                            index.isReachable(updated.ref(n), updated.ref(m), INCLUDE, EXCLUDE));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void replacingATileNotifiesOnce() {
+        NavMeshData data = TestNavMeshes.buildTiledTestNavMesh();
+        MeshTile tile = TestNavMeshes.tilesWithPolys(data.getNavMesh()).get(0);
+        int tileIndex = tile.index;
+        final List<Integer> changes = new ArrayList<>();
+        data.addListener(new NavMeshData.Listener() {
+            @Override
+            public void navMeshChanged(NavMeshData navMeshData) {
+            }
+
+            @Override
+            public void tileChanged(NavMeshData navMeshData, int index) {
+                changes.add(index);
+            }
+        });
+
+        Assert.assertNotEquals(0, data.replaceTile(tile.data));
+        Assert.assertEquals(1, changes.size());
+        Assert.assertEquals(tileIndex, (int) changes.get(0));
+    }
+
+    /**
+     * Compare two graphs of the same navmesh by polygon ref, ignoring their numbering.
+     */
+    private static void assertSameGraph(PolyGraph expected, PolyGraph actual) {
+        Assert.assertEquals(expected.getUsedNodeCount(), actual.getUsedNodeCount());
+        for (int n = 0; n < expected.getNodeCount(); n++) {
+            long ref = expected.ref(n);
+            int m = actual.node(ref);
+            Assert.assertTrue(m >= 0);
+            Assert.assertEquals(expected.getPolyFlags(n), actual.getPolyFlags(m));
+            Assert.assertEquals(expected.getArea(n), actual.getArea(m));
+            for (int i = 0; i < 3; i++) {
+                Assert.assertEquals(expected.getCenters()[n * 3 + i], actual.getCenters()[m * 3 + i], 0f);
+            }
+            Assert.assertEquals(neighbours(expected, n), neighbours(actual, m));
+        }
+    }
+
+    private static Set<Long> neighbours(PolyGraph graph, int node) {
+        Set<Long> refs = new HashSet<>();
+        for (int e = graph.getEdgeStart(node); e < graph.getEdgeEnd(node); e++) {
+            int m = graph.getEdgeTarget(e);
+            refs.add(m >= 0 ? graph.ref(m) : 0L);
+        }
+        return refs;
+    }
+}
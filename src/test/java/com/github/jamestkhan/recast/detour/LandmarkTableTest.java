@@ -0,0 +1,87 @@
+package com.github.jamestkhan.recast.detour;
+
+import com.github.jamestkhan.recast.NavMeshData;
+import com.github.jamestkhan.recast.PathFinderSettings;
+import com.github.jamestkhan.recast.TestNavMeshes;
+import com.github.jamestkhan.recast.utils.PolyCorridor;
+import org.junit.Assert;
+import org.junit.Test;
+import org.recast4j.detour.QueryFilter;
+
+import java.util.Random;
+
+public class LandmarkTableTest {
+
+    @Test
+    public void reduceNodeExpansions() {
+        NavMeshData data = TestNavMeshes.buildTestNavMesh();
+        PolyGraph graph = data.getIslandIndex().getGraph();
+        LandmarkTable landmarks = LandmarkTable.build(graph, 8);
+        LandmarkTable reloaded = LandmarkTable.fromBytes(landmarks.toBytes(), graph);
+
+        QueryFilter filter = new PathFinderSettings().getQueryFilter();
+        PolyAStar plain = new PolyAStar(graph, null);
+        PolyAStar alt = new PolyAStar(graph, reloaded);
+        Assert.assertTrue(plain.setFilter(filter));
+        Assert.assertTrue(alt.setFilter(filter));
+
+        PolyCorridor corridor = new PolyCorridor();
+        Random random = new Random(5);
+        long plainExpansions = 0;
+        long altExpansions = 0;
+        for (int i = 0; i < 500; i++) {
+            long start = graph.ref(random.nextInt(graph.getNodeCount()));
+            long end = graph.ref(random.nextInt(graph.getNodeCount()));
+            boolean found = plain.findPath(start, end, corridor);
+            Assert.assertEquals(found, alt.findPath(start, end, corridor));
+            if (found) {
+                Assert.assertEquals(plain.getLastCost(), alt.getLastCost(), plain.getLastCost() * 1e-4f);
+            }
+            plainExpansions += plain.getLastExpansions();
+            altExpansions += alt.getLastExpansions();
+        }
+        Assert.assertTrue(altExpansions <= plainExpansions);
+    }
+
+    @Test
+    public void unreachableEndYieldsPartialCorridor() {
+        NavMeshData data = TestNavMeshes.buildTestNavMesh();
+        PolyGraph graph = data.getIslandIndex().getGraph();
+        QueryFilter filter = new PathFinderSettings().getQueryFilter();
+        PolyAStar search = new PolyAStar(graph, LandmarkTable.build(graph, 4));
+        Assert.assertTrue(search.setFilter(filter));
+
+        PolyCorridor corridor = new PolyCorridor();
+        Random random = new Random(8);
+        for (int i = 0; i < 200; i++) {
+            long start = graph.ref(random.nextInt(graph.getNodeCount()));
+            long end = graph.ref(random.nextInt(graph.getNodeCount()));
+            corridor.clear();
+            boolean found = search.findPath(start, end, corridor);
+            Assert.assertEquals(found, data.getIslandIndex().isReachable(start, end, filter));
+            if (!found && !corridor.isEmpty()) {
+                Assert.assertEquals(start, corridor.first());
+                Assert.assertTrue(data.getIslandIndex().isReachable(start, corridor.last(), filter));
+            }
+        }
+    }
+
+    @Test
+    public void tileChangesInvalidateLandmarks() {
+        NavMeshData data = TestNavMeshes.buildTiledTestNavMesh();
+        LandmarkTable landmarks = LandmarkTable.build(data.getIslandIndex().getGraph(), 4);
+
+        data.replaceTile(TestNavMeshes.tilesWithPolys(data.getNavMesh()).get(0).data);
+        PolyGraph graph = data.getIslandIndex().getGraph();
+        Assert.assertNotSame(graph, landmarks.getGraph());
+        try {
+            new PolyAStar(graph, landmarks);
+            Assert.fail("Landmarks of the old graph were accepted");
+        } catch (IllegalArgumentException expected) {
+            // The tables must be rebuilt for the new graph
+        }
+
+        LandmarkTable rebuilt = LandmarkTable.build(graph, 4);
+        Assert.assertSame(graph, new PolyAStar(graph, rebuilt).getGraph());
+    }
+}
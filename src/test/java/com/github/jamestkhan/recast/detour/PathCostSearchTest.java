@@ -0,0 +1,44 @@
+package com.github.jamestkhan.recast.detour;
+
+import com.github.jamestkhan.recast.NavMeshData;
+import com.github.jamestkhan.recast.PathFinderSettings;
+import com.github.jamestkhan.recast.TestNavMeshes;
+import com.github.jamestkhan.recast.utils.PolyCorridor;
+import org.junit.Assert;
+import org.junit.Test;
+import org.recast4j.detour.QueryFilter;
+
+import java.util.Random;
+
+public class PathCostSearchTest {
+
+    @Test
+    public void costsMatchPairwiseSearches() {
+        NavMeshData data = TestNavMeshes.buildTestNavMesh();
+        PolyGraph graph = data.getIslandIndex().getGraph();
+        QueryFilter filter = new PathFinderSettings().getQueryFilter();
+        PolyAStar pairwise = new PolyAStar(graph, null);
+        PathCostSearch search = new PathCostSearch(graph);
+        Assert.assertTrue(pairwise.setFilter(filter));
+        Assert.assertTrue(search.setFilter(filter));
+
+        Random random = new Random(11);
+        int[] targets = new int[32];
+        for (int j = 0; j < targets.length; j++) {
+            targets[j] = random.nextInt(graph.getNodeCount());
+        }
+        float[] costs = new float[targets.length];
+        PolyCorridor corridor = new PolyCorridor();
+        for (int i = 0; i < 20; i++) {
+            int source = random.nextInt(graph.getNodeCount());
+            search.search(source, targets, targets.length, costs, 0);
+            for (int j = 0; j < targets.length; j++) {
+                if (pairwise.findPath(graph.ref(source), graph.ref(targets[j]), corridor)) {
+                    Assert.assertEquals(pairwise.getLastCost(), costs[j], pairwise.getLastCost() * 1e-4f);
+                } else {
+                    Assert.assertEquals(Float.POSITIVE_INFINITY, costs[j], 0f);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package com.github.jamestkhan.recast.detour;
+
+import com.badlogic.gdx.math.Vector3;
+import com.badlogic.gdx.utils.IntSet;
+import com.github.jamestkhan.recast.NavMeshData;
+import com.github.jamestkhan.recast.TestNavMeshes;
+import com.github.jamestkhan.recast.PathResult;
+import com.github.jamestkhan.recast.Pathfinder;
+import org.junit.Assert;
+import org.junit.Test;
+import org.recast4j.detour.MeshData;
+import org.recast4j.detour.MeshTile;
+import org.recast4j.detour.NavMesh;
+import org.recast4j.detour.NavMeshQuery;
+import org.recast4j.detour.QueryFilter;
+
+import java.util.List;
+
+public class TileHierarchyTest {
+    private static final int COUNT = 200;
+
+    @Test
+    public void corridorPathsMatchFullSearches() {
+        NavMeshData data = TestNavMeshes.buildTiledTestNavMesh();
+        Pathfinder full = new Pathfinder(data);
+        Pathfinder restricted = new Pathfinder(data);
+        TileHierarchy hierarchy = new TileHierarchy(data, restricted.getSettings().getQueryFilter());
+        restricted.setTileHierarchy(hierarchy);
+        assertCorridorPathsMatch(data, full, restricted, hierarchy);
+
+        List<MeshTile> tiles = TestNavMeshes.tilesWithPolys(data.getNavMesh());
+        data.replaceTile(tiles.get(tiles.size() / 2).data);
+        assertCorridorPathsMatch(data, full, restricted, hierarchy);
+    }
+
+    @Test
+    public void blockedCorridorFallsBackToFullSearch() {
+        NavMeshData data = TestNavMeshes.buildTiledTestNavMesh();
+        NavMesh navMesh = data.getNavMesh();
+        Pathfinder full = new Pathfinder(data);
+        Pathfinder restricted = new Pathfinder(data);
+        QueryFilter filter = restricted.getSettings().getQueryFilter();
+        TileHierarchy hierarchy = new TileHierarchy(data, filter);
+        restricted.setTileHierarchy(hierarchy);
+
+        // Find a corridor crossing at least one tile between the start and end tiles
+        float[] starts = TestNavMeshes.polygonPositions(data, COUNT, 5);
+        float[] ends = TestNavMeshes.polygonPositions(data, COUNT, 6);
+        TileHierarchy.CorridorSearch search = new TileHierarchy.CorridorSearch(hierarchy);
+        IntSet corridor = new IntSet();
+        int pair = -1;
+        long startRef = 0;
+        long endRef = 0;
+        for (int i = 0; i < COUNT && pair < 0; i++) {
+            startRef = nearestRef(data, starts, i, filter);
+            endRef = nearestRef(data, ends, i, filter);
+            if (search.findCorridorTiles(startRef, endRef, position(ends, i), corridor) && corridor.size > 2) {
+                pair = i;
+            }
+        }
+        Assert.assertTrue("No corridor crosses a middle tile", pair >= 0);
+
+        // Remove the middle tiles behind the hierarchy's back, so the corridor no longer leads to the end polygon
+        int startTile = navMesh.getTileAndPolyByRef(startRef).result.first.index;
+        int endTile = navMesh.getTileAndPolyByRef(endRef).result.first.index;
+        IntSet.IntSetIterator iterator = corridor.iterator();
+        while (iterator.hasNext) {
+            int t = iterator.next();
+            if (t != startTile && t != endTile) {
+                MeshTile tile = navMesh.getTile(t);
+                navMesh.removeTile(navMesh.getTileRefAt(tile.data.header.x, tile.data.header.y, tile.data.header.layer));
+            }
+        }
+        Assert.assertTrue(search.findCorridorTiles(startRef, endRef, position(ends, pair), corridor));
+
+        TileHierarchy.CorridorFilter corridorFilter = new TileHierarchy.CorridorFilter();
+        corridorFilter.getTiles().addAll(corridor);
+        corridorFilter.setDelegate(filter);
+        List<Long> blocked = new NavMeshQuery(navMesh).findPath(startRef, endRef, position(starts, pair),
+                position(ends, pair), corridorFilter).result;
+        Assert.assertTrue(blocked == null || blocked.isEmpty() || blocked.get(blocked.size() - 1) != endRef);
+
+        Vector3 start = new Vector3(starts[pair * 3], starts[pair * 3 + 1], starts[pair * 3 + 2]);
+        Vector3 end = new Vector3(ends[pair * 3], ends[pair * 3 + 1], ends[pair * 3 + 2]);
+        PathResult expected = new PathResult();
+        PathResult actual = new PathResult();
+        full.getPath(start, end, expected);
+        restricted.getPath(start, end, actual);
+        Assert.assertTrue(TestNavMeshes.samePath(expected, actual));
+    }
+
+    @Test
+    public void rebuildAroundMatchesFullRebuild() {
+        NavMeshData data = TestNavMeshes.buildTiledTestNavMesh();
+        QueryFilter filter = new Pathfinder(data).getSettings().getQueryFilter();
+        TileHierarchy incremental = new TileHierarchy(data, filter);
+
+        List<MeshTile> tiles = TestNavMeshes.tilesWithPolys(data.getNavMesh());
+        MeshData tileData = tiles.get(tiles.size() / 2).data;
+        data.removeTile(tileData.header.x, tileData.header.y, tileData.header.layer);
+        assertSameGraph(data, incremental, new TileHierarchy(data, filter));
+
+        data.addTile(tileData);
+        assertSameGraph(data, incremental, new TileHierarchy(data, filter));
+    }
+
+    private static void assertCorridorPathsMatch(NavMeshData data, Pathfinder full, Pathfinder restricted,
+            TileHierarchy hierarchy) {
+        float[] starts = TestNavMeshes.polygonPositions(data, COUNT, 1);
+        float[] ends = TestNavMeshes.polygonPositions(data, COUNT, 2);
+        QueryFilter filter = hierarchy.getFilter();
+        TileHierarchy.CorridorSearch search = new TileHierarchy.CorridorSearch(hierarchy);
+        IntSet corridor = new IntSet();
+        Vector3 start = new Vector3();
+        Vector3 end = new Vector3();
+        PathResult expected = new PathResult();
+        PathResult actual = new PathResult();
+        float fullLength = 0;
+        float restrictedLength = 0;
+        int corridors = 0;
+        for (int i = 0; i < COUNT; i++) {
+            start.set(starts[i * 3], starts[i * 3 + 1], starts[i * 3 + 2]);
+            end.set(ends[i * 3], ends[i * 3 + 1], ends[i * 3 + 2]);
+            full.getPath(start, end, expected);
+            restricted.getPath(start, end, actual);
+            // A corridor that does not lead to the end polygon falls back to the full search
+            Assert.assertEquals("Pair " + i, expected.flags, actual.flags);
+            if (expected.hasFlag(PathResult.FLAG_COMPLETE)) {
+                Assert.assertEquals(expected.getX(expected.size - 1), actual.getX(actual.size - 1), 0.001f);
+                Assert.assertEquals(expected.getZ(expected.size - 1), actual.getZ(actual.size - 1), 0.001f);
+                fullLength += TestNavMeshes.pathLength(expected);
+                restrictedLength += TestNavMeshes.pathLength(actual);
+            }
+            if (search.findCorridorTiles(nearestRef(data, starts, i, filter), nearestRef(data, ends, i, filter),
+                    position(ends, i), corridor)) {
+                corridors++;
+            }
+        }
+        Assert.assertTrue("No pair was searched through a corridor", corridors > 0);
+        // Restricting the search to the corridor may lengthen a path, but not by much overall
+        Assert.assertTrue(restrictedLength <= fullLength * 1.25f);
+    }
+
+    private static void assertSameGraph(NavMeshData data, TileHierarchy actual, TileHierarchy expected) {
+        Assert.assertEquals(expected.getNodeCount(), actual.getNodeCount());
+        float[] starts = TestNavMeshes.polygonPositions(data, COUNT, 3);
+        float[] ends = TestNavMeshes.polygonPositions(data, COUNT, 4);
+        TileHierarchy.CorridorSearch expectedSearch = new TileHierarchy.CorridorSearch(expected);
+        TileHierarchy.CorridorSearch actualSearch = new TileHierarchy.CorridorSearch(actual);
+        IntSet expectedTiles = new IntSet();
+        IntSet actualTiles = new IntSet();
+        int corridors = 0;
+        for (int i = 0; i < COUNT; i++) {
+            long startRef = nearestRef(data, starts, i, expected.getFilter());
+            long endRef = nearestRef(data, ends, i, expected.getFilter());
+            boolean found = expectedSearch.findCorridorTiles(startRef, endRef, position(ends, i), expectedTiles);
+            Assert.assertEquals(found, actualSearch.findCorridorTiles(startRef, endRef, position(ends, i), actualTiles));
+            Assert.assertEquals(expectedTiles.size, actualTiles.size);
+            IntSet.IntSetIterator iterator = expectedTiles.iterator();
+            while (iterator.hasNext) {
+                Assert.assertTrue(actualTiles.contains(iterator.next()));
+            }
+            if (found) {
+                corridors++;
+            }
+        }
+        Assert.assertTrue(corridors > 0);
+        expected.dispose();
+    }
+
+    private static long nearestRef(NavMeshData data, float[] positions, int i, QueryFilter filter) {
+        return data.getNavMeshQuery().findNearestPoly(position(positions, i), new float[]{2, 4, 2}, filter).result
+                .getNearestRef();
+    }
+
+    private static float[] position(float[] positions, int i) {
+        return new float[]{positions[i * 3], positions[i * 3 + 1], positions[i * 3 + 2]};
+    }
+}
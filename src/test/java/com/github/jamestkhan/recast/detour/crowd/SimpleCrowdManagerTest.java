@@ -0,0 +1,154 @@
+package com.github.jamestkhan.recast.detour.crowd;
+
+import com.badlogic.gdx.math.Vector3;
+import com.badlogic.gdx.utils.Array;
+import com.github.jamestkhan.recast.NavMeshData;
+import com.github.jamestkhan.recast.TestNavMeshes;
+import com.github.jamestkhan.recast.PathResult;
+import com.github.jamestkhan.recast.Pathfinder;
+import com.github.jamestkhan.recast.detour.FlowField;
+import org.junit.Assert;
+import org.junit.Test;
+import org.recast4j.detour.MeshTile;
+import org.recast4j.detour.NavMesh;
+import org.recast4j.detour.QueryFilter;
+import org.recast4j.detour.crowd.CrowdAgent;
+import org.recast4j.detour.crowd.CrowdConfig;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class SimpleCrowdManagerTest {
+    private static final float STEP = 0.1f;
+
+    @Test
+    public void groupMoveReachesTarget() {
+        NavMeshData data = TestNavMeshes.buildTiledTestNavMesh();
+        Vector3[] route = findRoute(data, 3);
+        SimpleCrowdManager manager = new SimpleCrowdManager(data, new CrowdConfig(0.6f));
+        Array<CrowdAgent> agents = addAgents(manager, route[0], 3);
+
+        FlowField field = manager.setGroupMoveTarget(agents, route[1]);
+        Assert.assertNotNull(field);
+
+        // Every agent is handed the field's corridor to the target right away, the crowd has nothing to search
+        List<Long> expected = new ArrayList<>();
+        for (CrowdAgent agent : agents) {
+            Assert.assertTrue(manager.isGroupMoving(agent));
+            Assert.assertTrue(field.getCorridor(agent.corridor.getFirstPoly(), expected));
+            Assert.assertEquals(expected, agent.corridor.getPath());
+            Assert.assertEquals(field.getGoalRef(), agent.targetRef);
+        }
+
+        // Agents leave the group once they reach the target polygon
+        int steps = 0;
+        while (!allWithin(agents, route[1], 2f) && steps++ < 3000) {
+            manager.update(STEP);
+        }
+        Assert.assertTrue("Agents did not reach the target in " + steps + " steps", allWithin(agents, route[1], 2f));
+        for (CrowdAgent agent : agents) {
+            Assert.assertFalse(manager.isGroupMoving(agent));
+        }
+    }
+
+    @Test
+    public void removedAgentLeavesGroup() {
+        NavMeshData data = TestNavMeshes.buildTiledTestNavMesh();
+        Vector3[] route = findRoute(data, 3);
+        SimpleCrowdManager manager = new SimpleCrowdManager(data, new CrowdConfig(0.6f));
+        Array<CrowdAgent> agents = addAgents(manager, route[0], 2);
+        Assert.assertNotNull(manager.setGroupMoveTarget(agents, route[1]));
+
+        manager.removeAgent(agents.get(0));
+        Assert.assertFalse(manager.isGroupMoving(agents.get(0)));
+        Assert.assertTrue(manager.isGroupMoving(agents.get(1)));
+
+        manager.setAgentMoveTarget(agents.get(1), route[1]);
+        Assert.assertFalse(manager.isGroupMoving(agents.get(1)));
+    }
+
+    @Test
+    public void groupLeavesWhenTargetTilesAreRemoved() {
+        NavMeshData data = TestNavMeshes.buildTiledTestNavMesh();
+        Vector3[] route = findRoute(data, 4);
+        SimpleCrowdManager manager = new SimpleCrowdManager(data, new CrowdConfig(0.6f));
+        Array<CrowdAgent> agents = addAgents(manager, route[0], 2);
+        Assert.assertNotNull(manager.setGroupMoveTarget(agents, route[1]));
+        manager.update(STEP);
+        for (CrowdAgent agent : agents) {
+            Assert.assertTrue(manager.isGroupMoving(agent));
+        }
+
+        // Remove the target's tile and its neighbours, nothing is left within the crowd's query extents of the target
+        NavMesh navMesh = data.getNavMesh();
+        MeshTile target = tileAt(data, route[1]);
+        int x = target.data.header.x;
+        int y = target.data.header.y;
+        for (int dy = -1; dy <= 1; dy++) {
+            for (int dx = -1; dx <= 1; dx++) {
+                for (MeshTile tile : navMesh.getTilesAt(x + dx, y + dy)) {
+                    data.removeTile(x + dx, y + dy, tile.data.header.layer);
+                }
+            }
+        }
+        manager.update(STEP);
+        for (CrowdAgent agent : agents) {
+            Assert.assertFalse(manager.isGroupMoving(agent));
+        }
+    }
+
+    /**
+     * @return a start and a target polygon center connected by a path, at least the given number of tiles apart
+     */
+    private static Vector3[] findRoute(NavMeshData data, int minTiles) {
+        int count = 200;
+        float[] starts = TestNavMeshes.polygonPositions(data, count, 21);
+        float[] ends = TestNavMeshes.polygonPositions(data, count, 22);
+        Pathfinder pathfinder = new Pathfinder(data);
+        PathResult path = new PathResult();
+        for (int i = 0; i < count; i++) {
+            Vector3 start = new Vector3(starts[i * 3], starts[i * 3 + 1], starts[i * 3 + 2]);
+            Vector3 end = new Vector3(ends[i * 3], ends[i * 3 + 1], ends[i * 3 + 2]);
+            MeshTile startTile = tileAt(data, start);
+            MeshTile endTile = tileAt(data, end);
+            if (startTile == null || endTile == null
+                    || Math.max(Math.abs(startTile.data.header.x - endTile.data.header.x),
+                    Math.abs(startTile.data.header.y - endTile.data.header.y)) < minTiles) {
+                continue;
+            }
+            pathfinder.getPath(start, end, path);
+            if (path.hasFlag(PathResult.FLAG_COMPLETE) && TestNavMeshes.pathLength(path) < 80) {
+                return new Vector3[]{start, end};
+            }
+        }
+        throw new AssertionError("No route " + minTiles + " tiles long in the test navmesh");
+    }
+
+    private static MeshTile tileAt(NavMeshData data, Vector3 position) {
+        QueryFilter filter = new Pathfinder(data).getSettings().getQueryFilter();
+        long ref = data.getNavMeshQuery().findNearestPoly(new float[]{position.x, position.y, position.z},
+                new float[]{0.5f, 1f, 0.5f}, filter).result.getNearestRef();
+        return ref != 0 ? data.getNavMesh().getTileAndPolyByRef(ref).result.first : null;
+    }
+
+    private static Array<CrowdAgent> addAgents(SimpleCrowdManager manager, Vector3 position, int count) {
+        Array<CrowdAgent> agents = new Array<>();
+        for (int i = 0; i < count; i++) {
+            CrowdAgent agent = manager.addAgent(position, SimpleCrowdManager.getDefaultAgentParams());
+            Assert.assertNotNull(agent);
+            agents.add(agent);
+        }
+        return agents;
+    }
+
+    private static boolean allWithin(Array<CrowdAgent> agents, Vector3 target, float distance) {
+        for (CrowdAgent agent : agents) {
+            float dx = agent.npos[0] - target.x;
+            float dz = agent.npos[2] - target.z;
+            if (dx * dx + dz * dz > distance * distance) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
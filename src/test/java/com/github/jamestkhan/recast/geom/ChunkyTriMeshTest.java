@@ -0,0 +1,239 @@
+package com.github.jamestkhan.recast.geom;
+
+import com.badlogic.gdx.utils.IntArray;
+import com.github.jamestkhan.recast.utils.BatchExecutor;
+import com.github.jamestkhan.recast.utils.ObjImporter;
+import org.junit.Assert;
+import org.junit.Test;
+import org.recast4j.recast.geom.TriMesh;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+public class ChunkyTriMeshTest {
+
+    static GdxInputGeomProvider loadTestGeom() {
+        return new ObjImporter().load(ChunkyTriMeshTest.class.getClassLoader().getResourceAsStream("nav_test.obj"));
+    }
+
+    @Test
+    public void flattenedTreeMatchesRecastQueries() {
+        GdxInputGeomProvider geom = loadTestGeom();
+        int ntris = geom.faces.length / 3;
+
+        org.recast4j.recast.geom.ChunkyTriMesh expected = new org.recast4j.recast.geom.ChunkyTriMesh(geom.vertices,
+                geom.faces, ntris, 32);
+        ChunkyTriMesh actual = new ChunkyTriMesh(geom.vertices, geom.faces, ntris, 32);
+
+        float[] bmin = geom.getMeshBoundsMin();
+        float[] bmax = geom.getMeshBoundsMax();
+        Random random = new Random(17);
+        float[] rmin = new float[2];
+        float[] rmax = new float[2];
+        for (int i = 0; i < 500; i++) {
+            float x = bmin[0] + random.nextFloat() * (bmax[0] - bmin[0]);
+            float z = bmin[2] + random.nextFloat() * (bmax[2] - bmin[2]);
+            float size = random.nextFloat() * 10;
+            rmin[0] = x;
+            rmin[1] = z;
+            rmax[0] = x + size;
+            rmax[1] = z + size;
+
+            List<org.recast4j.recast.geom.ChunkyTriMesh.ChunkyTriMeshNode> expectedChunks = expected
+                    .getChunksOverlappingRect(rmin, rmax);
+            List<ChunkyTriMesh.ChunkyTriMeshNode> actualChunks = actual.getChunksOverlappingRect(rmin, rmax);
+            Assert.assertEquals(expectedChunks.size(), actualChunks.size());
+            for (int c = 0; c < expectedChunks.size(); c++) {
+                Assert.assertArrayEquals(expectedChunks.get(c).tris, actualChunks.get(c).tris);
+            }
+        }
+    }
+
+    @Test
+    public void primitiveQueriesMatchListQueries() {
+        GdxInputGeomProvider geom = loadTestGeom();
+        ChunkyTriMesh mesh = new ChunkyTriMesh(geom.vertices, geom.faces, geom.faces.length / 3, 32);
+
+        float[] bmin = geom.getMeshBoundsMin();
+        float[] bmax = geom.getMeshBoundsMax();
+        float[] p = { bmin[0], bmin[2] };
+        float[] q = { bmax[0], bmax[2] };
+        float[] rmin = { bmin[0], bmin[2] };
+        float[] rmax = { (bmin[0] + bmax[0]) / 2, (bmin[2] + bmax[2]) / 2 };
+
+        List<ChunkyTriMesh.ChunkyTriMeshNode> rectChunks = mesh.getChunksOverlappingRect(rmin, rmax);
+        int[] ids = new int[mesh.getNodeCount()];
+        Assert.assertEquals(rectChunks.size(), mesh.getChunksOverlappingRect(rmin, rmax, ids));
+        IntArray visited = new IntArray();
+        mesh.forEachChunkOverlappingRect(rmin, rmax, visited::add);
+        Assert.assertArrayEquals(Arrays.copyOf(ids, rectChunks.size()), visited.toArray());
+        for (int c = 0; c < rectChunks.size(); c++) {
+            int node = ids[c];
+            Assert.assertArrayEquals(rectChunks.get(c).tris, Arrays.copyOfRange(mesh.getTris(),
+                    mesh.getNodeTriStart(node) * 3, (mesh.getNodeTriStart(node) + mesh.getNodeTriCount(node)) * 3));
+        }
+
+        List<ChunkyTriMesh.ChunkyTriMeshNode> segmentChunks = mesh.getChunksOverlappingSegment(p, q);
+        Assert.assertEquals(segmentChunks.size(), mesh.getChunksOverlappingSegment(p, q, ids));
+        visited.clear();
+        mesh.forEachChunkOverlappingSegment(p, q, visited::add);
+        Assert.assertArrayEquals(Arrays.copyOf(ids, segmentChunks.size()), visited.toArray());
+
+        // Too small an output still reports every overlapping chunk
+        Assert.assertEquals(segmentChunks.size(), mesh.getChunksOverlappingSegment(p, q, new int[1]));
+    }
+
+    @Test
+    public void parallelBuildMatchesSerialBuild() {
+        // A jittered grid, large enough to be split across threads
+        int size = 300;
+        Random random = new Random(5);
+        float[] verts = new float[(size + 1) * (size + 1) * 3];
+        for (int z = 0, v = 0; z <= size; z++) {
+            for (int x = 0; x <= size; x++, v += 3) {
+                verts[v] = x + random.nextFloat() * 0.5f;
+                verts[v + 1] = random.nextFloat();
+                verts[v + 2] = z + random.nextFloat() * 0.5f;
+            }
+        }
+        int[] tris = new int[size * size * 6];
+        for (int z = 0, t = 0; z < size; z++) {
+            for (int x = 0; x < size; x++) {
+                int a = z * (size + 1) + x;
+                int b = a + size + 1;
+                tris[t++] = a;
+                tris[t++] = b;
+                tris[t++] = a + 1;
+                tris[t++] = a + 1;
+                tris[t++] = b;
+                tris[t++] = b + 1;
+            }
+        }
+        int ntris = tris.length / 3;
+
+        ChunkyTriMesh serial = new ChunkyTriMesh(verts, tris, ntris, 256);
+        ChunkyTriMesh parallel = new ChunkyTriMesh(verts, tris, ntris, 256, BatchExecutor.common());
+
+        Assert.assertEquals(serial.nodeCount, parallel.nodeCount);
+        Assert.assertArrayEquals(serial.nodeBounds, parallel.nodeBounds, 0f);
+        Assert.assertArrayEquals(serial.nodeIndex, parallel.nodeIndex);
+        Assert.assertArrayEquals(serial.nodeTriStart, parallel.nodeTriStart);
+        Assert.assertArrayEquals(serial.nodeTriCount, parallel.nodeTriCount);
+        Assert.assertArrayEquals(serial.tris, parallel.tris);
+        Assert.assertEquals(serial.maxTrisPerChunk, parallel.maxTrisPerChunk);
+    }
+
+    @Test
+    public void snapshotRoundTripsGeometry() {
+        GdxInputGeomProvider geom = loadTestGeom();
+        long key = GeomSnapshot.hash(geom.vertices, geom.faces);
+        byte[] bytes = GeomSnapshot.toBytes(geom, key);
+
+        Assert.assertNull(GeomSnapshot.fromBytes(bytes, key + 1));
+        GdxInputGeomProvider loaded = GeomSnapshot.fromBytes(bytes, key);
+        Assert.assertNotNull(loaded);
+        Assert.assertArrayEquals(geom.vertices, loaded.vertices, 0f);
+        Assert.assertArrayEquals(geom.faces, loaded.faces);
+        Assert.assertArrayEquals(geom.normals, loaded.normals, 0f);
+        Assert.assertArrayEquals(geom.getMeshBoundsMin(), loaded.getMeshBoundsMin(), 0f);
+        Assert.assertArrayEquals(geom.getMeshBoundsMax(), loaded.getMeshBoundsMax(), 0f);
+
+        ChunkyTriMesh expected = geom.getChunkyTriMesh();
+        ChunkyTriMesh actual = loaded.getChunkyTriMesh();
+        Assert.assertArrayEquals(expected.nodeBounds, actual.nodeBounds, 0f);
+        Assert.assertArrayEquals(expected.nodeIndex, actual.nodeIndex);
+        Assert.assertArrayEquals(expected.nodeTriStart, actual.nodeTriStart);
+        Assert.assertArrayEquals(expected.nodeTriCount, actual.nodeTriCount);
+        Assert.assertArrayEquals(expected.tris, actual.tris);
+        Assert.assertEquals(expected.getTrisPerChunk(), actual.getTrisPerChunk());
+        Assert.assertEquals(expected.getMaxTrisPerChunk(), actual.getMaxTrisPerChunk());
+    }
+
+    @Test
+    public void damagedSnapshotIsStale() {
+        GdxInputGeomProvider geom = loadTestGeom();
+        long key = GeomSnapshot.hash(geom.vertices, geom.faces);
+        byte[] bytes = GeomSnapshot.toBytes(geom, key);
+
+        for (int length : new int[] { 0, 3, 20, 60, bytes.length / 2, bytes.length - 1 }) {
+            Assert.assertNull(GeomSnapshot.fromBytes(Arrays.copyOf(bytes, length), key));
+        }
+
+        // A garbage vertex count must not be allocated
+        byte[] corrupt = bytes.clone();
+        corrupt[16] = 0x7f;
+        Assert.assertNull(GeomSnapshot.fromBytes(corrupt, key));
+
+        // Nor may a face point past the vertices, the faces follow the 64 byte header and the vertices
+        ByteBuffer buffer = ByteBuffer.wrap(bytes.clone());
+        buffer.putInt(64 + 4 * geom.vertices.length, geom.vertices.length / 3);
+        Assert.assertNull(GeomSnapshot.fromBytes(buffer.array(), key));
+    }
+
+    @Test
+    public void snapshotWithAnotherChunkSizeIsStale() {
+        GdxInputGeomProvider geom = loadTestGeom();
+        int ntris = geom.faces.length / 3;
+        ChunkyTriMesh tree = new ChunkyTriMesh(geom.vertices, geom.faces, ntris,
+                GdxInputGeomProvider.TRIS_PER_CHUNK * 2);
+        GdxInputGeomProvider rechunked = new GdxInputGeomProvider(geom.vertices, geom.faces, geom.normals,
+                geom.getMeshBoundsMin(), geom.getMeshBoundsMax(), tree);
+        long key = GeomSnapshot.hash(geom.vertices, geom.faces);
+
+        Assert.assertNull(GeomSnapshot.fromBytes(GeomSnapshot.toBytes(rechunked, key), key));
+    }
+
+    @Test
+    public void providerMeshSharesChunkTree() {
+        GdxInputGeomProvider geom = loadTestGeom();
+        TriMesh mesh = geom.meshes().iterator().next();
+        Assert.assertSame(mesh, geom.meshes().iterator().next());
+        Assert.assertSame(geom.vertices, mesh.getVerts());
+        Assert.assertSame(geom.faces, mesh.getTris());
+
+        TriMesh expected = new TriMesh(geom.vertices, geom.faces);
+        float[] bmin = geom.getMeshBoundsMin();
+        float[] bmax = geom.getMeshBoundsMax();
+        Random random = new Random(23);
+        float[] rmin = new float[2];
+        float[] rmax = new float[2];
+        for (int i = 0; i < 200; i++) {
+            float x = bmin[0] + random.nextFloat() * (bmax[0] - bmin[0]);
+            float z = bmin[2] + random.nextFloat() * (bmax[2] - bmin[2]);
+            float size = random.nextFloat() * 10;
+            rmin[0] = x;
+            rmin[1] = z;
+            rmax[0] = x + size;
+            rmax[1] = z + size;
+
+            List<org.recast4j.recast.geom.ChunkyTriMesh.ChunkyTriMeshNode> expectedChunks = expected
+                    .getChunksOverlappingRect(rmin, rmax);
+            List<org.recast4j.recast.geom.ChunkyTriMesh.ChunkyTriMeshNode> actualChunks = mesh
+                    .getChunksOverlappingRect(rmin, rmax);
+            Assert.assertEquals(expectedChunks.size(), actualChunks.size());
+            for (int c = 0; c < expectedChunks.size(); c++) {
+                Assert.assertArrayEquals(expectedChunks.get(c).tris, actualChunks.get(c).tris);
+            }
+        }
+    }
+
+    @Test
+    public void sortIsStable() {
+        int count = 1000;
+        float[] bounds = new float[count * 4];
+        int[] items = new int[count];
+        Random random = new Random(3);
+        for (int i = 0; i < count; i++) {
+            bounds[i * 4] = random.nextInt(10);
+            items[i] = i;
+        }
+        ChunkyTriMesh.sort(bounds, 0, items, new int[count], 0, count);
+        for (int i = 1; i < count; i++) {
+            float a = bounds[items[i - 1] * 4];
+            float b = bounds[items[i] * 4];
+            Assert.assertTrue(a < b || (a == b && items[i - 1] < items[i]));
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.github.jamestkhan.recast.geom;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+public class GeomPreprocessorTest {
+
+    @Test
+    public void weldsAndRemovesTriangles() {
+        // A quad whose two triangles do not share vertices, plus a copy, a sliver and a collapsed triangle
+        float[] vertices = {
+                0, 0, 0, 1, 0, 0, 1, 0, 1,
+                0, 0, 0, 1, 0, 1.0001f, 0, 0, 1,
+                0.5f, 0, 0, 9, 9, 9 };
+        int[] faces = {
+                0, 2, 1,
+                3, 5, 4,
+                2, 1, 0,
+                0, 1, 6,
+                0, 3, 1 };
+        GeomPreprocessor preprocessor = new GeomPreprocessor(null);
+        GdxInputGeomProvider geom = preprocessor.process(vertices, faces);
+
+        Assert.assertEquals(2, preprocessor.getWeldedVertexCount());
+        Assert.assertEquals(2, preprocessor.getUnusedVertexCount());
+        Assert.assertEquals(1, preprocessor.getDuplicateCount());
+        Assert.assertEquals(2, preprocessor.getDegenerateCount());
+        Assert.assertEquals(3, preprocessor.getRemovedTriangleCount());
+        Assert.assertArrayEquals(new int[] { 0, 1, 2, 0, 3, 1 }, geom.faces);
+        Assert.assertArrayEquals(new float[] { 0, 0, 0, 1, 0, 1, 1, 0, 0, 0, 0, 1 }, geom.vertices, 0f);
+        Assert.assertArrayEquals(new float[] { 0, 1, 0, 0, 1, 0 }, geom.normals, 1e-6f);
+
+        // Processing twice changes nothing the second time
+        GdxInputGeomProvider raw = ChunkyTriMeshTest.loadTestGeom();
+        GdxInputGeomProvider processed = preprocessor.process(raw.vertices, raw.faces);
+        Assert.assertEquals(raw.faces.length / 3, processed.faces.length / 3 + preprocessor.getRemovedTriangleCount());
+        GdxInputGeomProvider again = preprocessor.process(processed.vertices, processed.faces);
+        Assert.assertEquals(0, preprocessor.getRemovedTriangleCount());
+        Assert.assertEquals(0, preprocessor.getWeldedVertexCount());
+        Assert.assertArrayEquals(processed.faces, again.faces);
+    }
+
+
+    @Test
+    public void weldsFarFromTheOrigin() {
+        // Millions of units out, more weld cells than an int can count: two triangles and a copy of the first with its
+        // own vertices
+        float[] vertices = new float[27];
+        float[][] offsets = { { 3e6f, 10, -3e6f }, { 4e6f, 10, -3e6f }, { 3e6f, 10, -3e6f } };
+        for (int t = 0; t < 3; t++) {
+            float[] o = offsets[t];
+            float[] tri = { o[0], o[1], o[2], o[0], o[1], o[2] + 1, o[0] + 1, o[1], o[2] };
+            System.arraycopy(tri, 0, vertices, t * 9, 9);
+        }
+        int[] faces = { 0, 1, 2, 3, 4, 5, 6, 7, 8 };
+        GeomPreprocessor preprocessor = new GeomPreprocessor(null);
+        GdxInputGeomProvider geom = preprocessor.process(vertices, faces);
+
+        Assert.assertEquals(3, preprocessor.getWeldedVertexCount());
+        Assert.assertEquals(0, preprocessor.getDegenerateCount());
+        Assert.assertEquals(1, preprocessor.getDuplicateCount());
+        Assert.assertArrayEquals(new int[] { 0, 1, 2, 3, 4, 5 }, geom.faces);
+        Assert.assertArrayEquals(Arrays.copyOf(vertices, 18), geom.vertices, 0f);
+
+        // A finer weld distance gives the same result
+        preprocessor.setWeldDistance(0.0001f);
+        geom = preprocessor.process(vertices, faces);
+        Assert.assertEquals(3, preprocessor.getWeldedVertexCount());
+        Assert.assertEquals(0, preprocessor.getDegenerateCount());
+        Assert.assertEquals(1, preprocessor.getDuplicateCount());
+        Assert.assertArrayEquals(new int[] { 0, 1, 2, 3, 4, 5 }, geom.faces);
+    }
+}
@@ -0,0 +1,105 @@
+package com.github.jamestkhan.recast.geom;
+
+import com.github.jamestkhan.recast.NavMeshData;
+import com.github.jamestkhan.recast.TestNavMeshes;
+import com.github.jamestkhan.recast.utils.BatchExecutor;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Test;
+import org.recast4j.detour.NavMesh;
+
+import java.util.Optional;
+
+public class NavMeshRaycastTest {
+
+    @Test
+    public void indexedRaycastMatchesBruteForce() {
+        NavMeshData data = TestNavMeshes.buildTestNavMesh();
+        NavMesh navMesh = data.getNavMesh();
+        float[][] bounds = NavMeshUtils.getNavMeshBounds(navMesh);
+
+        int count = 2000;
+        float[] points = TestNavMeshes.randomPositions(data, count * 2, 9);
+        for (int i = 0; i < count; i++) {
+            // Mostly downward rays, like picking from a camera above the level
+            points[i * 6 + 1] = bounds[1][1] + 5;
+            points[i * 6 + 4] = bounds[0][1] - 5;
+        }
+        float[] src = new float[3];
+        float[] dst = new float[3];
+        NavMeshRaycast.RaycastHit hit = new NavMeshRaycast.RaycastHit();
+
+        int hits = 0;
+        for (int i = 0; i < count; i++) {
+            System.arraycopy(points, i * 6, src, 0, 3);
+            System.arraycopy(points, i * 6 + 3, dst, 0, 3);
+
+            Optional<Float> expected = NavMeshRaycast.raycastBruteForce(navMesh, src, dst);
+            boolean found = NavMeshRaycast.raycast(navMesh, src, dst, hit);
+
+            Assert.assertEquals(expected.isPresent(), found);
+            if (found) {
+                hits++;
+                Assert.assertEquals(expected.get(), hit.t, 1e-6f);
+                Assert.assertTrue(navMesh.isValidPolyRef(hit.polyRef));
+            }
+        }
+        Assert.assertTrue(hits > 0);
+    }
+
+    @Test
+    public void primitiveSegmentTriangleTestDoesNotAllocate() {
+        Assume.assumeTrue(TestNavMeshes.allocatedBytes() >= 0);
+
+        float[] tri = { 0, 0, 0, 0, 0, 1, 1, 0, 0 };
+        float[] scratch = new float[Intersections.SEGMENT_TRIANGLE_SCRATCH];
+        float[] sp = { 0.25f, 1, 0.25f };
+        float[] sq = { 0.25f, -1, 0.25f };
+        float[] miss = { 2, -1, 2 };
+        Assert.assertEquals(0.5f, Intersections.intersectSegmentTriangle(sp, sq, tri, scratch), 1e-6f);
+        Assert.assertTrue(Float.isNaN(Intersections.intersectSegmentTriangle(sp, miss, tri, scratch)));
+        Assert.assertEquals(Intersections.intersectSegmentTriangle(sp, sq, new float[] { 0, 0, 0 },
+                new float[] { 0, 0, 1 }, new float[] { 1, 0, 0 }).get(), 0.5f, 1e-6f);
+
+        float sum = 0;
+        long before = TestNavMeshes.allocatedBytes();
+        for (int i = 0; i < 100000; i++) {
+            sum += Intersections.intersectSegmentTriangle(sp, sq, tri, scratch);
+        }
+        long bytes = TestNavMeshes.allocatedBytes() - before;
+        Assert.assertEquals(50000f, sum, 1f);
+        Assert.assertTrue("Triangle tests allocated " + bytes + " bytes", bytes < 1024);
+    }
+
+    @Test
+    public void batchRaycastMatchesSingleRaycasts() {
+        NavMeshData data = TestNavMeshes.buildTestNavMesh();
+        NavMesh navMesh = data.getNavMesh();
+        int count = 1000;
+        float[] origins = TestNavMeshes.randomPositions(data, count, 13);
+        float[] destinations = TestNavMeshes.randomPositions(data, count, 14);
+        float[] t = new float[count];
+        long[] refs = new long[count];
+
+        int hits = new NavMeshBatchRaycast(BatchExecutor.common()).raycast(navMesh, origins, destinations, count, t,
+                refs);
+
+        float[] src = new float[3];
+        float[] dst = new float[3];
+        NavMeshRaycast.RaycastHit hit = new NavMeshRaycast.RaycastHit();
+        int expectedHits = 0;
+        for (int i = 0; i < count; i++) {
+            System.arraycopy(origins, i * 3, src, 0, 3);
+            System.arraycopy(destinations, i * 3, dst, 0, 3);
+            if (NavMeshRaycast.raycast(navMesh, src, dst, hit)) {
+                expectedHits++;
+                Assert.assertEquals(hit.t, t[i], 0f);
+                Assert.assertEquals(hit.polyRef, refs[i]);
+            } else {
+                Assert.assertTrue(Float.isNaN(t[i]));
+                Assert.assertEquals(0, refs[i]);
+            }
+        }
+        Assert.assertEquals(expectedHits, hits);
+    }
+}
@@ -0,0 +1,112 @@
+package com.github.jamestkhan.recast.geom;
+
+import com.github.jamestkhan.recast.NavMeshGenSettings;
+import com.github.jamestkhan.recast.TestNavMeshes;
+import com.github.jamestkhan.recast.utils.NavMeshGenerator;
+import com.github.jamestkhan.recast.utils.ObjImporter;
+import org.junit.Assert;
+import org.junit.Test;
+import org.recast4j.detour.MeshData;
+import org.recast4j.detour.MeshTile;
+import org.recast4j.detour.NavMesh;
+import org.recast4j.detour.Poly;
+import org.recast4j.detour.PolyDetail;
+
+import java.util.Arrays;
+
+public class WalkableCullerTest {
+
+    @Test
+    public void cullingKeepsNavMesh() {
+        NavMeshGenSettings settings = NavMeshGenSettings.Builder.SettingsBuilder()
+                .agentRadius(1.0f)
+                .agentHeight(2.0f)
+                .agentMaxClimb(2.50f)
+                .cullUnwalkableTriangles(true)
+                .build();
+        GdxInputGeomProvider geom = new ObjImporter()
+                .load(WalkableCullerTest.class.getClassLoader().getResourceAsStream("nav_test.obj"));
+        WalkableCuller culler = new WalkableCuller(null);
+        GdxInputGeomProvider culled = culler.cull(geom, settings);
+        Assert.assertTrue(culler.getCulledCount() > 0);
+        Assert.assertEquals(geom.faces.length / 3 - culler.getCulledCount(), culled.faces.length / 3);
+
+        NavMesh expected = TestNavMeshes.buildTestNavMesh().getNavMesh();
+        NavMesh actual = NavMeshGenerator.buildNavMesh(settings, geom).getNavMesh();
+        Assert.assertEquals(expected.getMaxTiles(), actual.getMaxTiles());
+        for (int t = 0; t < expected.getMaxTiles(); t++) {
+            MeshTile expectedTile = expected.getTile(t);
+            MeshTile actualTile = actual.getTile(t);
+            if (expectedTile == null || expectedTile.data == null) {
+                Assert.assertTrue(actualTile == null || actualTile.data == null);
+                continue;
+            }
+            assertSameTile(expectedTile.data, actualTile.data);
+        }
+    }
+
+    @Test
+    public void cullingDropsOnlyTrianglesOutOfReach() {
+        NavMeshGenSettings settings = NavMeshGenSettings.Builder.SettingsBuilder()
+                .agentRadius(0.5f)
+                .agentHeight(2.0f)
+                .agentMaxClimb(0.9f)
+                .build();
+        float low = settings.agentHeight - 0.1f;
+        float high = settings.agentHeight + settings.cellHeight + 1;
+        float[] vertices = {
+                // Floor
+                0, 0, 0, 0, 0, 10, 10, 0, 0, 10, 0, 10,
+                // Ceiling just low enough to limit the clearance above the floor
+                0, low, 0, 10, low, 0, 0, low, 10, 10, low, 10,
+                // Ceiling out of reach above the floor
+                0, high, 0, 10, high, 0, 0, high, 10, 10, high, 10,
+                // Wall far from the floor
+                50, 0, 0, 50, 5, 0, 50, 0, 10, 50, 5, 10,
+        };
+        int[] faces = {
+                0, 1, 2, 2, 1, 3,
+                4, 5, 6, 5, 7, 6,
+                8, 9, 10, 9, 11, 10,
+                12, 13, 14, 13, 15, 14,
+        };
+        GdxInputGeomProvider geom = new GdxInputGeomProvider(vertices, faces);
+        WalkableCuller culler = new WalkableCuller(null);
+        GdxInputGeomProvider culled = culler.cull(geom, settings);
+
+        Assert.assertEquals(2, culler.getWalkableCount());
+        Assert.assertEquals(4, culler.getCulledCount());
+        Assert.assertArrayEquals(Arrays.copyOf(faces, 12), culled.faces);
+        Assert.assertArrayEquals(geom.getMeshBoundsMin(), culled.getMeshBoundsMin(), 0f);
+        Assert.assertArrayEquals(geom.getMeshBoundsMax(), culled.getMeshBoundsMax(), 0f);
+    }
+
+    private static void assertSameTile(MeshData expected, MeshData actual) {
+        Assert.assertEquals(expected.header.polyCount, actual.header.polyCount);
+        Assert.assertArrayEquals(expected.verts, actual.verts, 0f);
+        for (int i = 0; i < expected.header.polyCount; i++) {
+            Poly expectedPoly = expected.polys[i];
+            Poly actualPoly = actual.polys[i];
+            Assert.assertEquals(expectedPoly.vertCount, actualPoly.vertCount);
+            Assert.assertArrayEquals(expectedPoly.verts, actualPoly.verts);
+            Assert.assertArrayEquals(expectedPoly.neis, actualPoly.neis);
+            Assert.assertEquals(expectedPoly.flags, actualPoly.flags);
+            Assert.assertEquals(expectedPoly.getArea(), actualPoly.getArea());
+        }
+
+        Assert.assertEquals(expected.detailMeshes == null, actual.detailMeshes == null);
+        if (expected.detailMeshes != null) {
+            Assert.assertEquals(expected.detailMeshes.length, actual.detailMeshes.length);
+            for (int i = 0; i < expected.detailMeshes.length; i++) {
+                PolyDetail expectedDetail = expected.detailMeshes[i];
+                PolyDetail actualDetail = actual.detailMeshes[i];
+                Assert.assertEquals(expectedDetail.vertBase, actualDetail.vertBase);
+                Assert.assertEquals(expectedDetail.vertCount, actualDetail.vertCount);
+                Assert.assertEquals(expectedDetail.triBase, actualDetail.triBase);
+                Assert.assertEquals(expectedDetail.triCount, actualDetail.triCount);
+            }
+        }
+        Assert.assertArrayEquals(expected.detailVerts, actual.detailVerts, 0f);
+        Assert.assertArrayEquals(expected.detailTris, actual.detailTris);
+    }
+}
@@ -0,0 +1,20 @@
+package com.github.jamestkhan.recast.utils;
+
+import com.badlogic.gdx.utils.IntArray;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class NavMeshGeneratorTest {
+
+    @Test
+    public void indicesAboveShortRangeStayPositive() {
+        // A mesh with 65536 vertices stores indices 32768 and up as negative shorts
+        short[] indices = { 0, 32767, (short) 32768, (short) 40000, (short) 65535, 1 };
+        IntArray out = new IntArray();
+        out.add(7);
+
+        NavMeshGenerator.addIndices(indices, 100, out);
+
+        Assert.assertArrayEquals(new int[] { 7, 100, 32867, 32868, 40100, 65635, 101 }, out.toArray());
+    }
+}
@@ -0,0 +1,76 @@
+package com.github.jamestkhan.recast.utils;
+
+import com.badlogic.gdx.files.FileHandle;
+import com.github.jamestkhan.recast.NavMeshData;
+import com.github.jamestkhan.recast.TestNavMeshes;
+import com.github.jamestkhan.recast.detour.LandmarkTable;
+import com.github.jamestkhan.recast.detour.PolyGraph;
+import com.github.jamestkhan.recast.geom.GdxInputGeomProvider;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+public class NavMeshIOTest {
+
+    @Test
+    public void landmarksRoundTrip() throws IOException {
+        NavMeshData data = TestNavMeshes.buildTestNavMesh();
+        PolyGraph graph = data.getIslandIndex().getGraph();
+        LandmarkTable landmarks = LandmarkTable.build(graph, 8);
+
+        File dir = Files.createTempDirectory("navmesh").toFile();
+        try {
+            FileHandle navFile = new FileHandle(new File(dir, "level.nav"));
+            Assert.assertNull(NavMeshIO.loadLandmarks(navFile, graph));
+
+            NavMeshIO.saveLandmarks(landmarks, navFile);
+            Assert.assertTrue(NavMeshIO.landmarksFile(navFile).exists());
+            LandmarkTable loaded = NavMeshIO.loadLandmarks(navFile, graph);
+
+            Assert.assertSame(graph, loaded.getGraph());
+            Assert.assertEquals(landmarks.getLandmarkCount(), loaded.getLandmarkCount());
+            for (int i = 0; i < landmarks.getLandmarkCount(); i++) {
+                Assert.assertEquals(landmarks.getLandmarkRef(i), loaded.getLandmarkRef(i));
+            }
+            for (int n = 0; n < graph.getNodeCount(); n += 7) {
+                for (int t = 0; t < graph.getNodeCount(); t += 11) {
+                    Assert.assertEquals(landmarks.heuristic(n, t), loaded.heuristic(n, t), 0f);
+                }
+            }
+        } finally {
+            new FileHandle(dir).deleteDirectory();
+        }
+    }
+
+    @Test
+    public void damagedGeometryCacheIsRebuilt() throws IOException {
+        File dir = Files.createTempDirectory("navmesh").toFile();
+        try {
+            FileHandle objFile = new FileHandle(new File(dir, "level.obj"));
+            objFile.write(NavMeshIOTest.class.getClassLoader().getResourceAsStream("nav_test.obj"), false);
+            FileHandle cacheFile = new FileHandle(new File(dir, "level.geom"));
+            GdxInputGeomProvider imported = NavMeshIO.loadObjCached(objFile, cacheFile);
+            Assert.assertTrue(cacheFile.exists());
+            Assert.assertFalse(cacheFile.sibling("level.geom.tmp").exists());
+
+            // An interrupted write leaves a truncated file behind
+            byte[] bytes = cacheFile.readBytes();
+            cacheFile.writeBytes(Arrays.copyOf(bytes, bytes.length / 3), false);
+            GdxInputGeomProvider reimported = NavMeshIO.loadObjCached(objFile, cacheFile);
+            Assert.assertArrayEquals(imported.vertices, reimported.vertices, 0f);
+            Assert.assertArrayEquals(imported.faces, reimported.faces);
+            Assert.assertEquals(bytes.length, cacheFile.length());
+
+            // A file that is not a snapshot at all is replaced too
+            cacheFile.writeString("not a snapshot", false);
+            Assert.assertArrayEquals(imported.faces, NavMeshIO.loadObjCached(objFile, cacheFile).faces);
+            Assert.assertEquals(bytes.length, cacheFile.length());
+        } finally {
+            new FileHandle(dir).deleteDirectory();
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.github.jamestkhan.recast.utils;
+
+import com.github.jamestkhan.recast.geom.GdxInputGeomProvider;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+
+public class ObjImporterTest {
+
+    @Test
+    public void negativeFaceIndicesCountBackFromVerticesRead() {
+        String obj = "v 0 0 0\n"
+                + "v 1 0 0\n"
+                + "v 1 0 1\n"
+                + "f -3 -2 -1\n"
+                + "v 0 0 1\n"
+                + "v 2 0 0\n"
+                + "f -5 -3 -2\n"
+                + "f 2 -1 3\n";
+        GdxInputGeomProvider geom = load(obj);
+
+        Assert.assertEquals(15, geom.vertices.length);
+        Assert.assertArrayEquals(new int[] { 0, 1, 2, 0, 2, 3, 1, 4, 2 }, geom.faces);
+    }
+
+    @Test
+    public void negativeFaceIndicesInPolygonsWithTexturesAndNormals() {
+        String obj = "v 0 0 0\n"
+                + "v 1 0 0\n"
+                + "v 1 0 1\n"
+                + "v 0 0 1\n"
+                + "f -4/1/1 -3/2/1 -2/3/1 -1/4/1\n";
+        GdxInputGeomProvider geom = load(obj);
+
+        Assert.assertArrayEquals(new int[] { 0, 1, 2, 0, 2, 3 }, geom.faces);
+    }
+
+    private static GdxInputGeomProvider load(String obj) {
+        return new ObjImporter().load(new ByteArrayInputStream(obj.getBytes(StandardCharsets.UTF_8)));
+    }
+}
@@ -0,0 +1,131 @@
+package com.github.jamestkhan.recast.utils;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+
+public class PolyCorridorTest {
+
+    @Test
+    public void fixupCorridorMovingForward() {
+        PolyCorridor corridor = corridor(1, 2, 3, 4, 5);
+
+        // Moved from poly 1 into poly 2
+        corridor.fixupCorridor(Arrays.asList(1L, 2L));
+
+        assertCorridor(corridor, 2, 3, 4, 5);
+    }
+
+    @Test
+    public void fixupCorridorPrependsVisitedOffPath() {
+        PolyCorridor corridor = corridor(1, 2, 3);
+
+        // Slid through polys 10 and 11 which are not on the corridor before reaching 2
+        corridor.fixupCorridor(Arrays.asList(1L, 10L, 11L, 2L));
+
+        assertCorridor(corridor, 2, 3);
+
+        // Left the corridor through 20 into 21
+        corridor.fixupCorridor(Arrays.asList(2L, 20L, 21L));
+        assertCorridor(corridor, 21, 20, 2, 3);
+
+        corridor.fixupCorridor(Arrays.asList(3L, 30L, 31L, 32L));
+        assertCorridor(corridor, 32, 31, 30, 3);
+    }
+
+    @Test
+    public void fixupCorridorGrowsHeadRoom() {
+        PolyCorridor corridor = new PolyCorridor(4);
+        corridor.set(Arrays.asList(100L, 101L));
+
+        Long[] visited = new Long[40];
+        for (int i = 0; i < visited.length; i++) {
+            visited[i] = (long) (200 + i);
+        }
+        visited[visited.length - 1] = 100L;
+        visited[0] = 100L;
+        List<Long> visitedList = Arrays.asList(visited);
+
+        corridor.fixupCorridor(visitedList);
+
+        // Furthest common polygon is the first visited entry, every visited poly is prepended in reverse
+        Assert.assertEquals(41, corridor.size());
+        Assert.assertEquals(100L, corridor.get(0));
+        Assert.assertEquals(238L, corridor.get(1));
+        Assert.assertEquals(101L, corridor.last());
+    }
+
+    @Test
+    public void boundedFixupWorkDoesNotGrowWithCorridorLength() {
+        Assert.assertEquals(boundedFixupReads(100), boundedFixupReads(100000));
+    }
+
+    @Test
+    public void boundedFixupIgnoresPolygonsPastTheHead() {
+        PolyCorridor corridor = corridor(1, 2, 3, 4, 5, 6);
+
+        // Polygon 5 is past the searched head, the move is merged as a detour from polygon 1
+        corridor.fixupCorridor(Arrays.asList(1L, 10L, 5L), 3);
+        assertCorridor(corridor, 5, 10, 1, 2, 3, 4, 5, 6);
+
+        corridor = corridor(1, 2, 3, 4, 5, 6);
+        corridor.fixupCorridor(Arrays.asList(1L, 10L, 5L), 5);
+        assertCorridor(corridor, 5, 6);
+    }
+
+    /**
+     * Moves over the first three polygons of a corridor of the given length.
+     *
+     * @return the number of visited polygons read while merging
+     */
+    private static int boundedFixupReads(int length) {
+        long[] refs = new long[length];
+        for (int i = 0; i < length; i++) {
+            refs[i] = i + 1;
+        }
+        PolyCorridor corridor = corridor(refs);
+        final Long[] moved = { 1L, 2L, 3L };
+        final int[] reads = new int[1];
+        List<Long> visited = new AbstractList<Long>() {
+            @Override
+            public Long get(int index) {
+                reads[0]++;
+                return moved[index];
+            }
+
+            @Override
+            public int size() {
+                return moved.length;
+            }
+        };
+
+        corridor.fixupCorridor(visited, visited.size() + 8);
+
+        Assert.assertEquals(length - 2, corridor.size());
+        Assert.assertEquals(3L, corridor.first());
+        return reads[0];
+    }
+
+    @Test
+    public void listViewIsLive() {
+        PolyCorridor corridor = corridor(1, 2, 3);
+        List<Long> view = corridor.asList();
+        corridor.removeFirst(1);
+        Assert.assertEquals(Arrays.asList(2L, 3L), view);
+    }
+
+    private static PolyCorridor corridor(long... refs) {
+        PolyCorridor corridor = new PolyCorridor();
+        corridor.set(refs, refs.length);
+        return corridor;
+    }
+
+    private static void assertCorridor(PolyCorridor corridor, long... expected) {
+        long[] actual = new long[corridor.size()];
+        corridor.toArray(actual);
+        Assert.assertArrayEquals(expected, actual);
+    }
+}